@@ -0,0 +1,74 @@
+package benchmarks;
+
+import core.Period;
+import core.Timestamp;
+import core.TimestampFormatter;
+import core.Unit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the inputs shared by the benchmarks. The inputs are generated with a fixed seed, so every run
+ * measures exactly the same data.
+ */
+final class BenchmarkInputs {
+
+    static final long SEED = 42;
+
+    static final String TIME_PATTERN = "HH:mm:ss";
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Generates the content of a data file: each row has a date, a time, and the data values. Consecutive
+     * rows are one second apart.
+     *
+     * @param rowCount   the number of rows.
+     * @param valueCount the number of data values in each row.
+     * @return the content of the data file, with a line break after each row.
+     */
+    static String dataFile(int rowCount, int valueCount) {
+        TimestampFormatter dateFormatter = TimestampFormatter.ofPattern(TimestampFormatter.DEFAULT_DATE_PATTERN);
+        TimestampFormatter timeFormatter = TimestampFormatter.ofPattern(TIME_PATTERN);
+        Random random = new Random(SEED);
+
+        StringBuilder content = new StringBuilder(rowCount * (20 + valueCount * 20));
+        Timestamp timestamp = Timestamp.of(2016, 10, 10, 0, 0, 0);
+
+        for (int row = 0; row < rowCount; row++) {
+            content.append(dateFormatter.format(timestamp))
+                    .append(',')
+                    .append(timeFormatter.format(timestamp));
+
+            for (int i = 0; i < valueCount; i++) {
+                content.append(',').append(random.nextGaussian() * 100);
+            }
+            content.append("\r\n");
+
+            timestamp = timestamp.plus(Period.of(1, Unit.SECONDS));
+        }
+
+        return content.toString();
+    }
+
+    /**
+     * Generates the data values of a record.
+     *
+     * @param valueCount the number of values.
+     * @return the values, not null.
+     */
+    static List<Double> values(int valueCount) {
+        Random random = new Random(SEED);
+
+        Double[] values = new Double[valueCount];
+        for (int i = 0; i < valueCount; i++) {
+            values[i] = random.nextGaussian() * 100;
+        }
+
+        return Arrays.asList(values);
+    }
+
+}
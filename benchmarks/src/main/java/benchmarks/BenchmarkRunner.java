@@ -0,0 +1,33 @@
+package benchmarks;
+
+import core.TimestampFormatter;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, which reports the bytes allocated per operation
+ * (gc.alloc.rate.norm) next to the throughput. Accepts the same arguments as the JMH runner, for instance a
+ * regular expression to select the benchmarks to run. The date patterns are measured with every pattern
+ * offered to the user, unless other patterns are given with -p datePattern.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLineOptions)
+                .addProfiler(GCProfiler.class);
+
+        if (!commandLineOptions.getParameter("datePattern").hasValue()) {
+            options.param("datePattern", TimestampFormatter.DATE_PATTERNS.toArray(new String[0]));
+        }
+
+        new Runner(options.build()).run();
+    }
+
+}
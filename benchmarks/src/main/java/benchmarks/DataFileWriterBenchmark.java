@@ -0,0 +1,75 @@
+package benchmarks;
+
+import core.DataFileWriter;
+import core.Period;
+import core.Timestamp;
+import core.Unit;
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting one row of statistics. The rows are written to a writer that discards them, so only
+ * the formatting is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataFileWriterBenchmark {
+
+    private static final Period SECOND = Period.of(1, Unit.SECONDS);
+
+    @Param({"1", "8", "32"})
+    public int valueCount;
+
+    private DataFileWriter writer;
+    private Timestamp timestamp;
+    private List<Double> means;
+    private List<Double> standardDeviations;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> headers = new ArrayList<>();
+        for (int i = 0; i < valueCount; i++) {
+            headers.add("H" + i);
+        }
+
+        writer = DataFileWriter.outputTo(new NullWriter())
+                .withDataHeaders(headers)
+                .build();
+
+        timestamp = Timestamp.of(2016, 10, 10, 0, 0, 0);
+        means = BenchmarkInputs.values(valueCount);
+        standardDeviations = BenchmarkInputs.values(valueCount);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        writer.close();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        writer.write(timestamp, 60, means, standardDeviations);
+        timestamp = timestamp.plus(SECOND);
+    }
+
+}
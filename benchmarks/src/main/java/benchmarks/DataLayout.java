@@ -0,0 +1,246 @@
+package benchmarks;
+
+import core.DataRecordReader;
+import core.Delimiter;
+import core.Timestamp;
+import core.TimestampFormatter;
+import core.Unit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Layout of the timestamps in a data file: the date and time patterns, and whether the date and time are in
+ * separate columns or in the same column, separated by a delimiter. The timestamps can also be epoch
+ * values in a single column.
+ */
+public final class DataLayout {
+
+    /**
+     * The time patterns offered by the user interface.
+     */
+    public static final List<String> TIME_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+            "HH:mm:ss", "HHmmss", "HH:mm", "HH:mm:ss.SSS", "HH:mm:ss.SSSSSS"
+    ));
+
+    /**
+     * The epoch units supported by the data record reader.
+     */
+    public static final List<Unit> EPOCH_UNITS = Collections.unmodifiableList(Arrays.asList(
+            Unit.SECONDS, Unit.MILLIS, Unit.MICROS
+    ));
+
+    private final String datePattern;
+    private final String timePattern;
+    private final Delimiter delimiter;      // null if the date and time are in separate columns
+    private final boolean timeBeforeDate;
+    private final Unit epochUnit;           // null if the timestamps are formatted
+
+    private final TimestampFormatter dateFormatter;
+    private final TimestampFormatter timeFormatter;
+
+    private DataLayout(String datePattern, String timePattern, Delimiter delimiter, boolean timeBeforeDate,
+                       Unit epochUnit) {
+        this.datePattern = datePattern;
+        this.timePattern = timePattern;
+        this.delimiter = delimiter;
+        this.timeBeforeDate = timeBeforeDate;
+        this.epochUnit = epochUnit;
+        this.dateFormatter = datePattern != null ? TimestampFormatter.ofPattern(datePattern) : null;
+        this.timeFormatter = timePattern != null ? TimestampFormatter.ofPattern(timePattern) : null;
+    }
+
+    /**
+     * Creates a layout with the date and time in separate columns.
+     *
+     * @param datePattern    the pattern of the dates, not null.
+     * @param timePattern    the pattern of the times, not null.
+     * @param timeBeforeDate true if the time column comes before the date column.
+     * @return the layout, not null.
+     */
+    public static DataLayout separateColumns(String datePattern, String timePattern, boolean timeBeforeDate) {
+        return new DataLayout(datePattern, timePattern, null, timeBeforeDate, null);
+    }
+
+    /**
+     * Creates a layout with the date and time in the same column.
+     *
+     * @param datePattern    the pattern of the dates, not null.
+     * @param timePattern    the pattern of the times, not null.
+     * @param delimiter      the delimiter between the date and the time, not null.
+     * @param timeBeforeDate true if the time comes before the date.
+     * @return the layout, not null.
+     */
+    public static DataLayout sameColumn(String datePattern, String timePattern, Delimiter delimiter,
+                                        boolean timeBeforeDate) {
+        return new DataLayout(datePattern, timePattern, delimiter, timeBeforeDate, null);
+    }
+
+    /**
+     * Creates a layout with epoch timestamps in a single column.
+     *
+     * @param unit the unit of the epoch values, not null.
+     * @return the layout, not null.
+     */
+    public static DataLayout epoch(Unit unit) {
+        return new DataLayout(null, null, null, false, unit);
+    }
+
+    /**
+     * Returns every supported layout: each date pattern with each time pattern, in separate columns or in
+     * the same column with each delimiter, with the date or the time first, and each epoch unit.
+     *
+     * @return the layouts, not null.
+     */
+    public static List<DataLayout> all() {
+        List<DataLayout> layouts = new ArrayList<>();
+
+        for (String datePattern : TimestampFormatter.DATE_PATTERNS) {
+            for (String timePattern : TIME_PATTERNS) {
+                for (boolean timeBeforeDate : new boolean[]{false, true}) {
+                    layouts.add(separateColumns(datePattern, timePattern, timeBeforeDate));
+
+                    for (Delimiter delimiter : Delimiter.values()) {
+                        layouts.add(sameColumn(datePattern, timePattern, delimiter, timeBeforeDate));
+                    }
+                }
+            }
+        }
+
+        for (Unit unit : EPOCH_UNITS) {
+            layouts.add(epoch(unit));
+        }
+
+        return layouts;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Returns the number of columns with the timestamp: 2 if the date and time are in separate columns, 1
+     * otherwise. The timestamp columns are always the first columns.
+     *
+     * @return the number of timestamp columns.
+     */
+    public int getTimestampColumnCount() {
+        return isSeparateColumns() ? 2 : 1;
+    }
+
+    /**
+     * Returns the column with the date (columns start at 0).
+     *
+     * @return the date column.
+     */
+    public int getDateColumn() {
+        return isSeparateColumns() && timeBeforeDate ? 1 : 0;
+    }
+
+    /**
+     * Returns the column with the time (columns start at 0). Same as the date column if the date and time
+     * are in the same column.
+     *
+     * @return the time column.
+     */
+    public int getTimeColumn() {
+        return isSeparateColumns() && !timeBeforeDate ? 1 : 0;
+    }
+
+    /**
+     * Configures a data record reader builder to read data files with this layout.
+     *
+     * @param builder the builder to configure, not null.
+     * @return the same builder.
+     */
+    public DataRecordReader.Builder configure(DataRecordReader.Builder builder) {
+        if (epochUnit != null) {
+            return builder.withEpochTimestampInColumn(0, epochUnit);
+        }
+
+        builder.withDateInColumn(getDateColumn())
+                .withTimeInColumn(getTimeColumn())
+                .withDatePattern(datePattern)
+                .withTimePattern(timePattern)
+                .withTimeBeforeDate(timeBeforeDate);
+
+        if (delimiter != null) {
+            builder.delimitedBy(delimiter);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Appends the header names of the timestamp columns.
+     *
+     * @param headers the header names, not null.
+     */
+    public void addTimestampHeaders(List<String> headers) {
+        if (!isSeparateColumns()) {
+            headers.add("Timestamp");
+        } else if (timeBeforeDate) {
+            headers.add("Time");
+            headers.add("Date");
+        } else {
+            headers.add("Date");
+            headers.add("Time");
+        }
+    }
+
+    /**
+     * Appends the timestamp columns of a row, without any trailing comma. The cell is quoted if the
+     * delimiter is a comma.
+     *
+     * @param row       the row, not null.
+     * @param timestamp the timestamp to append, not null.
+     */
+    public void appendTimestamp(StringBuilder row, Timestamp timestamp) {
+        if (epochUnit != null) {
+            row.append(timestamp.toEpoch(epochUnit));
+            return;
+        }
+
+        String date = dateFormatter.format(timestamp);
+        String time = timeFormatter.format(timestamp);
+        String first = timeBeforeDate ? time : date;
+        String second = timeBeforeDate ? date : time;
+
+        if (isSeparateColumns()) {
+            row.append(first).append(',').append(second);
+        } else if (delimiter == Delimiter.COMMA) {
+            row.append('"').append(first).append(',').append(second).append('"');
+        } else {
+            row.append(first).append(delimiter.getCharacter()).append(second);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (epochUnit != null) {
+            return "epoch " + epochUnit;
+        }
+
+        String first = timeBeforeDate ? timePattern : datePattern;
+        String second = timeBeforeDate ? datePattern : timePattern;
+
+        return isSeparateColumns()
+                ? first + " | " + second
+                : first + " [" + delimiter.getName() + "] " + second;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private boolean isSeparateColumns() {
+        return epochUnit == null && delimiter == null;
+    }
+
+}
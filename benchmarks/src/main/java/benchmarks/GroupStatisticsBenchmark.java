@@ -0,0 +1,49 @@
+package benchmarks;
+
+import core.GroupStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding the values of one record to the statistics of a period. The statistics are never
+ * cleared, which does not change the cost of adding an entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupStatisticsBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int valueCount;
+
+    private GroupStatistics statistics;
+    private List<Double> values;
+
+    @Setup
+    public void setUp() {
+        statistics = new GroupStatistics(valueCount);
+        values = BenchmarkInputs.values(valueCount);
+    }
+
+    @Benchmark
+    public GroupStatistics addEntry() {
+        statistics.addEntry(values);
+        return statistics;
+    }
+
+}
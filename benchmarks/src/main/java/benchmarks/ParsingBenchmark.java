@@ -0,0 +1,66 @@
+package benchmarks;
+
+import core.DataRecord;
+import core.DataRecordReader;
+import core.Record;
+import core.RecordParser;
+import core.TimestampFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of the input: splitting a line into a record, and converting a record into a data
+ * record with a timestamp and data values. The input is repeated forever, so each operation is exactly
+ * one record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    private static final int ROW_COUNT = 1000;
+
+    @Param({"1", "8", "32"})
+    public int valueCount;
+
+    private RecordParser recordParser;
+    private DataRecordReader dataRecordReader;
+
+    @Setup
+    public void setUp() throws IOException {
+        String content = BenchmarkInputs.dataFile(ROW_COUNT, valueCount);
+
+        recordParser = new RecordParser(new RepeatingReader(content));
+        dataRecordReader = DataRecordReader.with(new RecordParser(new RepeatingReader(content)))
+                .withDatePattern(TimestampFormatter.DEFAULT_DATE_PATTERN)
+                .withTimePattern(BenchmarkInputs.TIME_PATTERN)
+                .build();
+    }
+
+    @Benchmark
+    public Record recordParserParseRecord() throws ParseException {
+        return recordParser.parseRecord();
+    }
+
+    @Benchmark
+    public DataRecord dataRecordReaderRead() throws ParseException {
+        return dataRecordReader.read();
+    }
+
+}
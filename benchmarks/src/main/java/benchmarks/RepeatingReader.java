@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.io.Reader;
+
+/**
+ * Reader that returns the same content over and over again, without ever reaching the end. Lets the
+ * benchmarks parse as many records as JMH asks for, without touching the disk.
+ */
+class RepeatingReader extends Reader {
+
+    private final char[] content;
+    private int position = 0;
+
+    /**
+     * Creates a reader that repeats some content.
+     *
+     * @param content the content to repeat, not empty.
+     */
+    RepeatingReader(String content) {
+        this.content = content.toCharArray();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        int copyLength = Math.min(length, content.length - position);
+        System.arraycopy(content, position, buffer, offset, copyLength);
+
+        position += copyLength;
+        if (position == content.length) {
+            position = 0;
+        }
+
+        return copyLength;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
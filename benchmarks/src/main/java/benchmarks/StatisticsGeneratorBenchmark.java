@@ -0,0 +1,88 @@
+package benchmarks;
+
+import core.DataFileWriter;
+import core.DataRecordReader;
+import core.Period;
+import core.RecordParser;
+import core.StatisticsGenerator;
+import core.TimestampFormatter;
+import core.Unit;
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures processing a whole data file end-to-end: parsing, computing the statistics of each period, and
+ * formatting the output. The data file is kept in memory and the output is discarded, so the disk is not
+ * measured. Each operation is one record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsGeneratorBenchmark {
+
+    private static final int ROW_COUNT = 100_000;
+
+    @Param({"1", "8"})
+    public int valueCount;
+
+    @Param({"false", "true"})
+    public boolean pipelined;
+
+    private String content;
+    private List<String> headers;
+
+    @Setup
+    public void setUp() {
+        content = BenchmarkInputs.dataFile(ROW_COUNT, valueCount);
+
+        headers = new ArrayList<>();
+        for (int i = 0; i < valueCount; i++) {
+            headers.add("H" + i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void process() throws IOException, ParseException {
+        StatisticsGenerator generator = new StatisticsGenerator();
+        generator.setPipelined(pipelined);
+
+        DataFileWriter.Builder writerBuilder = DataFileWriter.outputTo(new NullWriter())
+                .withDataHeaders(headers);
+        if (pipelined) {
+            writerBuilder.withPipelinedOutput();
+        }
+
+        try (
+                DataRecordReader reader = DataRecordReader.with(new RecordParser(new StringReader(content)))
+                        .withDatePattern(TimestampFormatter.DEFAULT_DATE_PATTERN)
+                        .withTimePattern(BenchmarkInputs.TIME_PATTERN)
+                        .build();
+                DataFileWriter writer = writerBuilder.build()
+        ) {
+            generator.process(reader, writer, Period.of(1, Unit.MINUTES));
+        }
+    }
+
+}
@@ -0,0 +1,343 @@
+package benchmarks;
+
+import core.DoubleFormatter;
+import core.Period;
+import core.Timestamp;
+import core.TimestampFormatter;
+import core.Unit;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic data files and their headers files, to test statzy with inputs of any size without
+ * real data. The output only depends on the configuration and the seed, so the same configuration always
+ * generates exactly the same files.
+ *
+ * The rows are sampled at a regular rate, starting at a fixed timestamp. Optionally, some rows are followed
+ * by a gap without rows, some rows have a timestamp before the previous row (out of order), and some rows
+ * are malformed: a value that is not a number, a missing column, or a timestamp that can not be parsed.
+ *
+ * Usage: java -cp benchmarks.jar benchmarks.SyntheticDataGenerator data-file row-count [column-count]
+ */
+public class SyntheticDataGenerator {
+
+    private static final String HEADERS_FILE_SUFFIX = "_headers";
+    private static final int MAX_OUT_OF_ORDER_PERIODS = 10;
+
+    private final DataLayout layout;
+    private final long rowCount;
+    private final int columnCount;
+    private final Timestamp start;
+    private final Period samplingPeriod;
+    private final double gapProbability;
+    private final long maxGapPeriodCount;
+    private final double outOfOrderFraction;
+    private final double malformedFraction;
+    private final long seed;
+
+    private SyntheticDataGenerator(DataLayout layout, long rowCount, int columnCount, Timestamp start,
+                                   Period samplingPeriod, double gapProbability, long maxGapPeriodCount,
+                                   double outOfOrderFraction, double malformedFraction, long seed) {
+        this.layout = layout;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.start = start;
+        this.samplingPeriod = samplingPeriod;
+        this.gapProbability = gapProbability;
+        this.maxGapPeriodCount = maxGapPeriodCount;
+        this.outOfOrderFraction = outOfOrderFraction;
+        this.malformedFraction = malformedFraction;
+        this.seed = seed;
+    }
+
+    /**
+     * Factory method to create a builder for a generator. Always use this method to start building a new
+     * generator.
+     *
+     * @param layout the layout of the timestamps in the data file, not null.
+     * @return builder to configure the generator.
+     */
+    public static Builder with(DataLayout layout) {
+        return new Builder(layout);
+    }
+
+    /**
+     * Returns the headers file paired with a data file: the file in the same directory, with the same name
+     * followed by '_headers' before the extension. That is the name the user interface recognizes as a
+     * headers file.
+     *
+     * @param dataFile the data file, not null.
+     * @return the headers file, not null.
+     */
+    public static File headersFileFor(File dataFile) {
+        String name = dataFile.getName();
+        int extensionStart = name.lastIndexOf('.');
+        String baseName = extensionStart > 0 ? name.substring(0, extensionStart) : name;
+        String extension = extensionStart > 0 ? name.substring(extensionStart) : "";
+
+        return new File(dataFile.getParentFile(), baseName + HEADERS_FILE_SUFFIX + extension);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Generates a data file and its headers file (see headersFileFor).
+     *
+     * @param dataFile the data file to write, not null. Overwritten if it exists.
+     * @throws IOException if an IO error occurs.
+     */
+    public void generate(File dataFile) throws IOException {
+        try (Writer output = new BufferedWriter(new FileWriter(headersFileFor(dataFile)))) {
+            writeHeaders(output);
+        }
+
+        try (Writer output = new BufferedWriter(new FileWriter(dataFile), 1024 * 1024)) {
+            writeData(output);
+        }
+    }
+
+    /**
+     * Writes the headers file: a row with the header names and a row with the units.
+     *
+     * @param output the writer for the headers file, not null. It is not closed.
+     * @throws IOException if an IO error occurs.
+     */
+    public void writeHeaders(Writer output) throws IOException {
+        List<String> names = new ArrayList<>();
+        layout.addTimestampHeaders(names);
+        int timestampColumnCount = names.size();
+
+        for (int column = 0; column < columnCount; column++) {
+            names.add("Value " + (column + 1));
+        }
+
+        output.write(String.join(",", names));
+        output.write("\r\n");
+
+        StringBuilder units = new StringBuilder();
+        for (int column = 0; column < timestampColumnCount + columnCount; column++) {
+            if (column > 0) {
+                units.append(',');
+            }
+
+            if (column >= timestampColumnCount) {
+                units.append('u').append(column - timestampColumnCount + 1);
+            }
+        }
+
+        output.write(units.toString());
+        output.write("\r\n");
+    }
+
+    /**
+     * Writes the rows of the data file.
+     *
+     * @param output the writer for the data file, not null. It is not closed.
+     * @throws IOException if an IO error occurs.
+     */
+    public void writeData(Writer output) throws IOException {
+        Random random = new Random(seed);
+        DoubleFormatter formatter = DoubleFormatter.shortest();
+        StringBuilder row = new StringBuilder(64 + columnCount * 24);
+
+        double[] levels = new double[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            levels[column] = random.nextInt(1000);
+        }
+
+        Timestamp timestamp = start;
+        for (long i = 0; i < rowCount; i++) {
+            row.setLength(0);
+
+            Timestamp rowTimestamp = timestamp;
+            if (random.nextDouble() < outOfOrderFraction) {
+                rowTimestamp = timestamp.minus(
+                        Period.of(1 + random.nextInt(MAX_OUT_OF_ORDER_PERIODS), Unit.SECONDS));
+            }
+
+            boolean malformed = random.nextDouble() < malformedFraction;
+            int malformation = malformed ? random.nextInt(3) : -1;
+
+            if (malformation == 0) {
+                row.append("not-a-timestamp");
+                for (int column = 1; column < layout.getTimestampColumnCount(); column++) {
+                    row.append(",not-a-timestamp");
+                }
+            } else {
+                layout.appendTimestamp(row, rowTimestamp);
+            }
+
+            int writtenColumnCount = malformation == 1 ? columnCount - 1 : columnCount;
+            int notNumberColumn = malformation == 2 ? random.nextInt(columnCount) : -1;
+
+            for (int column = 0; column < writtenColumnCount; column++) {
+                row.append(',');
+
+                levels[column] += random.nextGaussian();
+                if (column == notNumberColumn) {
+                    row.append("n/a");
+                } else {
+                    formatter.appendTo(row, levels[column]);
+                }
+            }
+
+            row.append("\r\n");
+            output.append(row);
+
+            timestamp = timestamp.plus(samplingPeriod);
+            if (random.nextDouble() < gapProbability) {
+                long skippedPeriodCount = 1 + (long) (random.nextDouble() * maxGapPeriodCount);
+                timestamp = timestamp.plus(samplingPeriod, skippedPeriodCount);
+            }
+        }
+    }
+
+    /**
+     * Generates a data file and its headers file from the command line, with the default layout.
+     *
+     * @param args the data file, the number of rows, and, optionally, the number of data columns.
+     * @throws IOException if an IO error occurs.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticDataGenerator data-file row-count [column-count]");
+            System.exit(2);
+        }
+
+        Builder builder = with(DataLayout.separateColumns(TimestampFormatter.DEFAULT_DATE_PATTERN,
+                BenchmarkInputs.TIME_PATTERN, false))
+                .withRowCount(Long.parseLong(args[1]));
+        if (args.length > 2) {
+            builder.withColumnCount(Integer.parseInt(args[2]));
+        }
+
+        builder.build().generate(new File(args[0]));
+    }
+
+    /**
+     * Builder class for the SyntheticDataGenerator.
+     */
+    public static class Builder {
+
+        private final DataLayout layout;
+        private long rowCount = 1000;
+        private int columnCount = 4;
+        private Timestamp start = Timestamp.of(2016, 10, 10, 0, 0, 0);
+        private Period samplingPeriod = Period.of(1, Unit.SECONDS);
+        private double gapProbability = 0;
+        private long maxGapPeriodCount = 0;
+        private double outOfOrderFraction = 0;
+        private double malformedFraction = 0;
+        private long seed = BenchmarkInputs.SEED;
+
+        private Builder(DataLayout layout) {
+            this.layout = layout;
+        }
+
+        public Builder withRowCount(long rowCount) {
+            if (rowCount < 0) {
+                throw new IllegalArgumentException("The number of rows can not be negative, but got " +
+                        rowCount);
+            }
+
+            this.rowCount = rowCount;
+            return this;
+        }
+
+        public Builder withColumnCount(int columnCount) {
+            if (columnCount < 1) {
+                throw new IllegalArgumentException("The number of data columns must be positive, but got " +
+                        columnCount);
+            }
+
+            this.columnCount = columnCount;
+            return this;
+        }
+
+        public Builder startingAt(Timestamp start) {
+            this.start = start;
+            return this;
+        }
+
+        /**
+         * Sets the time between consecutive rows.
+         *
+         * @param samplingPeriod the time between rows, not null.
+         * @return this builder.
+         */
+        public Builder sampledEvery(Period samplingPeriod) {
+            this.samplingPeriod = samplingPeriod;
+            return this;
+        }
+
+        /**
+         * Adds gaps without rows: after each row, with some probability, the sampling skips between 1 and
+         * the maximum number of sampling periods.
+         *
+         * @param probability       the probability of a gap after each row, between 0 and 1.
+         * @param maxGapPeriodCount the maximum number of sampling periods skipped by a gap.
+         * @return this builder.
+         */
+        public Builder withGaps(double probability, long maxGapPeriodCount) {
+            this.gapProbability = checkFraction(probability, "gap probability");
+            this.maxGapPeriodCount = maxGapPeriodCount;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of rows with a timestamp between 1 and 10 seconds before their sampling time,
+         * which is usually before the timestamp of the previous row.
+         *
+         * @param fraction the fraction of rows out of order, between 0 and 1.
+         * @return this builder.
+         */
+        public Builder withOutOfOrderFraction(double fraction) {
+            this.outOfOrderFraction = checkFraction(fraction, "out of order fraction");
+            return this;
+        }
+
+        /**
+         * Sets the fraction of malformed rows. Each malformed row has either an invalid timestamp, a
+         * missing column, or a value that is not a number.
+         *
+         * @param fraction the fraction of malformed rows, between 0 and 1.
+         * @return this builder.
+         */
+        public Builder withMalformedFraction(double fraction) {
+            this.malformedFraction = checkFraction(fraction, "malformed fraction");
+            return this;
+        }
+
+        public Builder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public SyntheticDataGenerator build() {
+            return new SyntheticDataGenerator(layout, rowCount, columnCount, start, samplingPeriod,
+                    gapProbability, maxGapPeriodCount, outOfOrderFraction, malformedFraction, seed);
+        }
+
+        private static double checkFraction(double fraction, String name) {
+            if (!(fraction >= 0 && fraction <= 1)) {
+                throw new IllegalArgumentException("The " + name + " must be between 0 and 1, but got " +
+                        fraction);
+            }
+
+            return fraction;
+        }
+
+    }
+
+}
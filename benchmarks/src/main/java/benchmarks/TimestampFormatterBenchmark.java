@@ -0,0 +1,70 @@
+package benchmarks;
+
+import core.Timestamp;
+import core.TimestampFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing and formatting the dates with each date pattern offered to the user, and the times with
+ * the default time pattern. The patterns are set by BenchmarkRunner from TimestampFormatter.DATE_PATTERNS;
+ * other runners only measure the default date pattern, unless the patterns are given with -p datePattern.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampFormatterBenchmark {
+
+    @Param({TimestampFormatter.DEFAULT_DATE_PATTERN})
+    public String datePattern;
+
+    private TimestampFormatter dateFormatter;
+    private TimestampFormatter timeFormatter;
+    private Timestamp timestamp;
+    private String formattedDate;
+    private String formattedTime;
+
+    @Setup
+    public void setUp() {
+        dateFormatter = TimestampFormatter.ofPattern(datePattern);
+        timeFormatter = TimestampFormatter.ofPattern(BenchmarkInputs.TIME_PATTERN);
+        timestamp = Timestamp.of(2016, 10, 10, 10, 10, 10);
+        formattedDate = dateFormatter.format(timestamp);
+        formattedTime = timeFormatter.format(timestamp);
+    }
+
+    @Benchmark
+    public Timestamp parseDate() {
+        return dateFormatter.parse(formattedDate);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return dateFormatter.format(timestamp);
+    }
+
+    @Benchmark
+    public Timestamp parseTime() {
+        return timeFormatter.parse(formattedTime);
+    }
+
+    @Benchmark
+    public String formatTime() {
+        return timeFormatter.format(timestamp);
+    }
+
+}
@@ -0,0 +1,169 @@
+package benchmarks;
+
+import core.DataFileWriter;
+import core.DataRecordReader;
+import core.Headers;
+import core.HeadersReader;
+import core.Period;
+import core.ProgressListener;
+import core.StatisticsGenerator;
+import core.Timestamp;
+import core.TimestampFormatter;
+import core.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Runs the statistics generator over synthetic data files of growing sizes (each twice the size of the
+ * previous one) and checks that the time per row stays about the same and that the heap used by the live
+ * objects does not grow with the size of the input. The time per row and the live heap of each size are
+ * printed to the standard output.
+ *
+ * Wall-clock times vary a lot on shared machines, so the time per row is only checked against a generous
+ * margin: a size fails if its time per row is more than 4 times that of the smallest size. With each size
+ * twice the previous one, a quadratic slowdown doubles the time per row at each size and still fails by
+ * the third size, while the noise of a busy machine stays well below that margin.
+ *
+ * The sizes can be set with the system properties statzy.scalability.rows (rows of the smallest file) and
+ * statzy.scalability.sizes (number of sizes), to run the suite over much larger inputs.
+ */
+public class ScalabilityTest {
+
+    private static final long BASE_ROW_COUNT = Long.getLong("statzy.scalability.rows", 100_000);
+    private static final int SIZE_COUNT = Integer.getInteger("statzy.scalability.sizes", 4);
+    private static final int COLUMN_COUNT = 8;
+    private static final Period PERIOD = Period.of(1, Unit.MINUTES);
+
+    private static final double MAX_TIME_PER_ROW_RATIO = 4.0;
+    private static final long MAX_LIVE_HEAP_GROWTH = 16 * 1024 * 1024;
+    private static final int HEAP_SAMPLE_COUNT = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private final DataLayout layout = DataLayout.separateColumns(TimestampFormatter.DEFAULT_DATE_PATTERN,
+            BenchmarkInputs.TIME_PATTERN, false);
+
+    /**
+     * Samples the heap used by the live objects a few times while a file is processed, from the thread
+     * running the statistics generator.
+     */
+    private static class HeapSampler implements ProgressListener {
+
+        private final long periodsBetweenSamples;
+        private long periodCount = 0;
+        private long maxLiveHeap = 0;
+
+        HeapSampler(long periodsBetweenSamples) {
+            this.periodsBetweenSamples = Math.max(1, periodsBetweenSamples);
+        }
+
+        @Override
+        public void notifyProcessingPeriod(Timestamp lowerBound, Timestamp upperBound) {
+            if (++periodCount % periodsBetweenSamples == 0) {
+                maxLiveHeap = Math.max(maxLiveHeap, liveHeap());
+            }
+        }
+
+        private static long liveHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+
+    private File generate(long rowCount) throws IOException {
+        File dataFile = folder.newFile("data-" + rowCount + ".csv");
+        SyntheticDataGenerator.with(layout)
+                .withRowCount(rowCount)
+                .withColumnCount(COLUMN_COUNT)
+                .build()
+                .generate(dataFile);
+
+        return dataFile;
+    }
+
+    private void process(File dataFile, ProgressListener listener) throws IOException, ParseException {
+        Headers headers;
+        try (HeadersReader headersReader = new HeadersReader(SyntheticDataGenerator.headersFileFor(dataFile),
+                layout.getDateColumn(), layout.getTimeColumn(), Collections.emptySet())) {
+            headers = headersReader.read();
+        }
+
+        StatisticsGenerator generator = new StatisticsGenerator();
+        if (listener != null) {
+            generator.addListener(listener);
+        }
+
+        try (
+                DataRecordReader reader = layout.configure(DataRecordReader.with(dataFile)).build();
+                DataFileWriter writer = DataFileWriter.outputTo(folder.newFile())
+                        .withHeaders(headers)
+                        .build()
+        ) {
+            generator.process(reader, writer, PERIOD);
+        }
+    }
+
+    private long timeToProcess(File dataFile) throws IOException, ParseException {
+        long start = System.nanoTime();
+        process(dataFile, null);
+        return System.nanoTime() - start;
+    }
+
+    private long maxLiveHeapWhileProcessing(File dataFile, long rowCount) throws IOException, ParseException {
+        long periodCount = rowCount / 60;   // one row per second, one minute per period
+        HeapSampler sampler = new HeapSampler(periodCount / HEAP_SAMPLE_COUNT);
+        process(dataFile, sampler);
+        return sampler.maxLiveHeap;
+    }
+
+    private static void report(long rowCount, double timePerRow, long liveHeap) {
+        System.out.printf("%,d rows: %.0f ns/row, %,d bytes of live heap%n", rowCount, timePerRow, liveHeap);
+    }
+
+    @Test
+    public void
+    process_InputsOfGrowingSizes_TimePerRowAndLiveHeapStayFlat() throws Exception {
+
+        // warm up, so the first size is not measured with interpreted code
+        File baseFile = generate(BASE_ROW_COUNT);
+        timeToProcess(baseFile);
+
+        double baseTimePerRow = (double) timeToProcess(baseFile) / BASE_ROW_COUNT;
+        long baseLiveHeap = maxLiveHeapWhileProcessing(baseFile, BASE_ROW_COUNT);
+        baseFile.delete();
+        report(BASE_ROW_COUNT, baseTimePerRow, baseLiveHeap);
+
+        for (int size = 1; size < SIZE_COUNT; size++) {
+            long rowCount = BASE_ROW_COUNT << size;
+            File dataFile = generate(rowCount);
+
+            double timePerRow = (double) timeToProcess(dataFile) / rowCount;
+            long liveHeap = maxLiveHeapWhileProcessing(dataFile, rowCount);
+            dataFile.delete();
+            report(rowCount, timePerRow, liveHeap);
+
+            collector.checkThat(String.format("%d rows took %.0f ns/row, %d rows took %.0f ns/row",
+                    rowCount, timePerRow, BASE_ROW_COUNT, baseTimePerRow),
+                    timePerRow <= baseTimePerRow * MAX_TIME_PER_ROW_RATIO, is(true));
+
+            collector.checkThat(String.format("%d rows used %d bytes of live heap, %d rows used %d bytes",
+                    rowCount, liveHeap, BASE_ROW_COUNT, baseLiveHeap),
+                    liveHeap <= baseLiveHeap + MAX_LIVE_HEAP_GROWTH, is(true));
+        }
+    }
+
+}
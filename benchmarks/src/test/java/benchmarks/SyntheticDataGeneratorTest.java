@@ -0,0 +1,97 @@
+package benchmarks;
+
+import core.DataRecord;
+import core.DataRecordReader;
+import core.RecordParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.time.format.DateTimeParseException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class SyntheticDataGeneratorTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private static String generateData(SyntheticDataGenerator generator) throws IOException {
+        StringWriter output = new StringWriter();
+        generator.writeData(output);
+        return output.toString();
+    }
+
+    private static DataRecordReader readerFor(DataLayout layout, String data) throws IOException {
+        return layout.configure(DataRecordReader.with(new RecordParser(new StringReader(data)))).build();
+    }
+
+    @Test
+    public void
+    writeData_EveryLayout_EveryRowIsReadBackWithAllValues() throws Exception {
+
+        for (DataLayout layout : DataLayout.all()) {
+            String data = generateData(SyntheticDataGenerator.with(layout)
+                    .withRowCount(20)
+                    .withColumnCount(3)
+                    .build());
+
+            int recordCount = 0;
+            try (DataRecordReader reader = readerFor(layout, data)) {
+                DataRecord record;
+                while ((record = reader.read()) != null) {
+                    collector.checkThat(layout + ": values", record.getDataValues().size(), is(3));
+                    recordCount++;
+                }
+
+            } catch (ParseException | DateTimeParseException e) {
+                collector.addError(new AssertionError(layout + ": " + e.getMessage(), e));
+            }
+
+            collector.checkThat(layout + ": records", recordCount, is(20));
+        }
+    }
+
+    @Test
+    public void
+    writeData_SameConfigurationTwice_GeneratesTheSameData() throws Exception {
+        SyntheticDataGenerator.Builder builder = SyntheticDataGenerator.with(DataLayout.all().get(0))
+                .withRowCount(500)
+                .withGaps(0.01, 100)
+                .withOutOfOrderFraction(0.05)
+                .withMalformedFraction(0.05);
+
+        assertThat(generateData(builder.build()), is(generateData(builder.build())));
+    }
+
+    @Test
+    public void
+    writeData_MalformedFractionOf10Percent_About10PercentOfTheRowsFailToParse() throws Exception {
+        DataLayout layout = DataLayout.all().get(0);
+        String data = generateData(SyntheticDataGenerator.with(layout)
+                .withRowCount(1000)
+                .withMalformedFraction(0.1)
+                .build());
+
+        int failureCount = 0;
+        try (DataRecordReader reader = readerFor(layout, data)) {
+            for (int i = 0; i < 1000; i++) {
+                try {
+                    reader.read();
+                } catch (ParseException | DateTimeParseException e) {
+                    failureCount++;
+                }
+            }
+        }
+
+        assertTrue("Expected about 100 failures, but got " + failureCount,
+                failureCount > 60 && failureCount < 140);
+    }
+
+}
@@ -0,0 +1,733 @@
+package cli;
+
+import core.Aggregator;
+import core.AnomalyDetector;
+import core.DataFileWriter;
+import core.DataRecordReader;
+import core.Delimiter;
+import core.GapPolicy;
+import core.Histogram;
+import core.HyperLogLog;
+import core.MatrixFileWriter;
+import core.Period;
+import core.TimestampFormatter;
+import core.Unit;
+import core.Window;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Options of the command line runner, parsed from the command line arguments. Each option of the data
+ * record reader and data file writer builders has a flag. Options take their value from the next argument
+ * or after an '=' (for instance, '--period 5min' or '--period=5min'). Columns are numbered from 1, like in
+ * the error messages.
+ */
+class CommandLineOptions {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: statzy --period PERIOD [options]",
+            "       statzy --period PERIOD --batch DIR|GLOB [options]",
+            "",
+            "Computes the statistics of a data file for each period. Reads the standard input and writes to",
+            "the standard output unless files are given. Columns are numbered from 1. Periods are a number",
+            "followed by a unit: y, mo, d, h, min, s, ms or us (for instance, 15min).",
+            "",
+            "Input:",
+            "  -i, --input FILE              data file to read, '-' for the standard input (default);",
+            "                                files ending with '.gz' are decompressed",
+            "      --headers FILE            headers file with the names of the columns",
+            "      --data-headers A,B,...    names of the data columns, instead of a headers file",
+            "      --date-header NAME        name of the date column, with --data-headers (default Date)",
+            "      --time-header NAME        name of the time column, with --data-headers (default Time)",
+            "      --key-header NAME         name of the key column, with --data-headers (default Key)",
+            "      --date-column N           column with the dates (default 1)",
+            "      --time-column N           column with the times (default 2)",
+            "      --timestamp-column N      column with both the date and the time",
+            "      --epoch-column N          column with epoch timestamps, in --epoch-unit (default s)",
+            "      --epoch-unit UNIT         unit of the epoch timestamps: s, ms or us",
+            "      --key-column N            computes the statistics of each key in this column",
+            "      --ignore-columns N,M,...  columns that are not data columns",
+            "      --date-pattern PATTERN    pattern of the dates (default dd/MM/uuuu)",
+            "      --time-pattern PATTERN    pattern of the times (default HH:mm:ss)",
+            "      --delimiter NAME          delimiter between the date and the time in the same column:",
+            "                                none, comma, space (default), semicolon or tab",
+            "      --time-before-date        the time comes before the date",
+            "",
+            "Output:",
+            "  -o, --output FILE             file to write, '-' for the standard output (default);",
+            "                                files ending with '.gz' are compressed",
+            "      --output-date-pattern P   pattern of the output dates (default: input pattern)",
+            "      --output-time-pattern P   pattern of the output times (default: input pattern)",
+            "      --output-delimiter NAME   writes the date and the time in the same column",
+            "      --output-separate-columns writes the date and the time in separate columns",
+            "      --output-time-before-date writes the time before the date",
+            "      --output-epoch UNIT       writes epoch timestamps: s, ms or us",
+            "      --precision N             digits after the point of the means and deviations",
+            "      --histogram SPEC          adds a histogram: linear:LOW:HIGH:BUCKETS or",
+            "                                log:LOW:HIGH:SUB_BUCKETS",
+            "      --distinct-count[=P]      adds an approximate distinct count, with precision P",
+            "      --anomalies SPEC          adds an anomaly detector: zscore:THRESHOLD or mad:THRESHOLD",
+            "      --anomaly-output FILE     writes each anomalous value to a side file",
+            "      --matrix-output DIR       writes the covariance matrix of each period to a directory",
+            "      --correlation             writes correlation matrices instead of covariance matrices",
+            "      --matrix-prefix PREFIX    prefix of the matrix files",
+            "      --matrix-timestamp-pattern P  pattern of the timestamps in the matrix file names",
+            "      --formatting-threads N    formats the output rows on N threads",
+            "",
+            "Processing:",
+            "  -p, --period PERIOD           length of each period (required)",
+            "      --window SIZE             sliding window of this size, sliding by the period",
+            "      --half-life PERIOD        exponentially weighted statistics with this half-life",
+            "      --gaps POLICY             output of empty periods: empty-rows (default), marker or skip",
+            "      --pipelined               parses, computes, and writes on separate threads",
+            "      --progress                reports the progress to the standard error every second",
+            "      --jmx NAME                registers the processing metrics over JMX with this name",
+            "  -h, --help                    shows this help",
+            "",
+            "Batch:",
+            "      --batch DIR|GLOB          processes each data file in a directory, or matching a glob",
+            "                                pattern (for instance, 'logs/*.csv'), with the headers file",
+            "                                of the same name followed by 'headers' (or --headers)",
+            "      --output-dir DIR          directory of the NAME_statistics.csv files (default: the",
+            "                                directory of each data file)",
+            "      --jobs N                  processes up to N files at the same time (default: one per",
+            "                                processor)",
+            "      --memory-budget SIZE      memory shared by the files processed at the same time, in",
+            "                                bytes or with k, m or g (default: half of the heap)",
+            "  With --batch, --progress reports each file when it is done.",
+            "",
+            "Exit codes: 0 on success, 64 for invalid options, 65 if the data is not valid, 74 for I/O",
+            "errors, and 70 for any other error. A batch exits with the code of its first failed file.");
+
+    private static final Pattern PERIOD_PATTERN = Pattern.compile("(\\d+)\\s*([a-zA-Z]+)");
+    private static final Pattern SIZE_PATTERN = Pattern.compile("(\\d+)\\s*([kKmMgG]?)[bB]?");
+
+    // input
+    File inputFile = null;          // null to read the standard input
+    File headersFile = null;        // null if the data headers are given in the command line
+    List<String> dataHeaders = null;
+    String dateHeader = "Date";
+    String timeHeader = "Time";
+    String keyHeader = "Key";
+    int dateColumn = 0;
+    int timeColumn = 1;
+    int keyColumn = -1;             // negative if the records are not grouped by key
+    Set<Integer> ignoredColumns = new HashSet<>();
+    String datePattern = TimestampFormatter.DEFAULT_DATE_PATTERN;
+    String timePattern = "HH:mm:ss";
+    Delimiter delimiter = Delimiter.DEFAULT;
+    boolean timeBeforeDate = false;
+    Unit epochUnit = null;          // null if the timestamps are formatted
+    boolean epochColumnSet = false;
+
+    // output
+    File outputFile = null;         // null to write to the standard output
+    String outputDatePattern = null;    // null to use the input pattern
+    String outputTimePattern = null;    // null to use the input pattern
+    Boolean outputSameColumn = null;    // null to follow the input
+    Delimiter outputDelimiter = null;   // null to use the input delimiter
+    boolean outputTimeBeforeDate = false;
+    Unit outputEpochUnit = null;        // null to follow the input
+    int precision = -1;                 // negative to write the shortest decimal
+    List<Aggregator> aggregators = new ArrayList<>();
+    File anomalyOutputFile = null;
+    File matrixDirectory = null;
+    boolean correlation = false;
+    String matrixPrefix = null;
+    String matrixTimestampPattern = null;
+    int formattingThreadCount = 1;
+
+    // processing
+    Period period = null;
+    Period windowSize = null;       // null if the statistics are not computed over sliding windows
+    Period halfLife = null;         // null if the statistics are not exponentially weighted
+    GapPolicy gapPolicy = GapPolicy.EMPTY_ROWS;
+    boolean pipelined = false;
+    boolean progress = false;
+    String jmxName = null;
+    boolean help = false;
+
+    // batch
+    String batchInput = null;       // null if a single file is processed
+    File outputDirectory = null;    // null to write to the directory of each data file
+    int jobCount = Runtime.getRuntime().availableProcessors();
+    long memoryBudget = -1;         // negative to use the default budget
+
+    private final String[] args;
+    private int next = 0;               // index of the next argument
+    private String inlineValue = null;  // value given after an '=' in the current argument
+
+    private CommandLineOptions(String[] args) {
+        this.args = args;
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args the command line arguments, not null.
+     * @return the options, not null.
+     * @throws UsageException if an argument is not valid or a required option is missing.
+     */
+    static CommandLineOptions parse(String... args) throws UsageException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        options.parseArguments();
+
+        if (!options.help) {
+            options.validate();
+        }
+
+        return options;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Builders
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Configures a data record reader builder with the input options.
+     *
+     * @param builder the builder to configure, not null.
+     * @return the same builder.
+     */
+    DataRecordReader.Builder configure(DataRecordReader.Builder builder) {
+        if (epochUnit != null) {
+            builder.withEpochTimestampInColumn(dateColumn, epochUnit);
+        } else {
+            builder.withDateInColumn(dateColumn)
+                    .withTimeInColumn(timeColumn)
+                    .withDatePattern(datePattern)
+                    .withTimePattern(timePattern)
+                    .delimitedBy(delimiter)
+                    .withTimeBeforeDate(timeBeforeDate);
+        }
+
+        if (keyColumn >= 0) {
+            builder.withKeyInColumn(keyColumn);
+        }
+
+        return builder.ignoreColumns(ignoredColumns);
+    }
+
+    /**
+     * Configures a data file writer builder with the output options. The timestamps are written like in
+     * the input, unless the output options say otherwise. The headers are not configured.
+     *
+     * @param builder the builder to configure, not null.
+     * @return the same builder.
+     */
+    DataFileWriter.Builder configure(DataFileWriter.Builder builder) {
+        boolean sameColumn = outputSameColumn != null ? outputSameColumn : dateColumn == timeColumn;
+
+        builder.withDatePattern(outputDatePattern != null ? outputDatePattern : datePattern)
+                .withTimePattern(outputTimePattern != null ? outputTimePattern : timePattern)
+                .inSameColumn(sameColumn)
+                .delimitedBy(outputDelimiter != null ? outputDelimiter : delimiter)
+                .withTimeBeforeDate(outputTimeBeforeDate)
+                .withAggregators(aggregators)
+                .withFormattingThreads(formattingThreadCount);
+
+        Unit unit = outputEpochUnit != null ? outputEpochUnit : epochUnit;
+        if (unit != null) {
+            builder.withEpochTimestamp(unit);
+        }
+
+        if (precision >= 0) {
+            builder.withFixedPrecision(precision);
+        }
+
+        if (pipelined) {
+            builder.withPipelinedOutput();
+        }
+
+        if (matrixDirectory != null) {
+            MatrixFileWriter.Builder matrixBuilder = MatrixFileWriter.outputTo(matrixDirectory)
+                    .withCorrelation(correlation)
+                    .withFilePrefix(matrixPrefix);
+
+            if (period != null) {
+                matrixBuilder.withPeriodUnit(period.getUnit());
+            }
+
+            if (matrixTimestampPattern != null) {
+                matrixBuilder.withFileTimestampPattern(matrixTimestampPattern);
+            }
+
+            builder.withMatrixOutput(matrixBuilder);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Returns the sliding window of the statistics.
+     *
+     * @return the window, or null if the statistics are not computed over sliding windows.
+     */
+    Window getWindow() {
+        if (windowSize == null) return null;
+
+        return Window.of(windowSize.getLength(), period.getLength(), period.getUnit());
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void parseArguments() throws UsageException {
+        while (next < args.length) {
+            String argument = args[next++];
+            String option = argument;
+            inlineValue = null;
+
+            int equalsIndex = argument.indexOf('=');
+            if (argument.startsWith("--") && equalsIndex > 0) {
+                option = argument.substring(0, equalsIndex);
+                inlineValue = argument.substring(equalsIndex + 1);
+            }
+
+            switch (option) {
+                // input
+                case "-i":
+                case "--input":
+                    inputFile = fileOrStandardStream(value(option));
+                    break;
+                case "--headers":
+                    headersFile = new File(value(option));
+                    break;
+                case "--data-headers":
+                    dataHeaders = Arrays.asList(value(option).split(",", -1));
+                    break;
+                case "--date-header":
+                    dateHeader = value(option);
+                    break;
+                case "--time-header":
+                    timeHeader = value(option);
+                    break;
+                case "--key-header":
+                    keyHeader = value(option);
+                    break;
+                case "--date-column":
+                    dateColumn = column(option, value(option));
+                    break;
+                case "--time-column":
+                    timeColumn = column(option, value(option));
+                    break;
+                case "--timestamp-column":
+                    dateColumn = timeColumn = column(option, value(option));
+                    break;
+                case "--epoch-column":
+                    dateColumn = timeColumn = column(option, value(option));
+                    epochColumnSet = true;
+                    break;
+                case "--epoch-unit":
+                    epochUnit = epochUnit(option, value(option));
+                    break;
+                case "--key-column":
+                    keyColumn = column(option, value(option));
+                    break;
+                case "--ignore-columns":
+                    ignoredColumns = columns(option, value(option));
+                    break;
+                case "--date-pattern":
+                    datePattern = value(option);
+                    break;
+                case "--time-pattern":
+                    timePattern = value(option);
+                    break;
+                case "--delimiter":
+                    delimiter = delimiter(option, value(option));
+                    break;
+                case "--time-before-date":
+                    timeBeforeDate = flag(option);
+                    break;
+
+                // output
+                case "-o":
+                case "--output":
+                    outputFile = fileOrStandardStream(value(option));
+                    break;
+                case "--output-date-pattern":
+                    outputDatePattern = value(option);
+                    break;
+                case "--output-time-pattern":
+                    outputTimePattern = value(option);
+                    break;
+                case "--output-delimiter":
+                    outputDelimiter = delimiter(option, value(option));
+                    outputSameColumn = true;
+                    break;
+                case "--output-separate-columns":
+                    outputSameColumn = !flag(option);
+                    break;
+                case "--output-time-before-date":
+                    outputTimeBeforeDate = flag(option);
+                    break;
+                case "--output-epoch":
+                    outputEpochUnit = epochUnit(option, value(option));
+                    break;
+                case "--precision":
+                    precision = integer(option, value(option), 0, 17);
+                    break;
+                case "--histogram":
+                    aggregators.add(histogram(option, value(option)));
+                    break;
+                case "--distinct-count":
+                    aggregators.add(distinctCount(option));
+                    break;
+                case "--anomalies":
+                    aggregators.add(anomalyDetector(option, value(option)));
+                    break;
+                case "--anomaly-output":
+                    anomalyOutputFile = new File(value(option));
+                    break;
+                case "--matrix-output":
+                    matrixDirectory = new File(value(option));
+                    break;
+                case "--correlation":
+                    correlation = flag(option);
+                    break;
+                case "--matrix-prefix":
+                    matrixPrefix = value(option);
+                    break;
+                case "--matrix-timestamp-pattern":
+                    matrixTimestampPattern = value(option);
+                    break;
+                case "--formatting-threads":
+                    formattingThreadCount = integer(option, value(option), 1, Integer.MAX_VALUE);
+                    break;
+
+                // processing
+                case "-p":
+                case "--period":
+                    period = period(option, value(option));
+                    break;
+                case "--window":
+                    windowSize = period(option, value(option));
+                    break;
+                case "--half-life":
+                    halfLife = period(option, value(option));
+                    break;
+                case "--gaps":
+                    gapPolicy = gapPolicy(option, value(option));
+                    break;
+                case "--pipelined":
+                    pipelined = flag(option);
+                    break;
+                case "--progress":
+                    progress = flag(option);
+                    break;
+                case "--jmx":
+                    jmxName = value(option);
+                    break;
+                case "-h":
+                case "--help":
+                    help = flag(option);
+                    break;
+
+                // batch
+                case "--batch":
+                    batchInput = value(option);
+                    break;
+                case "--output-dir":
+                    outputDirectory = new File(value(option));
+                    break;
+                case "--jobs":
+                    jobCount = integer(option, value(option), 1, Integer.MAX_VALUE);
+                    break;
+                case "--memory-budget":
+                    memoryBudget = size(option, value(option));
+                    break;
+
+                default:
+                    throw new UsageException("Unknown option '" + argument + "'");
+            }
+        }
+    }
+
+    /**
+     * Checks the options that depend on each other.
+     */
+    private void validate() throws UsageException {
+        if (period == null) {
+            throw new UsageException("The period is required (--period)");
+        }
+
+        if (headersFile == null && dataHeaders == null && batchInput == null) {
+            throw new UsageException("Either a headers file (--headers) or the names of the data columns " +
+                    "(--data-headers) are required");
+        }
+
+        if (headersFile != null && dataHeaders != null) {
+            throw new UsageException("--headers and --data-headers can not be used together");
+        }
+
+        if (epochColumnSet && epochUnit == null) {
+            epochUnit = Unit.SECONDS;
+        } else if (epochUnit != null && !epochColumnSet) {
+            throw new UsageException("--epoch-unit requires --epoch-column");
+        }
+
+        if (windowSize != null && halfLife != null) {
+            throw new UsageException("--window and --half-life can not be used together");
+        }
+
+        if (windowSize != null && windowSize.getUnit() != period.getUnit()) {
+            throw new UsageException("The window and the period must be given in the same unit, but got " +
+                    windowSize + " and " + period);
+        }
+
+        if (anomalyOutputFile != null && aggregators.stream().noneMatch(a -> a instanceof AnomalyDetector)) {
+            throw new UsageException("--anomaly-output requires an anomaly detector (--anomalies)");
+        }
+
+        if (batchInput != null) {
+            validateBatch();
+        } else if (outputDirectory != null || memoryBudget >= 0) {
+            throw new UsageException("--output-dir and --memory-budget require --batch");
+        }
+    }
+
+    /**
+     * Checks the options of a batch: the options naming a single file can not be used, since all files of
+     * the batch would write to the same file.
+     */
+    private void validateBatch() throws UsageException {
+        if (inputFile != null || outputFile != null) {
+            throw new UsageException("--batch can not be used with --input or --output: the output of each " +
+                    "file is written to --output-dir");
+        }
+
+        if (anomalyOutputFile != null || matrixDirectory != null) {
+            throw new UsageException("--batch can not be used with --anomaly-output or --matrix-output");
+        }
+    }
+
+    private String value(String option) throws UsageException {
+        if (inlineValue != null) {
+            return inlineValue;
+        }
+
+        if (next == args.length) {
+            throw new UsageException("Option " + option + " requires a value");
+        }
+
+        return args[next++];
+    }
+
+    private boolean flag(String option) throws UsageException {
+        if (inlineValue != null) {
+            throw new UsageException("Option " + option + " does not take a value");
+        }
+
+        return true;
+    }
+
+    private static File fileOrStandardStream(String path) {
+        return path.equals("-") ? null : new File(path);
+    }
+
+    private static int integer(String option, String value, int min, int max) throws UsageException {
+        try {
+            int integer = Integer.parseInt(value.trim());
+            if (integer >= min && integer <= max) {
+                return integer;
+            }
+
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+
+        throw new UsageException("Option " + option + " requires an integer between " + min + " and " +
+                max + ", but got '" + value + "'");
+    }
+
+    private static double number(String option, String value) throws UsageException {
+        try {
+            return Double.parseDouble(value.trim());
+
+        } catch (NumberFormatException e) {
+            throw new UsageException("Option " + option + " requires a number, but got '" + value + "'");
+        }
+    }
+
+    /**
+     * Parses a number of bytes, optionally followed by k, m or g (for instance, 512m).
+     */
+    private static long size(String option, String value) throws UsageException {
+        Matcher matcher = SIZE_PATTERN.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new UsageException("Option " + option + " requires a size like 512m, but got '" + value + "'");
+        }
+
+        long size;
+        try {
+            size = Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            throw new UsageException("Option " + option + " got a size that is too large: '" + value + "'");
+        }
+
+        switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+            case "g":
+                size *= 1024L * 1024 * 1024;
+                break;
+            case "m":
+                size *= 1024L * 1024;
+                break;
+            case "k":
+                size *= 1024L;
+                break;
+            default:
+                break;
+        }
+
+        return size;
+    }
+
+    /**
+     * Parses a column number, starting at 1, into a column index, starting at 0.
+     */
+    private static int column(String option, String value) throws UsageException {
+        return integer(option, value, 1, Integer.MAX_VALUE) - 1;
+    }
+
+    private static Set<Integer> columns(String option, String value) throws UsageException {
+        Set<Integer> columns = new HashSet<>();
+        for (String column : value.split(",")) {
+            columns.add(column(option, column));
+        }
+
+        return columns;
+    }
+
+    private static Period period(String option, String value) throws UsageException {
+        Matcher matcher = PERIOD_PATTERN.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new UsageException("Option " + option + " requires a period like 15min, but got '" +
+                    value + "'");
+        }
+
+        int length = integer(option, matcher.group(1), 1, Integer.MAX_VALUE);
+        return Period.of(length, unit(option, matcher.group(2)));
+    }
+
+    private static Unit unit(String option, String value) throws UsageException {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "y":
+            case "years":
+                return Unit.YEARS;
+            case "mo":
+            case "months":
+                return Unit.MONTHS;
+            case "d":
+            case "days":
+                return Unit.DAYS;
+            case "h":
+            case "hours":
+                return Unit.HOURS;
+            case "min":
+            case "minutes":
+                return Unit.MINUTES;
+            case "s":
+            case "seconds":
+                return Unit.SECONDS;
+            case "ms":
+            case "millis":
+                return Unit.MILLIS;
+            case "us":
+            case "micros":
+                return Unit.MICROS;
+            default:
+                throw new UsageException("Option " + option + " got an unknown unit '" + value + "'");
+        }
+    }
+
+    private static Unit epochUnit(String option, String value) throws UsageException {
+        Unit unit = unit(option, value);
+        if (unit != Unit.SECONDS && unit != Unit.MILLIS && unit != Unit.MICROS) {
+            throw new UsageException("Option " + option + " requires s, ms or us, but got '" + value + "'");
+        }
+
+        return unit;
+    }
+
+    private static Delimiter delimiter(String option, String value) throws UsageException {
+        for (Delimiter delimiter : Delimiter.values()) {
+            if (delimiter.getName().equalsIgnoreCase(value.trim())) {
+                return delimiter;
+            }
+        }
+
+        throw new UsageException("Option " + option + " requires none, comma, space, semicolon or tab, " +
+                "but got '" + value + "'");
+    }
+
+    private static GapPolicy gapPolicy(String option, String value) throws UsageException {
+        try {
+            return GapPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Option " + option + " requires empty-rows, marker or skip, but got '" +
+                    value + "'");
+        }
+    }
+
+    private static Histogram histogram(String option, String value) throws UsageException {
+        String[] parts = value.split(":");
+        if (parts.length != 4 || !(parts[0].equals("linear") || parts[0].equals("log"))) {
+            throw new UsageException("Option " + option + " requires linear:LOW:HIGH:BUCKETS or " +
+                    "log:LOW:HIGH:SUB_BUCKETS, but got '" + value + "'");
+        }
+
+        double lowerBound = number(option, parts[1]);
+        double upperBound = number(option, parts[2]);
+        int bucketCount = integer(option, parts[3], 1, Integer.MAX_VALUE);
+
+        try {
+            return parts[0].equals("linear")
+                    ? Histogram.linear(lowerBound, upperBound, bucketCount)
+                    : Histogram.logarithmic(lowerBound, upperBound, bucketCount);
+
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Option " + option + ": " + e.getMessage());
+        }
+    }
+
+    private HyperLogLog distinctCount(String option) throws UsageException {
+        if (inlineValue == null) {
+            return new HyperLogLog();
+        }
+
+        try {
+            return new HyperLogLog(integer(option, inlineValue, 0, Integer.MAX_VALUE));
+
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Option " + option + ": " + e.getMessage());
+        }
+    }
+
+    private static AnomalyDetector anomalyDetector(String option, String value) throws UsageException {
+        String[] parts = value.split(":");
+        if (parts.length != 2 || !(parts[0].equals("zscore") || parts[0].equals("mad"))) {
+            throw new UsageException("Option " + option + " requires zscore:THRESHOLD or mad:THRESHOLD, " +
+                    "but got '" + value + "'");
+        }
+
+        double threshold = number(option, parts[1]);
+        return parts[0].equals("zscore")
+                ? AnomalyDetector.zScore(threshold)
+                : AnomalyDetector.medianAbsoluteDeviation(threshold);
+    }
+
+}
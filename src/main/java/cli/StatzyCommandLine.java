@@ -0,0 +1,468 @@
+package cli;
+
+import core.BatchFile;
+import core.BatchProcessor;
+import core.BatchResult;
+import core.DataFileWriter;
+import core.DataRecordReader;
+import core.Headers;
+import core.HeadersReader;
+import core.ProcessingMetrics;
+import core.Progress;
+import core.RecordParseException;
+import core.RecordParser;
+import core.StatisticsGenerator;
+import core.ThroughputListener;
+import core.Timestamp;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Command line entry point of statzy, to run it on servers without a display and in scripts. Takes the
+ * same options as the user interface, as flags (see --help), and by default reads the data from the
+ * standard input and writes the statistics to the standard output, so it can be used in pipelines:
+ *
+ *     zcat data.csv.gz | java -cp statzy.jar cli.StatzyCommandLine --period 1min --headers headers.csv
+ *
+ * The exit code tells how the run ended: 0 on success, EXIT_USAGE for invalid options, EXIT_DATA_ERROR
+ * for a ParseException, EXIT_IO_ERROR for an IOException, and EXIT_SOFTWARE for any other error. The codes
+ * are the ones of sysexits.h. Only the core classes are loaded: the user interface (JavaFX) never is.
+ *
+ * With --batch, all data files in a directory or matching a glob pattern are processed in the same run,
+ * several at a time (see BatchProcessor), each paired with its own headers file:
+ *
+ *     java -cp statzy.jar cli.StatzyCommandLine --period 1min --batch 'logs/*.csv' --output-dir stats
+ */
+public class StatzyCommandLine {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_USAGE = 64;
+    public static final int EXIT_DATA_ERROR = 65;
+    public static final int EXIT_SOFTWARE = 70;
+    public static final int EXIT_IO_ERROR = 74;
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final double PROGRESS_REPORTS_PER_SECOND = 1;
+
+    private final InputStream standardInput;
+    private final OutputStream standardOutput;
+    private final PrintStream standardError;
+
+    /**
+     * Creates a command line runner for the given standard streams.
+     *
+     * @param standardInput  the stream read when no input file is given, not null.
+     * @param standardOutput the stream written when no output file is given, not null.
+     * @param standardError  the stream where the errors and the progress are reported, not null.
+     */
+    public StatzyCommandLine(InputStream standardInput, OutputStream standardOutput,
+                             PrintStream standardError) {
+        this.standardInput = standardInput;
+        this.standardOutput = standardOutput;
+        this.standardError = standardError;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new StatzyCommandLine(System.in, System.out, System.err).run(args));
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Runs statzy with the given command line arguments. Errors are reported to the standard error.
+     *
+     * @param args the command line arguments, not null.
+     * @return the exit code.
+     */
+    public int run(String... args) {
+        CommandLineOptions options;
+        try {
+            options = CommandLineOptions.parse(args);
+
+        } catch (UsageException e) {
+            standardError.println("statzy: " + e.getMessage());
+            standardError.println("Try 'statzy --help' for more information.");
+            return EXIT_USAGE;
+        }
+
+        if (options.help) {
+            new PrintStream(standardOutput, true).println(CommandLineOptions.USAGE);
+            return EXIT_OK;
+        }
+
+        if (options.batchInput != null) {
+            return processBatch(options);
+        }
+
+        try {
+            process(options);
+            return EXIT_OK;
+
+        } catch (ParseException | IOException | RuntimeException e) {
+            reportError("statzy: ", e);
+            return exitCode(e);
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void process(CommandLineOptions options) throws ParseException, IOException {
+        Headers headers = readHeaders(options, options.headersFile);
+
+        StatisticsGenerator generator = newGenerator(options);
+        if (options.progress) {
+            generator.setNotificationRate(PROGRESS_REPORTS_PER_SECOND);
+            generator.addListener(new ProgressReporter(standardError));
+        }
+
+        ProcessingMetrics metrics = registerMetrics(options);
+        generator.setMetrics(metrics);
+
+        try (
+                DataRecordReader reader = openReader(options);
+                DataFileWriter writer = openWriter(options, headers)
+        ) {
+            generate(generator, options, reader, writer);
+
+        } finally {
+            if (metrics != null) {
+                metrics.unregister();
+            }
+        }
+    }
+
+    /**
+     * Processes each file of a batch on its own, on a pool of workers. The files that fail are reported as
+     * they fail, without stopping the others. The exit code is the one of the first file that failed.
+     */
+    private int processBatch(CommandLineOptions options) {
+        List<BatchFile> files;
+        Headers sharedHeaders = null;   // null if each file has its own headers file
+        ProcessingMetrics metrics;
+        BatchProcessor processor;
+
+        try {
+            files = findBatchFiles(options);
+            if (files.isEmpty()) {
+                standardError.println("statzy: no data files found in " + options.batchInput);
+                return EXIT_OK;
+            }
+
+            if (options.headersFile != null || options.dataHeaders != null) {
+                sharedHeaders = readHeaders(options, options.headersFile);
+            }
+
+            long memoryBudget = options.memoryBudget >= 0
+                    ? options.memoryBudget
+                    : BatchProcessor.defaultMemoryBudget();
+            processor = new BatchProcessor(options.jobCount, memoryBudget);
+
+            // registered last: the metrics are only unregistered once the files are processed
+            metrics = registerMetrics(options);
+
+        } catch (ParseException | IOException | RuntimeException e) {
+            reportError("statzy: ", e);
+            return exitCode(e);
+        }
+
+        Headers headers = sharedHeaders;
+        BatchProcessor.Job job = new BatchProcessor.Job() {
+            @Override
+            public void process(BatchFile file) throws ParseException, IOException {
+                processBatchFile(options, headers, metrics, file);
+            }
+
+            @Override
+            public long estimateMemory(BatchFile file) throws ParseException, IOException {
+                return estimateBatchFileMemory(options, headers, file);
+            }
+        };
+
+        AtomicInteger doneCount = new AtomicInteger();
+        List<BatchResult> results;
+
+        try {
+            results = processor.process(files, job,
+                    result -> reportBatchResult(options, result, doneCount.incrementAndGet(), files.size()));
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            standardError.println("statzy: interrupted");
+            return EXIT_SOFTWARE;
+
+        } finally {
+            if (metrics != null) {
+                metrics.unregister();
+            }
+        }
+
+        int exitCode = EXIT_OK;
+        int failedCount = 0;
+        for (BatchResult result : results) {
+            if (!result.isSuccessful()) {
+                failedCount++;
+                if (exitCode == EXIT_OK) {
+                    exitCode = exitCode(result.getError());
+                }
+            }
+        }
+
+        if (failedCount > 0) {
+            standardError.println("statzy: " + failedCount + " of " + files.size() + " files failed");
+        }
+
+        return exitCode;
+    }
+
+    private static List<BatchFile> findBatchFiles(CommandLineOptions options) throws IOException {
+        List<BatchFile> files = BatchFile.pair(BatchFile.find(options.batchInput), options.outputDirectory);
+
+        if (options.headersFile != null) {
+            // the same headers file for all data files
+            List<BatchFile> filesWithHeaders = new ArrayList<>(files.size());
+            for (BatchFile file : files) {
+                filesWithHeaders.add(new BatchFile(file.getDataFile(), options.headersFile,
+                        file.getOutputFile()));
+            }
+            files = filesWithHeaders;
+        }
+
+        if (options.outputDirectory != null && !options.outputDirectory.isDirectory()
+                && !options.outputDirectory.mkdirs()) {
+            throw new IOException("Can not create the output directory " + options.outputDirectory);
+        }
+
+        return files;
+    }
+
+    private static void processBatchFile(CommandLineOptions options, Headers sharedHeaders,
+                                         ProcessingMetrics metrics, BatchFile file)
+            throws ParseException, IOException {
+
+        Headers headers = sharedHeaders;
+        if (headers == null) {
+            if (file.getHeadersFile() == null) {
+                throw new FileNotFoundException("No headers file found for " + file.getDataFile());
+            }
+
+            headers = readHeaders(options, file.getHeadersFile());
+        }
+
+        StatisticsGenerator generator = newGenerator(options);
+        generator.setMetrics(metrics);
+
+        try (
+                DataRecordReader reader = options.configure(DataRecordReader.with(file.getDataFile())).build();
+                DataFileWriter writer = options.configure(DataFileWriter.outputTo(file.getOutputFile()))
+                        .withHeaders(headers)
+                        .build()
+        ) {
+            generate(generator, options, reader, writer);
+        }
+    }
+
+    /**
+     * Estimates the memory needed to process a file of a batch, from the number of columns in its headers
+     * and the options that give the file threads of its own.
+     */
+    private static long estimateBatchFileMemory(CommandLineOptions options, Headers sharedHeaders,
+                                                BatchFile file) throws ParseException, IOException {
+
+        Headers headers = sharedHeaders;
+        if (headers == null && file.getHeadersFile() != null) {
+            headers = readHeaders(options, file.getHeadersFile());
+        }
+
+        // without headers the file fails before its statistics are computed
+        int columnCount = headers != null ? headers.getDataHeaders().size() : 0;
+        return BatchProcessor.estimateMemory(columnCount, options.pipelined, options.formattingThreadCount);
+    }
+
+    private void reportBatchResult(CommandLineOptions options, BatchResult result, int doneCount,
+                                   int fileCount) {
+        if (!result.isSuccessful()) {
+            reportError("statzy: " + result.getFile() + ": ", result.getError());
+
+        } else if (options.progress) {
+            standardError.println(String.format("statzy: [%d/%d] %s done in %.1f s", doneCount, fileCount,
+                    result.getFile(), result.getElapsedNanos() / 1e9));
+        }
+    }
+
+    private static StatisticsGenerator newGenerator(CommandLineOptions options) {
+        StatisticsGenerator generator = new StatisticsGenerator();
+        generator.setGapPolicy(options.gapPolicy);
+        generator.setPipelined(options.pipelined);
+        return generator;
+    }
+
+    /**
+     * Registers the processing metrics over JMX, if asked to.
+     *
+     * @return the metrics registered, or null if the metrics are not registered.
+     */
+    private static ProcessingMetrics registerMetrics(CommandLineOptions options) {
+        if (options.jmxName == null) return null;
+
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        metrics.register(options.jmxName);
+        return metrics;
+    }
+
+    private static void generate(StatisticsGenerator generator, CommandLineOptions options,
+                                 DataRecordReader reader, DataFileWriter writer)
+            throws ParseException, IOException {
+
+        if (options.windowSize != null) {
+            generator.process(reader, writer, options.getWindow());
+        } else if (options.halfLife != null) {
+            generator.processExponentiallyWeighted(reader, writer, options.period, options.halfLife);
+        } else {
+            generator.process(reader, writer, options.period);
+        }
+    }
+
+    /**
+     * Reads the headers from a headers file or, if there is none, takes them from the options.
+     */
+    private static Headers readHeaders(CommandLineOptions options, File headersFile)
+            throws ParseException, IOException {
+
+        if (headersFile == null) {
+            return Headers.with()
+                    .dataHeaders(options.dataHeaders)
+                    .dateHeader(options.dateHeader)
+                    .timeHeader(options.timeHeader)
+                    .keyHeader(options.keyColumn >= 0 ? options.keyHeader : null)
+                    .build();
+        }
+
+        try (HeadersReader headersReader = new HeadersReader(headersFile, options.dateColumn,
+                options.timeColumn, options.keyColumn, options.ignoredColumns)) {
+            return headersReader.read();
+        }
+    }
+
+    private DataRecordReader openReader(CommandLineOptions options) throws IOException {
+        DataRecordReader.Builder builder = options.inputFile != null
+                ? DataRecordReader.with(options.inputFile)
+                : DataRecordReader.with(new RecordParser(new InputStreamReader(standardInput)));
+
+        return options.configure(builder).build();
+    }
+
+    private DataFileWriter openWriter(CommandLineOptions options, Headers headers) throws IOException {
+        DataFileWriter.Builder builder = options.outputFile != null
+                ? DataFileWriter.outputTo(options.outputFile)
+                : DataFileWriter.outputTo(new BufferedWriter(new OutputStreamWriter(standardOutput),
+                OUTPUT_BUFFER_SIZE));
+
+        if (options.anomalyOutputFile != null) {
+            // opened by the builder only once the options are known to be valid
+            builder.withAnomalyOutput(options.anomalyOutputFile);
+        }
+
+        return options.configure(builder).withHeaders(headers).build();
+    }
+
+    /**
+     * Reports an error to the standard error. The exit code of the error is given by exitCode.
+     */
+    private void reportError(String prefix, Throwable e) {
+        synchronized (standardError) {
+            if (e instanceof ParseException) {
+                standardError.println(prefix + "data error in line " + lineOf((ParseException) e) + ": " +
+                        e.getMessage());
+            } else if (e instanceof IOException) {
+                standardError.println(prefix + "I/O error: " + e.getMessage());
+            } else if (e instanceof IllegalArgumentException) {
+                standardError.println(prefix + e.getMessage());
+            } else {
+                standardError.println(prefix + "unexpected error: " + e);
+                e.printStackTrace(standardError);
+            }
+        }
+    }
+
+    private static int exitCode(Throwable e) {
+        if (e instanceof ParseException) {
+            return EXIT_DATA_ERROR;
+        } else if (e instanceof IOException) {
+            return EXIT_IO_ERROR;
+        } else if (e instanceof IllegalArgumentException) {
+            // options accepted by the parser but rejected by the builders or the generator
+            return EXIT_USAGE;
+        }
+
+        return EXIT_SOFTWARE;
+    }
+
+    private static long lineOf(ParseException e) {
+        if (e instanceof RecordParseException) {
+            return ((RecordParseException) e).getRecordNumber();
+        }
+
+        return e.getErrorOffset();
+    }
+
+    /**
+     * Reports the progress to the standard error, one line per report.
+     */
+    private static class ProgressReporter implements ThroughputListener {
+
+        private final PrintStream output;
+
+        ProgressReporter(PrintStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public void notifyProcessingPeriod(Timestamp lowerBound, Timestamp upperBound) {
+            // only the progress in the input is reported
+        }
+
+        @Override
+        public void notifyProgress(Progress progress) {
+            StringBuilder line = new StringBuilder("statzy: ");
+
+            if (progress.getFraction() >= 0) {
+                line.append(String.format("%.1f%%, ", progress.getFraction() * 100));
+            }
+
+            line.append(String.format("%,d rows", progress.getRecordsRead()));
+
+            if (progress.getRecordsPerSecond() >= 0) {
+                line.append(String.format(", %,.0f rows/s", progress.getRecordsPerSecond()));
+            }
+
+            long nanosRemaining = progress.getEstimatedNanosRemaining();
+            if (nanosRemaining >= 0 && !progress.isFinished()) {
+                line.append(String.format(", %d s left", TimeUnit.NANOSECONDS.toSeconds(nanosRemaining)));
+            }
+
+            output.println(line);
+        }
+    }
+
+}
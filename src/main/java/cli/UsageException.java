@@ -0,0 +1,13 @@
+package cli;
+
+/**
+ * Thrown when the command line arguments are not valid: an unknown option, a missing or malformed value,
+ * or options that can not be used together.
+ */
+public class UsageException extends Exception {
+
+    public UsageException(String message) {
+        super(message);
+    }
+
+}
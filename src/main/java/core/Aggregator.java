@@ -0,0 +1,50 @@
+package core;
+
+/**
+ * An aggregator computes an additional statistic for a single data set, on top of the mean and standard
+ * deviation computed by the GroupStatistics. Like the GroupStatistics, an aggregator never keeps the values
+ * added to it in memory: the statistic must be computed incrementally.
+ *
+ * The aggregators configured in the DataFileWriter work as prototypes: the GroupStatistics creates one empty
+ * copy of each prototype for each data set.
+ */
+public interface Aggregator {
+
+    /**
+     * Returns the name of the statistic computed by this aggregator. It is used in the headers of the
+     * output file, after the name of the data set: for instance, 'H1 - Histogram'.
+     *
+     * @return the name of the statistic computed by this aggregator, not null.
+     */
+    String getName();
+
+    /**
+     * Adds a new value to the aggregator.
+     *
+     * @param value the value to add.
+     */
+    void addValue(double value);
+
+    /**
+     * Returns the statistic computed from the values added since the last clear, formatted to be written to
+     * the output file.
+     *
+     * @return the formatted statistic, not null.
+     */
+    String getResult();
+
+    /**
+     * Clears all values added to the aggregator. Called at the end of each period, after its result was
+     * written. Aggregators that compare each period with the previous ones may keep what they learned
+     * from the cleared values.
+     */
+    void clear();
+
+    /**
+     * Creates a new aggregator with the same configuration as this aggregator but without any values.
+     *
+     * @return an empty copy of this aggregator, not null.
+     */
+    Aggregator emptyCopy();
+
+}
@@ -0,0 +1,179 @@
+package core;
+
+/**
+ * Anomaly detector aggregator. Compares each value with the statistics of the values of all previous
+ * periods and counts how many values of the current period deviate from them more than a threshold. The
+ * statistics of the previous periods are fixed during a period and are only updated when the period ends
+ * (on clear), so all values of a period are compared with the same baseline. No anomalies are detected
+ * until the previous periods have at least two values.
+ *
+ * Two scores are supported:
+ * - z-score: the distance to the mean, in standard deviations.
+ * - MAD score: the distance to the median, in median absolute deviations (scaled by 1.4826 to be
+ * comparable with the z-score for normally distributed values). It is robust to the anomalies themselves.
+ * The median and the MAD are approximated in constant memory with frugal streaming estimates, which move a
+ * small step towards each new value.
+ */
+public class AnomalyDetector implements Aggregator {
+
+    public enum Method {
+        Z_SCORE, MAD
+    }
+
+    private static final double MAD_SCALE = 1.4826;
+    private static final double FRUGAL_RATE = 0.05;
+
+    private final Method method;
+    private final double threshold;
+
+    // baseline: statistics of the values of all previous periods
+    private long baselineCount = 0;
+    private double baselineCenter = 0;
+    private double baselineScale = 0;
+
+    // statistics of all values, including the current period
+    private long count = 0;
+    private double mean = 0;
+    private double secondMoment = 0;
+    private double median = 0;
+    private double absoluteDeviation = 0;
+
+    private long anomalyCount = 0;  // anomalies in the current period
+
+    private AnomalyDetector(Method method, double threshold) {
+        this.method = method;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates an anomaly detector that flags values with a z-score above a threshold.
+     *
+     * @param threshold the highest z-score that is not an anomaly, for instance 3.
+     * @return a new anomaly detector, not null.
+     */
+    public static AnomalyDetector zScore(double threshold) {
+        return new AnomalyDetector(Method.Z_SCORE, threshold);
+    }
+
+    /**
+     * Creates an anomaly detector that flags values with a MAD score above a threshold.
+     *
+     * @param threshold the highest MAD score that is not an anomaly, for instance 3.5.
+     * @return a new anomaly detector, not null.
+     */
+    public static AnomalyDetector medianAbsoluteDeviation(double threshold) {
+        return new AnomalyDetector(Method.MAD, threshold);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    @Override
+    public String getName() {
+        return "Anomalies (" + (method == Method.Z_SCORE ? "z-score" : "MAD score") + " > " + threshold + ")";
+    }
+
+    /**
+     * Returns the score of a value, compared with the values of the previous periods. The score is 0 while
+     * the previous periods have less than two values.
+     *
+     * @param value the value to score.
+     * @return the score of the value, which is infinite if the previous values do not vary and the value
+     * is different from them.
+     */
+    public double score(double value) {
+        if (baselineCount < 2) return 0.0;
+
+        double distance = Math.abs(value - baselineCenter);
+        if (baselineScale == 0.0) {
+            return distance == 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+        }
+
+        return distance / baselineScale;
+    }
+
+    /**
+     * Checks if a value is an anomaly, compared with the values of the previous periods.
+     *
+     * @param value the value to check.
+     * @return true if the score of the value is above the threshold, and false if otherwise.
+     */
+    public boolean isAnomaly(double value) {
+        return score(value) > threshold;
+    }
+
+    @Override
+    public void addValue(double value) {
+
+        if (isAnomaly(value)) {
+            anomalyCount++;
+        }
+
+        count++;
+        if (method == Method.Z_SCORE) {
+            double deviation = value - mean;
+            double scaledDeviation = deviation / count;
+
+            mean += scaledDeviation;
+            secondMoment += (count - 1) * deviation * scaledDeviation;
+
+        } else if (count == 1) {
+            median = value;
+
+        } else {
+            // frugal estimates: steps are proportional to the current spread of the values
+            double distance = Math.abs(value - median);
+            double step = FRUGAL_RATE * (absoluteDeviation > 0 ? absoluteDeviation : distance);
+            median += Math.max(-step, Math.min(step, value - median));
+
+            double deviation = Math.abs(value - median);
+            if (absoluteDeviation == 0.0) {
+                absoluteDeviation = deviation;
+            } else {
+                absoluteDeviation *= deviation > absoluteDeviation ? 1 + FRUGAL_RATE : 1 - FRUGAL_RATE;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of anomalies in the current period.
+     *
+     * @return the number of anomalies in the current period.
+     */
+    public long getAnomalyCount() {
+        return anomalyCount;
+    }
+
+    @Override
+    public String getResult() {
+        return Long.toString(anomalyCount);
+    }
+
+    /**
+     * Ends the current period: the values of the period become part of the baseline used to detect the
+     * anomalies of the next period, and the anomaly count is cleared.
+     */
+    @Override
+    public void clear() {
+        baselineCount = count;
+
+        if (method == Method.Z_SCORE) {
+            baselineCenter = mean;
+            baselineScale = count > 1 ? Math.sqrt(secondMoment / (count - 1)) : 0.0;
+        } else {
+            baselineCenter = median;
+            baselineScale = MAD_SCALE * absoluteDeviation;
+        }
+
+        anomalyCount = 0;
+    }
+
+    @Override
+    public AnomalyDetector emptyCopy() {
+        return new AnomalyDetector(method, threshold);
+    }
+
+}
@@ -0,0 +1,102 @@
+package core;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the values flagged by the anomaly detectors to a side file, as they are found. Each row of the file
+ * corresponds to one anomalous value and includes the number of the record it was read from, so that the
+ * record can be found in the input file. The timestamps are written to the second, with the milliseconds,
+ * microseconds or nanoseconds when they have any, so the anomalies of sub-second records can be told apart.
+ */
+public class AnomalyFileWriter implements Closeable, Flushable {
+
+    private static final char DELIMITER = ',';
+    private static final TimestampFormatter formatter = TimestampFormatter.ofPattern("uuuu-MM-dd HH:mm:ss");
+    private static final TimestampFormatter millisFormatter =
+            TimestampFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSS");
+    private static final TimestampFormatter microsFormatter =
+            TimestampFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSS");
+    private static final TimestampFormatter nanosFormatter =
+            TimestampFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSSSSS");
+
+    private final CSVPrinter printer;
+    private final List<String> dataHeaders;
+
+    /**
+     * Creates an anomaly file writer and writes the headers to the first line.
+     *
+     * @param writer      the writer used to write the file, not null.
+     * @param dataHeaders the data headers, used to identify the data set of each anomalous value.
+     * @throws IOException if an IO error occurs.
+     */
+    public AnomalyFileWriter(Writer writer, List<String> dataHeaders) throws IOException {
+        this.printer = CSVFormat.EXCEL
+                .withDelimiter(DELIMITER)
+                .print(writer);
+        this.dataHeaders = dataHeaders;
+
+        printer.printRecord("Record", "Timestamp", "Data Set", "Value", "Score");
+    }
+
+    /**
+     * Writes an anomalous value.
+     *
+     * @param record  the record with the anomalous value, not null.
+     * @param dataSet the index of the data set of the anomalous value.
+     * @param score   the anomaly score of the value.
+     * @throws IOException if an IO error occurs.
+     */
+    public void write(DataRecord record, int dataSet, double score) throws IOException {
+        printer.print(record.getRecordNumber());
+        printer.print(format(record.getTimestamp()));
+        printer.print(dataHeaders.get(dataSet));
+        printer.print(record.getDataValues().get(dataSet));
+        printer.print(score);
+        printer.println();
+    }
+
+    /**
+     * Flushes the underlying printer.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        printer.flush();
+    }
+
+    /**
+     * Closes the underlying printer.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        printer.close();
+    }
+
+    /**
+     * Formats a timestamp with the shortest fraction of a second that keeps all of its digits.
+     */
+    private static String format(Timestamp timestamp) {
+        int nano = timestamp.getNano();
+
+        if (nano == 0) {
+            return formatter.format(timestamp);
+        } else if (nano % 1_000_000 == 0) {
+            return millisFormatter.format(timestamp);
+        } else if (nano % 1_000 == 0) {
+            return microsFormatter.format(timestamp);
+        }
+
+        return nanosFormatter.format(timestamp);
+    }
+
+}
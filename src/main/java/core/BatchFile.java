@@ -0,0 +1,263 @@
+package core;
+
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A data file of a batch, with the headers file describing its columns and the file where its statistics
+ * are written. The files of a batch are found in a directory or with a glob pattern, and each data file is
+ * paired with its headers file by name: headers files are the files with a name ending in 'headers', like
+ * the files dropped in the user interface, and the headers file of a data file is in the same directory,
+ * with the same name followed by 'headers' (for instance, 'logger1.csv' and 'logger1_headers.csv').
+ */
+public final class BatchFile {
+
+    private static final String HEADERS_TAG = "headers";
+    private static final String OUTPUT_TAG = "_statistics";
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final File dataFile;
+    private final File headersFile;
+    private final File outputFile;
+
+    /**
+     * Creates a batch file.
+     *
+     * @param dataFile    the data file, not null.
+     * @param headersFile the headers file of the data file, or null if it has none.
+     * @param outputFile  the file where the statistics are written, not null.
+     */
+    public BatchFile(File dataFile, File headersFile, File outputFile) {
+        this.dataFile = dataFile;
+        this.headersFile = headersFile;
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * Finds the files in a directory, or the files matching a glob pattern. The pattern uses the syntax of
+     * FileSystem.getPathMatcher (for instance, 'logs/*.csv.gz'); with '**' it also matches the
+     * files in subdirectories. Directories are never included.
+     *
+     * @param directoryOrPattern a directory or a glob pattern, not null.
+     * @return the files found, sorted by path, not null.
+     * @throws FileNotFoundException if the directory or the base directory of the pattern does not exist.
+     * @throws IOException if the directory can not be read.
+     */
+    public static List<File> find(String directoryOrPattern) throws IOException {
+        File directory = new File(directoryOrPattern);
+        if (directory.isDirectory()) {
+            return listFiles(directory.toPath(), 1, path -> true);
+        }
+
+        // the base directory is the part of the pattern before the first segment with a glob character
+        String[] segments = directoryOrPattern.replace(File.separatorChar, '/').split("/", -1);
+        int firstGlobSegment = 0;
+        while (firstGlobSegment < segments.length && !isGlob(segments[firstGlobSegment])) {
+            firstGlobSegment++;
+        }
+
+        if (firstGlobSegment == segments.length) {
+            // not a pattern: a single file
+            if (!directory.isFile()) {
+                throw new FileNotFoundException(directoryOrPattern + " does not exist");
+            }
+
+            return new ArrayList<>(Collections.singletonList(directory));
+        }
+
+        List<String> segmentList = Arrays.asList(segments);
+        String baseDirectory = String.join("/", segmentList.subList(0, firstGlobSegment));
+        if (baseDirectory.isEmpty() && firstGlobSegment > 0) {
+            baseDirectory = "/";    // the pattern starts at the root
+        }
+
+        String pattern = String.join("/", segmentList.subList(firstGlobSegment, segments.length));
+
+        Path base = Paths.get(baseDirectory.isEmpty() ? "." : baseDirectory);
+        if (!Files.isDirectory(base)) {
+            throw new FileNotFoundException(base + " does not exist");
+        }
+
+        int maxDepth = pattern.contains("**") ? Integer.MAX_VALUE : segments.length - firstGlobSegment;
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return listFiles(base, maxDepth, path -> matcher.matches(base.relativize(path)));
+    }
+
+    /**
+     * Pairs each data file with its headers file. A headers file is paired with the data files in the same
+     * directory with the same name, ignoring the case, the extensions, and any separator before 'headers'.
+     * The data files without a headers file of their own are paired with the only headers file in their
+     * directory, if there is only one, or with none. The statistics of each data file are written to a file
+     * with the same name followed by '_statistics', with the extension '.csv' (for instance,
+     * 'logger1_statistics.csv'). These files are never taken as data files, so a batch can be run again
+     * on the same files.
+     *
+     * @param files           the data and headers files, not null.
+     * @param outputDirectory the directory where the statistics are written, or null to write them to the
+     *                        directory of each data file.
+     * @return a batch file for each data file, in the order of the list, not null.
+     * @throws IllegalArgumentException if two data files would write their statistics to the same file.
+     */
+    public static List<BatchFile> pair(Collection<File> files, File outputDirectory) {
+        Map<String, File> headersFiles = new HashMap<>();
+        Map<File, Integer> headersFileCounts = new HashMap<>();
+        Map<File, File> lastHeadersFiles = new HashMap<>();
+        for (File file : files) {
+            if (isHeadersFile(file)) {
+                File directory = directoryOf(file);
+                headersFiles.put(pairingKey(directory, file), file);
+                headersFileCounts.merge(directory, 1, Integer::sum);
+                lastHeadersFiles.put(directory, file);
+            }
+        }
+
+        Map<File, BatchFile> outputFiles = new HashMap<>();
+        List<BatchFile> batchFiles = new ArrayList<>();
+        for (File file : files) {
+            if (isHeadersFile(file) || isOutputFile(file)) continue;
+
+            File directory = directoryOf(file);
+            File headersFile = headersFiles.get(pairingKey(directory, file));
+            if (headersFile == null && headersFileCounts.getOrDefault(directory, 0) == 1) {
+                headersFile = lastHeadersFiles.get(directory);
+            }
+
+            File outputFile = new File(outputDirectory != null ? outputDirectory : directory,
+                    baseName(file) + OUTPUT_TAG + ".csv");
+
+            BatchFile batchFile = new BatchFile(file, headersFile, outputFile);
+            BatchFile previous = outputFiles.put(outputFile.getAbsoluteFile(), batchFile);
+            if (previous != null) {
+                throw new IllegalArgumentException(previous + " and " + file + " would both write to " +
+                        outputFile);
+            }
+
+            batchFiles.add(batchFile);
+        }
+
+        return batchFiles;
+    }
+
+    /**
+     * Checks if a file is a headers file: if its name, without the extension, ends with 'headers'.
+     *
+     * @param file the file to check, not null.
+     * @return true if the file is a headers file, and false if otherwise.
+     */
+    public static boolean isHeadersFile(File file) {
+        String filename = FilenameUtils.getBaseName(file.getName());
+        return filename.toLowerCase().endsWith(HEADERS_TAG);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    public File getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * Returns the headers file of the data file.
+     *
+     * @return the headers file, or null if no headers file was paired with the data file.
+     */
+    public File getHeadersFile() {
+        return headersFile;
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    @Override
+    public String toString() {
+        return dataFile.getPath();
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private static List<File> listFiles(Path directory, int maxDepth,
+                                        Predicate<Path> filter) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory, maxDepth)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(filter)
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isGlob(String segment) {
+        for (char c : GLOB_CHARACTERS.toCharArray()) {
+            if (segment.indexOf(c) >= 0) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the name of the file without the extensions, including the '.gz' of compressed files.
+     */
+    private static String baseName(File file) {
+        String name = file.getName();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+
+        return FilenameUtils.getBaseName(name);
+    }
+
+    private static boolean isOutputFile(File file) {
+        return baseName(file).endsWith(OUTPUT_TAG);
+    }
+
+    private static File directoryOf(File file) {
+        return file.getAbsoluteFile().getParentFile();
+    }
+
+    /**
+     * Returns the key used to pair a data file with its headers file: the directory and the base name in
+     * lower case, without the 'headers' tag and the separators before it.
+     */
+    private static String pairingKey(File directory, File file) {
+        String name = baseName(file).toLowerCase(Locale.ROOT);
+
+        if (name.endsWith(HEADERS_TAG)) {
+            int end = name.length() - HEADERS_TAG.length();
+            while (end > 0 && !Character.isLetterOrDigit(name.charAt(end - 1))) {
+                end--;
+            }
+
+            name = name.substring(0, end);
+        }
+
+        return new File(directory, name).getPath();
+    }
+
+}
@@ -0,0 +1,285 @@
+package core;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Processes the files of a batch concurrently, each in its own job, on a bounded pool of worker threads.
+ * The jobs are independent: each one creates its own statistics generator, reader and writer. A job that
+ * fails only fails its own file, even with an error like running out of memory: the error is kept in the
+ * result of the file, its partial output is deleted, and the other files are still processed. An output
+ * file the job never wrote to, like the output of an earlier run when the job fails before opening its
+ * writer, is left alone.
+ *
+ * The jobs share a memory budget. Before it starts, each job reserves an estimate of the memory it needs
+ * from the budget, and gives it back when it ends, so the files processed at the same time never need
+ * more than the budget, even with more workers than files that fit in it. The estimate is given by the
+ * job (see estimateMemory): a fixed amount for the buffers, the parser, and the generator, an amount for
+ * each column, since the statistics kept for each period grow with the number of columns, and the
+ * records and rows waiting between the threads of a pipelined job or of a job formatting its rows on
+ * threads. A job needing more than the whole budget runs alone.
+ *
+ * The read and write buffers of the files are reused from one job to the next (see BufferPool), so small
+ * files do not pay for allocating them.
+ */
+public class BatchProcessor {
+
+    // the read and write buffers, plus the parser, the generator and the writer
+    private static final long BASE_JOB_MEMORY = BufferPool.READ_BUFFER_SIZE + BufferPool.WRITE_BUFFER_SIZE +
+            1024 * 1024;
+    private static final long MEMORY_PER_COLUMN = 64 * 1024;      // the statistics and the aggregators
+    private static final long RECORD_MEMORY = 64;                   // a record, without its values
+    private static final long ROW_MEMORY = 64;                      // a row, without its values
+    private static final long MEMORY_PER_VALUE = 24;                // a boxed value and its reference
+    private static final long MEMORY_PER_FORMATTED_VALUE = 128;     // the statistics of a value, as text
+    private static final long THREAD_MEMORY = 1024 * 1024;          // the stack of a thread
+    private static final int MEMORY_UNIT = 1024;     // the budget is reserved in KiB, to fit in an int
+
+    private final int workerCount;
+    private final long memoryBudget;
+
+    /**
+     * A job processing one file of a batch.
+     */
+    @FunctionalInterface
+    public interface Job {
+
+        /**
+         * Processes a file of the batch, writing its statistics to its output file. Called from a worker
+         * thread, possibly at the same time as for other files.
+         *
+         * @param file the file to process, not null.
+         * @throws ParseException if the data in the file is not valid.
+         * @throws IOException if an IO error occurs.
+         */
+        void process(BatchFile file) throws ParseException, IOException;
+
+        /**
+         * Returns the estimate of the memory needed to process a file: the memory reserved from the budget
+         * while the file is processed. Called from a worker thread, before the file is processed. By
+         * default, the estimate for a file with a single column, processed without any threads of its own;
+         * jobs that know the columns of the file, or that use more threads, should give their own estimate
+         * (see BatchProcessor.estimateMemory).
+         *
+         * @param file the file to process, not null.
+         * @return the estimated memory, in bytes.
+         * @throws ParseException if the headers of the file are not valid.
+         * @throws IOException if an IO error occurs.
+         */
+        default long estimateMemory(BatchFile file) throws ParseException, IOException {
+            return BatchProcessor.estimateMemory(1, false, 1);
+        }
+
+    }
+
+    /**
+     * Creates a batch processor with one worker for each available processor and half of the maximum
+     * heap size as the memory budget.
+     */
+    public BatchProcessor() {
+        this(Runtime.getRuntime().availableProcessors(), defaultMemoryBudget());
+    }
+
+    /**
+     * Creates a batch processor.
+     *
+     * @param workerCount  the maximum number of files processed at the same time.
+     * @param memoryBudget the memory, in bytes, shared by the files processed at the same time.
+     * @throws IllegalArgumentException if the worker count is not positive or the memory budget is less
+     *                                  than 1 KiB.
+     */
+    public BatchProcessor(int workerCount, long memoryBudget) {
+
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("The number of workers must be positive, but got " +
+                    workerCount);
+        }
+
+        if (memoryBudget < MEMORY_UNIT) {
+            throw new IllegalArgumentException("The memory budget must be at least " + MEMORY_UNIT +
+                    " bytes, but got " + memoryBudget);
+        }
+
+        this.workerCount = workerCount;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Returns the memory budget used by default: half of the maximum heap size.
+     *
+     * @return the default memory budget, in bytes.
+     */
+    public static long defaultMemoryBudget() {
+        return Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Processes the files of a batch, each with the given job, and waits for all of them. The result of
+     * each file is also given to the listener as soon as the file is done, from the worker that processed
+     * it: the listener may be called by several workers at the same time.
+     *
+     * @param files    the files to process, not null.
+     * @param job      the job processing each file, not null.
+     * @param listener called with the result of each file, not null.
+     * @return the results of the files, in the same order as the files, not null.
+     * @throws InterruptedException if the thread is interrupted while waiting for the files. The files
+     *                              being processed are interrupted too.
+     */
+    public List<BatchResult> process(List<BatchFile> files, Job job, Consumer<BatchResult> listener)
+            throws InterruptedException {
+
+        if (files.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int budgetUnits = (int) Math.min(Integer.MAX_VALUE, memoryBudget / MEMORY_UNIT);
+        Semaphore memory = new Semaphore(budgetUnits, true);
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workerCount, files.size()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "statzy-batch-" + workerNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        try {
+            List<Future<BatchResult>> futures = new ArrayList<>(files.size());
+            for (BatchFile file : files) {
+                futures.add(executor.submit(() -> run(file, job, memory, budgetUnits, listener)));
+            }
+            executor.shutdown();
+
+            List<BatchResult> results = new ArrayList<>(files.size());
+            for (Future<BatchResult> future : futures) {
+                results.add(future.get());
+            }
+
+            return results;
+
+        } catch (ExecutionException e) {
+            // the jobs catch their exceptions: only errors, interruptions and the exceptions of the
+            // listener get here
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+
+            throw (RuntimeException) cause;
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the estimate of the memory needed to process a file with a statistics generator: the buffers,
+     * the parser, and the generator, the statistics of each column, and, when the records are read on
+     * their own thread (see StatisticsGenerator.setPipelined) or the rows are formatted on threads (see
+     * DataFileWriter.Builder.withFormattingThreads), the threads and the records and rows waiting between
+     * them.
+     *
+     * @param columnCount           the number of data columns of the file.
+     * @param pipelined             true if the records are read on their own thread.
+     * @param formattingThreadCount the number of threads formatting the rows, or 1 if the rows are formatted
+     *                              by the thread writing them.
+     * @return the estimated memory, in bytes.
+     */
+    public static long estimateMemory(int columnCount, boolean pipelined, int formattingThreadCount) {
+        long memory = BASE_JOB_MEMORY + columnCount * MEMORY_PER_COLUMN;
+
+        if (pipelined) {
+            long pendingRecords = (long) RecordPipeline.PENDING_BATCHES * RecordPipeline.BATCH_SIZE;
+            memory += THREAD_MEMORY + pendingRecords * (RECORD_MEMORY + columnCount * MEMORY_PER_VALUE);
+        }
+
+        if (formattingThreadCount > 1) {
+            // the formatting threads and the writer thread
+            long pendingRows = (long) formattingThreadCount * ParallelRowWriter.PENDING_BATCHES_PER_THREAD *
+                    ParallelRowWriter.BATCH_SIZE;
+            memory += (formattingThreadCount + 1) * THREAD_MEMORY +
+                    pendingRows * (ROW_MEMORY + columnCount * MEMORY_PER_FORMATTED_VALUE);
+        }
+
+        return memory;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private static BatchResult run(BatchFile file, Job job, Semaphore memory, int budgetUnits,
+                                   Consumer<BatchResult> listener) throws InterruptedException {
+
+        int memoryUnits;
+        try {
+            long estimate = Math.max(0, job.estimateMemory(file));
+            memoryUnits = (int) Math.min(budgetUnits, estimate / MEMORY_UNIT + 1);
+
+        } catch (Throwable e) {
+            BatchResult result = new BatchResult(file, e, 0);
+            listener.accept(result);
+            return result;
+        }
+
+        memory.acquire(memoryUnits);
+
+        // the state of the output before the job, to tell if the job wrote to it
+        File output = file.getOutputFile();
+        boolean outputExisted = output.exists();
+        long outputLastModified = output.lastModified();
+        long outputLength = output.length();
+
+        long startNanos = System.nanoTime();
+        Throwable error = null;
+        try {
+            job.process(file);
+
+        } catch (Throwable e) {
+            error = e;
+
+            // the output of a file that failed is not complete, but an output the job did not write to may
+            // be the output of an earlier run
+            if (output.exists() && (!outputExisted || output.lastModified() != outputLastModified
+                    || output.length() != outputLength)) {
+                output.delete();
+            }
+
+        } finally {
+            memory.release(memoryUnits);
+        }
+
+        BatchResult result = new BatchResult(file, error, System.nanoTime() - startNanos);
+        listener.accept(result);
+        return result;
+    }
+
+}
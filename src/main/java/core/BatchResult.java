@@ -0,0 +1,60 @@
+package core;
+
+/**
+ * Result of processing one file of a batch: whether the file was processed, the error that stopped it if
+ * it was not, and how long it took.
+ */
+public final class BatchResult {
+
+    private final BatchFile file;
+    private final Throwable error;
+    private final long elapsedNanos;
+
+    /**
+     * Creates a batch result.
+     *
+     * @param file         the file processed, not null.
+     * @param error        the error that stopped the file from being processed, or null if it was processed.
+     * @param elapsedNanos the time spent processing the file, not counting the time waiting for memory.
+     */
+    public BatchResult(BatchFile file, Throwable error, long elapsedNanos) {
+        this.file = file;
+        this.error = error;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    public BatchFile getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the error that stopped the file from being processed: a ParseException if the data is not
+     * valid, an IOException if the file could not be read or written, or any other exception or error
+     * thrown while processing the file, like an OutOfMemoryError.
+     *
+     * @return the error, or null if the file was processed.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return file + (error == null ? ": done" : ": " + error);
+    }
+
+}
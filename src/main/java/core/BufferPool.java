@@ -0,0 +1,72 @@
+package core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Keeps the read buffers of the record parsers and the direct write buffers of the channel writers after
+ * their files are closed, so the next files opened take them instead of allocating new ones. Allocating a
+ * direct buffer is much slower than allocating an array, and its memory is only given back after a
+ * garbage collection: when many small files are processed one after the other, as in a batch, allocating
+ * the buffers of each file would take longer than processing it.
+ *
+ * Only a few buffers of each kind are kept, enough for a few files open at the same time on each
+ * processor. The buffers given back when the pool is full are left to the garbage collector. Can be used
+ * from any thread.
+ */
+final class BufferPool {
+
+    static final int READ_BUFFER_SIZE = 64 * 1024;
+    static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private static final int MAX_POOLED_BUFFERS = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final BlockingQueue<byte[]> readBuffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+    private static final BlockingQueue<ByteBuffer> writeBuffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    private BufferPool() {
+    }
+
+    /**
+     * Takes a read buffer from the pool, or allocates a new one if the pool has none.
+     *
+     * @return a read buffer of READ_BUFFER_SIZE bytes, not null.
+     */
+    static byte[] takeReadBuffer() {
+        byte[] buffer = readBuffers.poll();
+        return buffer != null ? buffer : new byte[READ_BUFFER_SIZE];
+    }
+
+    /**
+     * Gives a read buffer back to the pool. The buffer must not be used after it is given back.
+     *
+     * @param buffer the buffer taken from the pool, not null.
+     */
+    static void giveBack(byte[] buffer) {
+        readBuffers.offer(buffer);
+    }
+
+    /**
+     * Takes a direct write buffer from the pool, or allocates a new one if the pool has none. The buffer
+     * is empty: its position is 0 and its limit is its capacity.
+     *
+     * @return a direct write buffer of WRITE_BUFFER_SIZE bytes, not null.
+     */
+    static ByteBuffer takeWriteBuffer() {
+        ByteBuffer buffer = writeBuffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Gives a write buffer back to the pool. The buffer must not be used after it is given back.
+     *
+     * @param buffer the buffer taken from the pool, not null.
+     */
+    static void giveBack(ByteBuffer buffer) {
+        ((Buffer) buffer).clear();     // ByteBuffer.clear only exists since Java 9
+        writeBuffers.offer(buffer);
+    }
+
+}
@@ -0,0 +1,225 @@
+package core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writer that encodes characters directly into a reusable direct byte buffer and writes the buffer to a
+ * byte channel in large blocks. ASCII characters, which make up the timestamps and numbers of the output
+ * files, are copied into the buffer one byte each, without going through the charset encoder. Any other
+ * characters are encoded with the charset, replacing the characters that can not be encoded, so the bytes
+ * written are exactly the same as the bytes written by a FileWriter or an OutputStreamWriter with the same
+ * charset.
+ *
+ * Strings and other char sequences are read in place, so appending a StringBuilder does not create any
+ * objects. The buffer is taken from the buffer pool and given back when the writer is closed.
+ */
+class ChannelWriter extends Writer {
+
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer = BufferPool.takeWriteBuffer();   // given back to the pool when closed
+    private final CharsetEncoder encoder;
+    private final boolean asciiCompatible;  // true if the charset encodes each ASCII character as itself
+
+    private final CharBuffer nonAsciiChars = CharBuffer.allocate(64);
+    private boolean closed = false;
+
+    /**
+     * Creates a writer for a byte channel.
+     *
+     * @param channel the channel to write to, not null.
+     * @param charset the charset used to encode the characters, not null.
+     */
+    ChannelWriter(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = isAsciiCompatible(charset);
+    }
+
+    /**
+     * Opens a file for writing with the default charset, like a FileWriter. If the file exists, it is
+     * truncated.
+     *
+     * @param file the file to write to, not null.
+     * @return the writer for the file, not null.
+     * @throws IOException if the file can not be opened.
+     */
+    static ChannelWriter open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        return new ChannelWriter(channel, Charset.defaultCharset());
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    @Override
+    public void write(int c) throws IOException {
+        putChar((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            putChar(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            putChar(string.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence chars) throws IOException {
+        CharSequence sequence = chars != null ? chars : "null";
+        return append(sequence, 0, sequence.length());
+    }
+
+    @Override
+    public Writer append(CharSequence chars, int start, int end) throws IOException {
+        CharSequence sequence = chars != null ? chars : "null";
+        for (int i = start; i < end; i++) {
+            putChar(sequence.charAt(i));
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the buffered bytes to the channel. Characters waiting for the second half of a surrogate pair
+     * are kept until the next write.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+        encodeNonAsciiChars(false);
+        writeBuffer();
+    }
+
+    /**
+     * Writes all buffered bytes to the channel and closes it.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+
+        try {
+            encodeNonAsciiChars(true);
+            while (encoder.flush(buffer).isOverflow()) {
+                writeBuffer();
+            }
+            writeBuffer();
+
+        } finally {
+            closed = true;
+            BufferPool.giveBack(buffer);
+            buffer = null;
+            channel.close();
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void putChar(char c) throws IOException {
+        checkOpen();
+
+        if (c < 0x80 && asciiCompatible && nonAsciiChars.position() == 0) {
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+
+            buffer.put((byte) c);
+            return;
+        }
+
+        // other characters are gathered and encoded together, so that surrogate pairs are kept together
+        if (!nonAsciiChars.hasRemaining()) {
+            encodeNonAsciiChars(false);
+        }
+        nonAsciiChars.put(c);
+
+        if (!Character.isHighSurrogate(c)) {
+            encodeNonAsciiChars(false);
+        }
+    }
+
+    private void encodeNonAsciiChars(boolean endOfInput) throws IOException {
+        // called through Buffer: the overrides returning CharBuffer and ByteBuffer only exist since Java 9
+        ((Buffer) nonAsciiChars).flip();
+
+        while (true) {
+            CoderResult result = encoder.encode(nonAsciiChars, buffer, endOfInput);
+
+            if (result.isOverflow()) {
+                writeBuffer();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                // not reached: malformed and unmappable characters are replaced
+                throw new CharacterCodingException();
+            }
+        }
+
+        // keep what was not encoded yet: a high surrogate waiting for its pair
+        nonAsciiChars.compact();
+    }
+
+    private void writeBuffer() throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        ((Buffer) buffer).clear();
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        if (!charset.canEncode()) return false;
+
+        char[] asciiChars = new char[0x80];
+        byte[] asciiBytes = new byte[0x80];
+        for (int c = 0; c < 0x80; c++) {
+            asciiChars[c] = (char) c;
+            asciiBytes[c] = (byte) c;
+        }
+
+        return Arrays.equals(new String(asciiChars).getBytes(charset), asciiBytes);
+    }
+
+}
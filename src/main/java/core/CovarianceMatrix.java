@@ -0,0 +1,256 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the covariance and the correlation between every pair of data sets. Like the GroupStatistics, it
+ * does not keep every entry in memory: it keeps the means of each data set and the matrix with the
+ * co-moments between each pair of data sets.
+ *
+ * Entries are not added to the co-moments one by one. They are kept in a small batch and, once the batch is
+ * full, the co-moments of the batch are computed and merged into the co-moments of all previous entries.
+ * The batch update only touches the upper triangle of the matrix (the matrix is symmetric) and goes over it
+ * in square blocks, small enough to stay in the CPU cache while all the entries in the batch are added to
+ * them. This keeps the cost tractable for hundreds of data sets.
+ */
+public class CovarianceMatrix {
+
+    private static final int BATCH_SIZE = 64;
+    private static final int BLOCK_SIZE = 32;
+
+    private final int size;
+    private long count = 0;
+    private final double[] means;
+    private final double[] comoments;   // size x size, row-major: only the upper triangle is updated
+
+    // entries not yet merged into the co-moments
+    private final double[] batch;       // BATCH_SIZE x size, row-major
+    private final double[] batchMeans;
+    private int batchCount = 0;
+
+    /**
+     * Creates a covariance matrix for a specified number of data sets.
+     *
+     * @param dataSetCount the number of data sets.
+     */
+    public CovarianceMatrix(int dataSetCount) {
+        this.size = dataSetCount;
+        this.means = new double[dataSetCount];
+        this.comoments = new double[dataSetCount * dataSetCount];
+        this.batch = new double[BATCH_SIZE * dataSetCount];
+        this.batchMeans = new double[dataSetCount];
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Adds a new entry of values for each data set. The input values must be always in the same order.
+     *
+     * @param values the list with the values for each data set, not null.
+     * @throws IllegalArgumentException if the number of values is different from the number of data sets.
+     */
+    public void addEntry(List<Double> values) {
+
+        if (values.size() != size) {
+            throw new IllegalArgumentException("Covariance matrix expected " + size + " items but got " +
+                    values.size());
+        }
+
+        int offset = batchCount * size;
+        for (int i = 0; i < size; i++) {
+            batch[offset + i] = values.get(i);
+        }
+
+        if (++batchCount == BATCH_SIZE) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Merges the entries of other covariance matrix into this matrix. Both matrices must have the same
+     * number of data sets. The other matrix keeps the same entries.
+     *
+     * @param other the covariance matrix to merge into this one, not null.
+     * @throws IllegalArgumentException if the matrices do not have the same number of data sets.
+     */
+    public void merge(CovarianceMatrix other) {
+
+        if (other.size != size) {
+            throw new IllegalArgumentException("Can not merge a covariance matrix with " + other.size +
+                    " data sets into a covariance matrix with " + size + " data sets");
+        }
+
+        flushBatch();
+        other.flushBatch();
+
+        for (int i = 0; i < comoments.length; i++) {
+            comoments[i] += other.comoments[i];
+        }
+
+        combineMeans(other.means, other.count);
+    }
+
+    /**
+     * Returns the number of data sets.
+     *
+     * @return the number of data sets.
+     */
+    public int getDataSetCount() {
+        return size;
+    }
+
+    /**
+     * Returns the number of entries added to the matrix.
+     *
+     * @return the number of entries added to the matrix.
+     */
+    public long getCount() {
+        return count + batchCount;
+    }
+
+    /**
+     * Returns the (sample) covariance between two data sets. Returns NaN if less than two entries were
+     * added.
+     *
+     * @param first  the index of the first data set.
+     * @param second the index of the second data set.
+     * @return the covariance between the two data sets.
+     * @throws IndexOutOfBoundsException if any of the indexes is out of range.
+     */
+    public double getCovariance(int first, int second) {
+        flushBatch();
+        return count < 2 ? Double.NaN : comoment(first, second) / (count - 1);
+    }
+
+    /**
+     * Returns the Pearson correlation between two data sets. Returns NaN if less than two entries were
+     * added or if any of the data sets has no variance.
+     *
+     * @param first  the index of the first data set.
+     * @param second the index of the second data set.
+     * @return the correlation between the two data sets, between -1 and 1.
+     * @throws IndexOutOfBoundsException if any of the indexes is out of range.
+     */
+    public double getCorrelation(int first, int second) {
+        flushBatch();
+
+        if (count < 2) return Double.NaN;
+
+        double correlation = comoment(first, second) /
+                Math.sqrt(comoment(first, first) * comoment(second, second));
+
+        // rounding errors may place the correlation slightly outside of its range
+        return Double.isNaN(correlation) ? correlation : Math.max(-1.0, Math.min(1.0, correlation));
+    }
+
+    /**
+     * Clears all entries.
+     */
+    public void clear() {
+        count = 0;
+        batchCount = 0;
+        Arrays.fill(means, 0.0);
+        Arrays.fill(comoments, 0.0);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private double comoment(int first, int second) {
+        if (first < 0 || first >= size || second < 0 || second >= size) {
+            throw new IndexOutOfBoundsException("Data set (" + first + ", " + second + ") does not exist");
+        }
+
+        // only the upper triangle is updated
+        return first <= second ? comoments[first * size + second] : comoments[second * size + first];
+    }
+
+    /**
+     * Merges the entries in the batch into the co-moments and the means. The batch entries are centered
+     * around the batch means, their co-moments are added to the matrix, and then the matrix is corrected
+     * for the difference between the batch means and the means of the previous entries (Chan et al.).
+     */
+    private void flushBatch() {
+        if (batchCount == 0) return;
+
+        Arrays.fill(batchMeans, 0.0);
+        for (int row = 0; row < batchCount; row++) {
+            int offset = row * size;
+            for (int i = 0; i < size; i++) {
+                batchMeans[i] += batch[offset + i];
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            batchMeans[i] /= batchCount;
+        }
+
+        for (int row = 0; row < batchCount; row++) {
+            int offset = row * size;
+            for (int i = 0; i < size; i++) {
+                batch[offset + i] -= batchMeans[i];
+            }
+        }
+
+        // blocked update of the upper triangle: each block is updated with every entry in the batch
+        for (int rowBlock = 0; rowBlock < size; rowBlock += BLOCK_SIZE) {
+            int rowEnd = Math.min(rowBlock + BLOCK_SIZE, size);
+
+            for (int columnBlock = rowBlock; columnBlock < size; columnBlock += BLOCK_SIZE) {
+                int columnEnd = Math.min(columnBlock + BLOCK_SIZE, size);
+
+                for (int row = 0; row < batchCount; row++) {
+                    int offset = row * size;
+
+                    for (int i = rowBlock; i < rowEnd; i++) {
+                        double value = batch[offset + i];
+                        int matrixOffset = i * size;
+
+                        for (int j = Math.max(i, columnBlock); j < columnEnd; j++) {
+                            comoments[matrixOffset + j] += value * batch[offset + j];
+                        }
+                    }
+                }
+            }
+        }
+
+        int entryCount = batchCount;
+        batchCount = 0;
+        combineMeans(batchMeans, entryCount);
+    }
+
+    /**
+     * Combines the current means with the means of other set of entries, whose co-moments were already added
+     * to the matrix. Corrects the upper triangle of the co-moments for the difference between the means.
+     */
+    private void combineMeans(double[] otherMeans, long otherCount) {
+        if (otherCount == 0) return;
+
+        long totalCount = count + otherCount;
+        double weight = (double) count * otherCount / totalCount;
+
+        for (int i = 0; i < size; i++) {
+            double delta = otherMeans[i] - means[i];
+            int matrixOffset = i * size;
+
+            for (int j = i; j < size; j++) {
+                comoments[matrixOffset + j] += delta * (otherMeans[j] - means[j]) * weight;
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            means[i] += (otherMeans[i] - means[i]) * otherCount / totalCount;
+        }
+
+        count = totalCount;
+    }
+
+}
@@ -4,6 +4,9 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -12,9 +15,10 @@ import java.util.List;
 /**
  * Abstraction to write data files.
  */
-public class DataFileWriter implements Closeable {
+public class DataFileWriter implements Closeable, Flushable {
 
     private static final char DELIMITER = ',';
+    private static final CSVFormat FORMAT = CSVFormat.EXCEL.withDelimiter(DELIMITER);
     private static final List<String> STATS_HEADERS = Arrays.asList("Avg", "StdDev");
 
     private final CSVPrinter printer;
@@ -23,6 +27,13 @@ public class DataFileWriter implements Closeable {
     private final Delimiter delimiter;  // might be null: indicates the date and time are in different columns
     private final boolean timeBeforeDate;
     private final int dataSetCount;
+    private final boolean keyed;    // indicates if each row starts with the key of a group
+    private final List<Aggregator> aggregators;
+    private final MatrixFileWriter matrixWriter;    // null if the covariance matrices are not written
+    private final AnomalyFileWriter anomalyWriter;  // null if the anomalous values are not written
+    private final Unit epochUnit;   // null if the timestamps are written with the date and time formatters
+    private final ParallelRowWriter rowWriter;      // null if the rows are written by the writing thread
+    private final DoubleFormatter doubleFormatter;
 
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
      *
@@ -34,24 +45,44 @@ public class DataFileWriter implements Closeable {
                           Delimiter delimiter, boolean timeBeforeDate, Headers headers)
             throws IOException {
 
-        printer = CSVFormat.EXCEL
-                .withDelimiter(DELIMITER)
-                .print(writer);
+        this(writer, dateFormatter, timeFormatter, delimiter, timeBeforeDate, headers,
+                Collections.emptyList(), null, null, null, 1, false, DoubleFormatter.shortest());
+    }
+
+    private DataFileWriter(Writer writer, TimestampFormatter dateFormatter, TimestampFormatter timeFormatter,
+                           Delimiter delimiter, boolean timeBeforeDate, Headers headers,
+                           List<Aggregator> aggregators, MatrixFileWriter matrixWriter,
+                           AnomalyFileWriter anomalyWriter, Unit epochUnit, int formattingThreadCount,
+                           boolean pipelinedOutput, DoubleFormatter doubleFormatter)
+            throws IOException {
+
+        printer = FORMAT.print(writer);
 
         this.dateFormatter = dateFormatter;
         this.timeFormatter = timeFormatter;
         this.delimiter = delimiter;
         this.timeBeforeDate = timeBeforeDate;
         this.dataSetCount = headers.getDataHeaders().size();
+        this.keyed = headers.getKeyHeader() != null;
+        this.aggregators = aggregators;
+        this.matrixWriter = matrixWriter;
+        this.anomalyWriter = anomalyWriter;
+        this.epochUnit = epochUnit;
+        this.doubleFormatter = doubleFormatter;
 
         // write the headers to the first line
         printHeaders(headers);
+
+        this.rowWriter = formattingThreadCount > 1 || pipelinedOutput
+                ? new ParallelRowWriter(writer, FORMAT, formattingThreadCount) : null;
     }
 
     private void printHeaders(Headers headers) throws IOException {
 
         // print headers for the date and time
-        if (timeBeforeDate) {
+        if (epochUnit != null) {
+            printer.print(headers.getDateHeader());
+        } else if (timeBeforeDate) {
             printer.print(headers.getTimeHeader());
             printer.print(headers.getDateHeader());
         } else {
@@ -59,6 +90,11 @@ public class DataFileWriter implements Closeable {
             printer.print(headers.getTimeHeader());
         }
 
+        // print header for the keys
+        if (keyed) {
+            printer.print(headers.getKeyHeader());
+        }
+
         // print header for the counts
         printer.print("Count");
 
@@ -67,6 +103,10 @@ public class DataFileWriter implements Closeable {
             for (String statsHeader : STATS_HEADERS) {
                 printer.print(header + " - " + statsHeader);
             }
+
+            for (Aggregator aggregator : aggregators) {
+                printer.print(header + " - " + aggregator.getName());
+            }
         }
 
         printer.println();
@@ -91,53 +131,286 @@ public class DataFileWriter implements Closeable {
      * @throws IOException if an IO error occurs.
      * @throws IllegalArgumentException if the number of values in the means//std deviations list is
      * different from the number headers.
+     * @throws IllegalStateException if the writer expects the rows to have a key.
      */
     public void write(Timestamp timestamp, long count, List<Double> means, List<Double> standardDeviations)
             throws IOException {
 
+        if (keyed) {
+            throw new IllegalStateException("Each row is expected to have a key.");
+        }
+
+        writeRow(timestamp, null, count, means, standardDeviations, null);
+    }
+
+    /**
+     * Writes the record of a key into the output file. The output file must have been configured with a
+     * key header. Besides the key, it behaves exactly like the write method without key.
+     *
+     * @param timestamp the timestamp for the record.
+     * @param key       the key of the group the statistics belong to, not null.
+     * @param count     the number of records in the data.
+     * @param means     the means for each data set.
+     * @param standardDeviations the standard deviations for each data set.
+     * @throws IOException if an IO error occurs.
+     * @throws IllegalArgumentException if the number of values in the means//std deviations list is
+     * different from the number headers.
+     * @throws IllegalStateException if the writer is not configured with a key header.
+     */
+    public void write(Timestamp timestamp, String key, long count, List<Double> means,
+                      List<Double> standardDeviations) throws IOException {
+
+        if (!keyed) {
+            throw new IllegalStateException("Rows are not expected to have a key: the writer must be " +
+                    "configured with a key header.");
+        }
+
+        writeRow(timestamp, key, count, means, standardDeviations, null);
+    }
+
+    /**
+     * Writes a row, either right away or through the parallel row writer. The values must not be modified
+     * afterwards, since the row may be formatted later on by another thread.
+     *
+     * @param aggregatorResults the results of the aggregators of each data set, one after the other, or
+     *                          null if the row has no aggregator results.
+     */
+    private void writeRow(Timestamp timestamp, String key, long count, List<Double> means,
+                          List<Double> standardDeviations, List<String> aggregatorResults)
+            throws IOException {
+
         if (dataSetCount != means.size() || dataSetCount != standardDeviations.size()) {
             throw new IllegalArgumentException("The lists with the mean values and the standard deviations " +
                     "are expected to have " + dataSetCount + " values, but have " + means.size() + " and "
                     + standardDeviations.size() + " values, respectively.");
         }
 
-        String date = dateFormatter.format(timestamp);
-        String time = timeFormatter.format(timestamp);
+        if (rowWriter != null) {
+            rowWriter.write(rowPrinter -> printRow(rowPrinter, timestamp, key, count, means,
+                    standardDeviations, aggregatorResults));
+        } else {
+            printRow(printer, timestamp, key, count, means, standardDeviations, aggregatorResults);
+        }
+    }
 
-        if (delimiter == null) {
-            if (timeBeforeDate) {
-                printer.print(time);
-                printer.print(date);
-            } else {
-                printer.print(date);
-                printer.print(time);
-            }
+    private void printRow(CSVPrinter printer, Timestamp timestamp, String key, long count,
+                          List<Double> means, List<Double> standardDeviations, List<String> aggregatorResults)
+            throws IOException {
 
-        } else {
-            printer.print(date + delimiter + time);
+        printTimestamp(printer, timestamp);
+        if (key != null) {
+            printer.print(key);
         }
 
-        printer.print(count);
+        // numbers are formatted into the same builder, which is printed without being converted to a string
+        StringBuilder number = new StringBuilder(24);
+        number.append(count);
+        printer.print(number);
 
         Iterator<Double> meansIterator = means.iterator();
         Iterator<Double> standardDeviationsIterator = standardDeviations.iterator();
+        Iterator<String> aggregatorResultsIterator =
+                aggregatorResults != null ? aggregatorResults.iterator() : null;
 
         while (meansIterator.hasNext()) {   // while
-            printer.print(meansIterator.next());
-            printer.print(standardDeviationsIterator.next());
+            printNumber(printer, number, meansIterator.next());
+            printNumber(printer, number, standardDeviationsIterator.next());
+
+            if (aggregatorResultsIterator != null) {
+                for (int i = 0; i < aggregators.size(); i++) {
+                    printer.print(aggregatorResultsIterator.next());
+                }
+            }
+        }
+
+        printer.println();
+    }
+
+    /**
+     * Writes a gap marker into the output file: a row with the timestamp of the first period of a sequence
+     * of periods without records, count 0, and empty cells for every statistic. The end of the gap is
+     * given by the timestamp of the next row.
+     *
+     * @param timestamp the timestamp of the first period without records.
+     * @throws IOException if an IO error occurs.
+     * @throws IllegalStateException if the writer expects the rows to have a key.
+     */
+    public void writeGap(Timestamp timestamp) throws IOException {
+
+        if (keyed) {
+            throw new IllegalStateException("Each row is expected to have a key.");
+        }
+
+        if (rowWriter != null) {
+            rowWriter.write(rowPrinter -> printGap(rowPrinter, timestamp));
+        } else {
+            printGap(printer, timestamp);
+        }
+    }
+
+    private void printNumber(CSVPrinter printer, StringBuilder number, double value) throws IOException {
+        number.setLength(0);
+        doubleFormatter.appendTo(number, value);
+        printer.print(number);
+    }
+
+    private void printGap(CSVPrinter printer, Timestamp timestamp) throws IOException {
+
+        printTimestamp(printer, timestamp);
+        printer.print(0);
+
+        int cellCount = dataSetCount * (STATS_HEADERS.size() + aggregators.size());
+        for (int i = 0; i < cellCount; i++) {
+            printer.print("");
         }
 
         printer.println();
     }
 
     /**
-     * Closes the underlying printer.
+     * Writes the statistics of a period into the output file. Besides the mean and standard deviation of
+     * each data set, it writes the result of each aggregator configured for this writer. The statistics
+     * must have been computed with the aggregators returned by getAggregators(). If this writer has a
+     * matrix writer, the covariance matrix of the statistics is written to its own file.
+     *
+     * @param timestamp  the timestamp for the record.
+     * @param statistics the statistics computed for each data set, not null.
+     * @throws IOException if an IO error occurs.
+     * @throws IllegalArgumentException if the number of data sets in the statistics is different from the
+     * number of headers.
+     * @throws IllegalStateException if the writer expects the rows to have a key.
+     */
+    public void write(Timestamp timestamp, GroupStatistics statistics) throws IOException {
+
+        if (keyed) {
+            throw new IllegalStateException("Each row is expected to have a key.");
+        }
+
+        if (dataSetCount != statistics.getDataSetCount()) {
+            throw new IllegalArgumentException("The statistics are expected to have " + dataSetCount +
+                    " data sets, but have " + statistics.getDataSetCount() + " data sets.");
+        }
+
+        // the results are taken right away: the statistics are cleared once the period is written
+        List<String> aggregatorResults = new ArrayList<>(dataSetCount * aggregators.size());
+        for (int i = 0; i < dataSetCount; i++) {
+            for (Aggregator aggregator : statistics.getAggregators(i)) {
+                aggregatorResults.add(aggregator.getResult());
+            }
+        }
+
+        writeRow(timestamp, null, statistics.getCount(), statistics.getMeans(),
+                statistics.getStandardDeviations(), aggregatorResults);
+
+        if (matrixWriter != null && statistics.getCovarianceMatrix() != null) {
+            matrixWriter.write(timestamp, statistics.getCovarianceMatrix());
+        }
+    }
+
+    /**
+     * Returns the aggregators whose results are written for each data set, in addition to the mean and
+     * standard deviation. These are prototypes and never hold any values.
+     *
+     * @return the list with the aggregators, not null.
+     */
+    public List<Aggregator> getAggregators() {
+        return aggregators;
+    }
+
+    /**
+     * Returns the writer used to write the covariance matrix of each period to its own file.
+     *
+     * @return the matrix writer, or null if the covariance matrices are not written.
+     */
+    public MatrixFileWriter getMatrixWriter() {
+        return matrixWriter;
+    }
+
+    /**
+     * Returns the writer used to write the anomalous values found by the anomaly detectors.
+     *
+     * @return the anomaly writer, or null if the anomalous values are not written.
+     */
+    public AnomalyFileWriter getAnomalyWriter() {
+        return anomalyWriter;
+    }
+
+    /**
+     * Writes all rows written so far to the output and flushes it. When the rows are formatted by worker
+     * threads, waits for all rows to be formatted and written.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        Object flushEvent = FlightRecorderEvents.beginFlush();
+
+        if (rowWriter != null) {
+            rowWriter.flush();
+        } else {
+            printer.flush();
+        }
+
+        if (anomalyWriter != null) {
+            anomalyWriter.flush();
+        }
+
+        FlightRecorderEvents.commitFlush(flushEvent, false);
+    }
+
+    /**
+     * Closes the underlying printer and the anomaly writer, if there is one. When the rows are formatted
+     * by worker threads, waits for all rows to be written and stops the worker threads.
      *
      * @throws IOException if an IO error occurs.
      */
     @Override
     public void close() throws IOException {
-        printer.close();
+        Object flushEvent = FlightRecorderEvents.beginFlush();
+
+        try {
+            if (rowWriter != null) {
+                rowWriter.close();
+            }
+        } finally {
+            closePrinterAndAnomalyWriter();
+        }
+
+        FlightRecorderEvents.commitFlush(flushEvent, true);
+    }
+
+    private void closePrinterAndAnomalyWriter() throws IOException {
+        try {
+            printer.close();
+        } finally {
+            if (anomalyWriter != null) {
+                anomalyWriter.close();
+            }
+        }
+    }
+
+    private void printTimestamp(CSVPrinter printer, Timestamp timestamp) throws IOException {
+
+        if (epochUnit != null) {
+            printer.print(timestamp.toEpoch(epochUnit));
+            return;
+        }
+
+        String date = dateFormatter.format(timestamp);
+        String time = timeFormatter.format(timestamp);
+
+        if (delimiter == null) {
+            if (timeBeforeDate) {
+                printer.print(time);
+                printer.print(date);
+            } else {
+                printer.print(date);
+                printer.print(time);
+            }
+
+        } else {
+            printer.print(date + delimiter + time);
+        }
     }
 
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -150,8 +423,30 @@ public class DataFileWriter implements Closeable {
         return new Builder(writer);
     }
 
+    /**
+     * Starts building a data file writer for a file. The file is written through a file channel, in large
+     * blocks, with the default charset: the bytes written are the same as with a FileWriter.
+     *
+     * If the name of the file ends with '.gz', the file is compressed in gzip format while it is written,
+     * using one compression thread for each available processor (see ParallelGzipOutputStream).
+     *
+     * @param outputFile the file to write to, not null.
+     * @return the builder, not null.
+     * @throws IOException if the file can not be opened.
+     */
     public static Builder outputTo(File outputFile) throws IOException {
-        return new Builder(new FileWriter(outputFile));
+
+        if (outputFile.getName().endsWith(".gz")) {
+            OutputStream gzipOutput = new ParallelGzipOutputStream(new FileOutputStream(outputFile),
+                    Runtime.getRuntime().availableProcessors());
+
+            FlightRecorderEvents.fileOpened(outputFile, true);
+            return new Builder(new ChannelWriter(Channels.newChannel(gzipOutput), Charset.defaultCharset()));
+        }
+
+        Builder builder = new Builder(ChannelWriter.open(outputFile));
+        FlightRecorderEvents.fileOpened(outputFile, true);
+        return builder;
     }
 
     public static class Builder {
@@ -165,6 +460,14 @@ public class DataFileWriter implements Closeable {
         private boolean timeBeforeDate = false;
         private Headers headers = null; // if null the builder will be used
         private Headers.Builder headersBuilder = new Headers.Builder();
+        private List<Aggregator> aggregators = Collections.emptyList();
+        private MatrixFileWriter.Builder matrixWriterBuilder = null;   // null if matrices are not written
+        private Writer anomalyOutput = null;                            // null if anomalies are not written
+        private File anomalyFile = null;                                // null if not written to a file
+        private Unit epochUnit = null;                                  // null if timestamps are formatted
+        private int formattingThreadCount = 1;
+        private boolean pipelinedOutput = false;
+        private DoubleFormatter doubleFormatter = DoubleFormatter.shortest();
 
         private Builder(Writer writer) {
             this.writer = writer;
@@ -215,22 +518,159 @@ public class DataFileWriter implements Closeable {
             return this;
         }
 
+        public Builder withKeyHeader(String header) {
+            headersBuilder.keyHeader(header);
+            return this;
+        }
+
         public Builder withHeaders(Headers headers) {
             this.headers = headers;
             return this;
         }
 
+        public Builder withAggregators(Aggregator... aggregators) {
+            this.aggregators = Arrays.asList(aggregators);
+            return this;
+        }
+
+        public Builder withAggregators(List<Aggregator> aggregators) {
+            this.aggregators = aggregators;
+            return this;
+        }
+
+        public Builder withMatrixOutput(MatrixFileWriter.Builder matrixWriterBuilder) {
+            this.matrixWriterBuilder = matrixWriterBuilder;
+            return this;
+        }
+
+        /**
+         * Writes each value flagged by an AnomalyDetector aggregator to a side file, as it is found.
+         *
+         * @param anomalyOutput the writer used to write the side file, not null.
+         * @return this builder.
+         */
+        public Builder withAnomalyOutput(Writer anomalyOutput) {
+            this.anomalyOutput = anomalyOutput;
+            this.anomalyFile = null;
+            return this;
+        }
+
+        /**
+         * Writes each value flagged by an AnomalyDetector aggregator to a side file, as it is found. The
+         * file is only opened, and truncated, once the rest of the writer is built: if building fails, an
+         * existing file is left untouched.
+         *
+         * @param anomalyFile the side file, not null.
+         * @return this builder.
+         */
+        public Builder withAnomalyOutput(File anomalyFile) {
+            this.anomalyFile = anomalyFile;
+            this.anomalyOutput = null;
+            return this;
+        }
+
+        /**
+         * Writes the timestamps as integer epoch values (for instance, Unix time in seconds or
+         * milliseconds) in a single column, headed by the date header, instead of formatted dates and
+         * times. The date and time patterns are ignored.
+         *
+         * @param unit the unit of the epoch values: a unit with a fixed duration, such as SECONDS, MILLIS,
+         *             or MICROS.
+         * @return this builder.
+         * @throws IllegalArgumentException if the unit does not have a fixed duration.
+         */
+        public Builder withEpochTimestamp(Unit unit) {
+            if (unit.getBaseUnit().isDurationEstimated()) {
+                throw new IllegalArgumentException("Epoch values must be given in a unit with a fixed " +
+                        "duration, but got " + unit);
+            }
+
+            this.epochUnit = unit;
+            return this;
+        }
+
+        /**
+         * Formats the rows on worker threads. Rows are still written in the order they are given, and the
+         * output is the same as when they are formatted by the writing thread. The rows are only
+         * guaranteed to be in the output after the data file writer is closed.
+         *
+         * @param threadCount the number of worker threads, or 1 to format the rows on the writing thread.
+         * @return this builder.
+         * @throws IllegalArgumentException if the thread count is not positive.
+         */
+        public Builder withFormattingThreads(int threadCount) {
+            if (threadCount < 1) {
+                throw new IllegalArgumentException("The number of formatting threads must be positive, " +
+                        "but got " + threadCount);
+            }
+
+            this.formattingThreadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * Formats and writes the rows on their own threads, even with a single formatting thread, so the
+         * thread computing the statistics never waits for the output file. The rows are handed off in
+         * batches and the number of batches waiting to be written is bounded. The rows are only guaranteed
+         * to be in the output after the data file writer is closed.
+         *
+         * @return this builder.
+         */
+        public Builder withPipelinedOutput() {
+            this.pipelinedOutput = true;
+            return this;
+        }
+
+        /**
+         * Rounds the means and standard deviations to a maximum number of digits after the point, to shrink
+         * the output. By default, each value is written with the shortest decimal that converts back to the
+         * same value.
+         *
+         * @param precision the maximum number of digits after the point, between 0 and 17.
+         * @return this builder.
+         * @throws IllegalArgumentException if the precision is not between 0 and 17.
+         */
+        public Builder withFixedPrecision(int precision) {
+            this.doubleFormatter = DoubleFormatter.withFixedPrecision(precision);
+            return this;
+        }
+
         public DataFileWriter build() throws IOException {
 
             if (headers == null) {
                 headers = headersBuilder.build();
             }
 
-            return new DataFileWriter(writer,
-                    TimestampFormatter.ofPattern(datePattern),
-                    TimestampFormatter.ofPattern(timePattern),
-                    sameColumn ? delimiter : null,
-                    timeBeforeDate, headers);
+            MatrixFileWriter matrixWriter = null;
+            if (matrixWriterBuilder != null) {
+                matrixWriter = matrixWriterBuilder.withDataHeaders(headers.getDataHeaders()).build();
+            }
+
+            TimestampFormatter dateFormatter = TimestampFormatter.ofPattern(datePattern);
+            TimestampFormatter timeFormatter = TimestampFormatter.ofPattern(timePattern);
+
+            Writer anomalyOutput = anomalyFile != null
+                    ? new BufferedWriter(new FileWriter(anomalyFile))
+                    : this.anomalyOutput;
+
+            AnomalyFileWriter anomalyWriter = null;
+            if (anomalyOutput != null) {
+                anomalyWriter = new AnomalyFileWriter(anomalyOutput, headers.getDataHeaders());
+            }
+
+            try {
+                return new DataFileWriter(writer, dateFormatter, timeFormatter,
+                        sameColumn ? delimiter : null,
+                        timeBeforeDate, headers, aggregators, matrixWriter, anomalyWriter, epochUnit,
+                        formattingThreadCount, pipelinedOutput, doubleFormatter);
+
+            } catch (IOException | RuntimeException e) {
+                // the anomaly file was opened by this builder: do not leak it
+                if (anomalyFile != null) {
+                    anomalyOutput.close();
+                }
+                throw e;
+            }
         }
 
     }
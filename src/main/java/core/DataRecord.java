@@ -11,7 +11,9 @@ import java.util.List;
 public class DataRecord {
 
     private Timestamp timestamp;
+    private String key;     // null if the records are not grouped by key
     private List<Double> dataValues;
+    private long recordNumber;  // 0 if the record was not read from a file
 
     /**
      * Creates a data record associated with a timestamp and with a sequence of data values.
@@ -21,8 +23,35 @@ public class DataRecord {
      * @param dataValues data values for the record.
      */
     public DataRecord(Timestamp timestamp, List<Double> dataValues) {
+        this(timestamp, null, dataValues);
+    }
+
+    /**
+     * Creates a data record associated with a timestamp, a key, and with a sequence of data values. The key
+     * identifies the group the record belongs to (for instance, the device that recorded the values).
+     *
+     * @param timestamp  timestamp to associate with the record.
+     * @param key        key of the group the record belongs to, or null if the records are not grouped.
+     * @param dataValues data values for the record.
+     */
+    public DataRecord(Timestamp timestamp, String key, List<Double> dataValues) {
+        this(timestamp, key, dataValues, 0);
+    }
+
+    /**
+     * Creates a data record read from a file. Specifies the number of the record in the file, which is
+     * used to report on the record. The record number is not considered when comparing records.
+     *
+     * @param timestamp    timestamp to associate with the record.
+     * @param key          key of the group the record belongs to, or null if the records are not grouped.
+     * @param dataValues   data values for the record.
+     * @param recordNumber the number of the record in the file.
+     */
+    public DataRecord(Timestamp timestamp, String key, List<Double> dataValues, long recordNumber) {
         this.timestamp = timestamp;
+        this.key = key;
         this.dataValues = dataValues;
+        this.recordNumber = recordNumber;
     }
 
     /**
@@ -46,6 +75,15 @@ public class DataRecord {
         return timestamp;
     }
 
+    /**
+     * Returns the key of the group this record belongs to.
+     *
+     * @return the key of the group this record belongs to, or null if the records are not grouped by key.
+     */
+    public String getKey() {
+        return key;
+    }
+
     /**
      * Returns a list containing the data values in this record. The values are returned in the list in the
      * same order they appear on the file.
@@ -56,6 +94,15 @@ public class DataRecord {
         return dataValues;
     }
 
+    /**
+     * Returns the number of the record in the file it was read from.
+     *
+     * @return the number of the record, or 0 if the record was not read from a file.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -64,19 +111,21 @@ public class DataRecord {
         DataRecord that = (DataRecord) o;
 
         if (timestamp != null ? !timestamp.equals(that.timestamp) : that.timestamp != null) return false;
+        if (key != null ? !key.equals(that.key) : that.key != null) return false;
         return dataValues != null ? dataValues.equals(that.dataValues) : that.dataValues == null;
     }
 
     @Override
     public int hashCode() {
         int result = timestamp != null ? timestamp.hashCode() : 0;
+        result = 31 * result + (key != null ? key.hashCode() : 0);
         result = 31 * result + (dataValues != null ? dataValues.hashCode() : 0);
         return result;
     }
 
     @Override
     public String toString() {
-        return "Record(" + timestamp + ", " + dataValues + ")";
+        return "Record(" + timestamp + (key != null ? ", " + key : "") + ", " + dataValues + ")";
     }
 
 }
@@ -17,28 +17,33 @@ public class DataRecordReader implements Closeable {
     private final RecordParser parser;
     private final int dateColumn;
     private final int timeColumn;
+    private final int keyColumn;    // negative if the records are not grouped by key
     private final Set<Integer> ignoredColumns;
-    private final TimestampFormatter formatter;
+    private final TimestampFormatter formatter;   // null if the timestamps are epoch values
+    private final Unit epochUnit;                   // null if the timestamps are formatted
 
     /**
      * Creates a new data record reader. Specifies the underlying record parser to be used.
      *
      * @param parser the record parser used to parse the file, the null.
      */
-    private DataRecordReader(RecordParser parser, int dateColumn, int timeColumn, Set<Integer> ignoredColumns,
-                             TimestampFormatter timestampFormatter) {
+    private DataRecordReader(RecordParser parser, int dateColumn, int timeColumn, int keyColumn,
+                             Set<Integer> ignoredColumns, TimestampFormatter timestampFormatter,
+                             Unit epochUnit) {
         this.parser = parser;
         this.dateColumn = dateColumn;
         this.timeColumn = timeColumn;
+        this.keyColumn = keyColumn;
         this.ignoredColumns = ignoredColumns;
         this.formatter = timestampFormatter;
+        this.epochUnit = epochUnit;
     }
 
     /**
      * Reads the next data record from the file. If the file has not more records then it return null.
      *
      * @return the next data record, or null if there is no more records in the file.
-     * @throws ParseException
+     * @throws RecordParseException if the record is not valid, with the number of the record.
      * @throws DateTimeParseException if the date/time formats are invalid.
      */
     public DataRecord read() throws ParseException {
@@ -51,11 +56,40 @@ public class DataRecordReader implements Closeable {
         // check if the record contains enough values - see documentation for the getMinimumRecordSize()
         int minimumRecordSize = getMinimumRecordSize();
         if (record.size() < minimumRecordSize) {
-            throw new ParseException("Row is required to have at least " + minimumRecordSize +
+            throw new RecordParseException("Row is required to have at least " + minimumRecordSize +
                     " columns, but only has " + record.size() + ".",
                     record.getRecordNumber());
         }
 
+        Timestamp timestamp = epochUnit != null ? readEpochTimestamp(record) : readTimestamp(record);
+
+        String key = keyColumn >= 0 ? record.get(keyColumn) : null;
+
+        // Build a list with each value that does not correspond to an ignored column (date, time, and key
+        // are also ignored) - values are parsed into doubles
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < record.size(); i++) {
+
+            // Don't need to check date, time, and key columns because the ignored columns set
+            // already includes the date, time, and key columns
+            if (!ignoredColumns.contains(i)) {  // exclude ignored columns
+
+                try {
+                    values.add(Double.parseDouble(record.get(i)));
+
+                } catch (NumberFormatException e) {
+                    throw new RecordParseException("Expected a number in column " + (i + 1) + ", but got '" +
+                            record.get(i) + "' instead.", record.getRecordNumber());
+                }
+            }
+        }
+
+        return new DataRecord(timestamp, key, values, record.getRecordNumber());
+
+    }
+
+    private Timestamp readTimestamp(Record record) throws ParseException {
+
         String timestampString;
         if (dateColumn != timeColumn) {
             timestampString = record.get(dateColumn) + Delimiter.DEFAULT + record.get(timeColumn);
@@ -63,36 +97,50 @@ public class DataRecordReader implements Closeable {
             timestampString = record.get(dateColumn);
         }
 
-        Timestamp timestamp;
         try {
-            timestamp = formatter.parse(timestampString);
+            return formatter.parse(timestampString);
 
         } catch (DateTimeParseException e) {
-            throw new ParseException("Date/time format is not valid: '" + timestampString + "'.",
+            throw new RecordParseException("Date/time format is not valid: '" + timestampString + "'.",
                     record.getRecordNumber());
         }
+    }
 
-        // Build a list with each value that does not correspond to an ignored column (date and time are
-        // also ignored) - values are parsed into doubles
-        List<Double> values = new ArrayList<>();
-        for (int i = 0; i < record.size(); i++) {
+    /**
+     * Reads an epoch timestamp. The value is parsed as an integer and converted directly, without going
+     * through a date/time formatter.
+     */
+    private Timestamp readEpochTimestamp(Record record) throws ParseException {
 
-            // Don't need to check date and time columns because the ignored columns set
-            // already includes the date and time columns
-            if (!ignoredColumns.contains(i)) {  // exclude ignored columns
+        String epochString = record.get(dateColumn);
 
-                try {
-                    values.add(Double.parseDouble(record.get(i)));
+        try {
+            return Timestamp.ofEpoch(Long.parseLong(epochString), epochUnit);
 
-                } catch (NumberFormatException e) {
-                    throw new ParseException("Expected a number in column " + (i + 1) + ", but got '" +
-                            record.get(i) + "' instead.", record.getRecordNumber());
-                }
-            }
+        } catch (NumberFormatException | ArithmeticException | DateTimeException e) {
+            throw new RecordParseException("Epoch timestamp is not valid: '" + epochString + "'.",
+                    record.getRecordNumber());
         }
+    }
 
-        return new DataRecord(timestamp, values);
+    /**
+     * Returns the number of bytes read from the data file so far.
+     *
+     * @return the number of bytes read, or -1 if the bytes read are not known because the underlying
+     * record parser reads from a reader instead of a file.
+     */
+    public long getBytesRead() {
+        return parser.getBytesRead();
+    }
 
+    /**
+     * Returns the size of the data file, to compare with the bytes read.
+     *
+     * @return the size of the data file in bytes, or -1 if the size is not known because the underlying
+     * record parser reads from a reader instead of a file.
+     */
+    public long getInputSize() {
+        return parser.getInputSize();
     }
 
     /**
@@ -106,16 +154,24 @@ public class DataRecordReader implements Closeable {
     }
 
     /**
-     * The minimum record size corresponds to having the date and time value(s) and at least one data value.
+     * The minimum record size corresponds to having the date and time value(s), the key value (if the
+     * records are grouped by key), and at least one data value.
      *
      * @return the minimum record size.
      */
     private int getMinimumRecordSize() {
+        int minimumSize;
         if (dateColumn == timeColumn) {
-            return Math.max(dateColumn + 1, 2);
+            minimumSize = Math.max(dateColumn + 1, 2);
         } else {
-            return Math.max(3, Math.max(dateColumn + 1, timeColumn + 1));
+            minimumSize = Math.max(3, Math.max(dateColumn + 1, timeColumn + 1));
         }
+
+        if (keyColumn >= 0) {
+            minimumSize = Math.max(minimumSize + 1, keyColumn + 1);
+        }
+
+        return minimumSize;
     }
 
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -148,11 +204,13 @@ public class DataRecordReader implements Closeable {
 
         private int dateColumn = 0;
         private int timeColumn = 1;
+        private int keyColumn = -1;                         // negative if the records are not grouped by key
         private Set<Integer> ignoredColumns = new HashSet<>();
         private String datePattern = "dd/MM/uuuu";
         private String timePattern = "HH:mm:ss";
         private Delimiter delimiter = Delimiter.DEFAULT;    // delimiter for the date and time patterns
         private boolean timeBeforeDate = false;             // indicates if the time comes before the date
+        private Unit epochUnit = null;                      // null if the timestamps are formatted
 
         // use factory method
         private Builder(File file) {
@@ -181,6 +239,40 @@ public class DataRecordReader implements Closeable {
             return this;
         }
 
+        /**
+         * Reads the timestamps as integer epoch values (for instance, Unix time in seconds or milliseconds)
+         * from the specified column, instead of parsing formatted dates and times. The date and time
+         * patterns are ignored.
+         *
+         * @param column the column with the epoch values (columns start at 0).
+         * @param unit   the unit of the epoch values: a unit with a fixed duration, such as SECONDS,
+         *               MILLIS, or MICROS.
+         * @return this builder.
+         * @throws IllegalArgumentException if the unit does not have a fixed duration.
+         */
+        public Builder withEpochTimestampInColumn(int column, Unit unit) {
+            if (unit.getBaseUnit().isDurationEstimated()) {
+                throw new IllegalArgumentException("Epoch values must be given in a unit with a fixed " +
+                        "duration, but got " + unit);
+            }
+
+            withDateAndTimeInColumn(column);
+            epochUnit = unit;
+            return this;
+        }
+
+        /**
+         * Groups the records by the value in the specified column. The statistics are computed for each
+         * key in each period. The key column is not a data column.
+         *
+         * @param column the column with the keys (columns start at 0).
+         * @return this builder.
+         */
+        public Builder withKeyInColumn(int column) {
+            keyColumn = column;
+            return this;
+        }
+
         public Builder withDatePattern(String pattern) {
             datePattern = pattern;
             return this;
@@ -239,13 +331,21 @@ public class DataRecordReader implements Closeable {
                 timestampPattern = datePattern + Delimiter.DEFAULT + timePattern;
             }
 
-            // ensure the date and time columns are included in the ignored columns
+            // ensure the date, time, and key columns are included in the ignored columns
             ignoredColumns.add(dateColumn);
             ignoredColumns.add(timeColumn);
+            if (keyColumn >= 0) {
+                ignoredColumns.add(keyColumn);
+            }
 
             RecordParser recordParser = parser != null ? parser : new RecordParser(file);
-            return new DataRecordReader(recordParser, dateColumn, timeColumn, ignoredColumns,
-                    TimestampFormatter.ofPattern(timestampPattern));
+            TimestampFormatter formatter = null;
+            if (epochUnit == null) {
+                formatter = TimestampFormatter.ofPattern(timestampPattern);
+            }
+
+            return new DataRecordReader(recordParser, dateColumn, timeColumn, keyColumn, ignoredColumns,
+                    formatter, epochUnit);
         }
 
     }
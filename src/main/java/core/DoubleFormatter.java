@@ -0,0 +1,382 @@
+package core;
+
+import java.math.BigInteger;
+
+/**
+ * Formats doubles into the shortest decimal that converts back to the same double (round-trip). The
+ * shortest decimal is found with the Schubfach algorithm (R. Giulietti, "The Schubfach way to render
+ * doubles"), using only integer arithmetic and without creating any objects, and it is appended directly to
+ * a StringBuilder. The layout is the same as Double.toString: plain notation for values between 10^-3
+ * (included) and 10^7 (excluded), computerized scientific notation otherwise, and always at least one digit
+ * after the point. Unlike the Double.toString of Java 8, which sometimes outputs more digits than needed, the
+ * result is always the shortest.
+ *
+ * A fixed precision can be set to shrink the output: the shortest decimal is then rounded (half up) to a
+ * maximum number of digits after the point. Those values do not convert back to the same doubles.
+ */
+public final class DoubleFormatter {
+
+    private static final DoubleFormatter SHORTEST = new DoubleFormatter(-1);
+
+    private static final int MAX_FIXED_PRECISION = 17;
+
+    // binary64 format constants
+    private static final int P = 53;                        // precision, including the hidden bit
+    private static final int W = 11;                        // exponent width
+    private static final int Q_MIN = -1074;                 // minimum exponent of the significand
+    private static final int Q_MAX = 971;                   // maximum exponent of the significand
+    private static final long C_MIN = 1L << (P - 1);        // minimum normal significand
+    private static final int BQ_MASK = (1 << W) - 1;
+    private static final long T_MASK = (1L << (P - 1)) - 1;
+    private static final long C_TINY = 3;                   // subnormals below this are scaled by 10
+
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    // powers of ten for the 128-bit multiplications: g = floor(10^e * 2^-r) + 1, with r such that g has
+    // 126 bits, split into the upper 63 bits (g1) and the lower 63 bits (g0)
+    private static final int E_MIN = -flog10pow2(Q_MAX) - 1;
+    private static final int E_MAX = -flog10pow2(Q_MIN) + 1;
+    private static final long[] G1 = new long[E_MAX - E_MIN + 1];
+    private static final long[] G0 = new long[E_MAX - E_MIN + 1];
+
+    static {
+        BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+
+        for (int e = E_MIN; e <= E_MAX; e++) {
+            int r = flog2pow10(e) - 125;
+
+            BigInteger numerator = BigInteger.ONE;
+            BigInteger denominator = BigInteger.ONE;
+            if (e >= 0) {
+                numerator = BigInteger.TEN.pow(e);
+            } else {
+                denominator = BigInteger.TEN.pow(-e);
+            }
+
+            if (r >= 0) {
+                denominator = denominator.shiftLeft(r);
+            } else {
+                numerator = numerator.shiftLeft(-r);
+            }
+
+            BigInteger g = numerator.divide(denominator).add(BigInteger.ONE);
+            G1[e - E_MIN] = g.shiftRight(63).longValue();
+            G0[e - E_MIN] = g.and(mask63).longValue();
+        }
+    }
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int precision;    // maximum number of digits after the point, negative for the shortest
+
+    private DoubleFormatter(int precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Returns a formatter that outputs the shortest decimal that converts back to the same double.
+     *
+     * @return the formatter, not null.
+     */
+    public static DoubleFormatter shortest() {
+        return SHORTEST;
+    }
+
+    /**
+     * Returns a formatter that outputs the shortest decimal rounded to a maximum number of digits after the
+     * point. Values of 10^7 or more, which are in scientific notation, are not rounded.
+     *
+     * @param precision the maximum number of digits after the point, between 0 and 17.
+     * @return the formatter, not null.
+     * @throws IllegalArgumentException if the precision is not between 0 and 17.
+     */
+    public static DoubleFormatter withFixedPrecision(int precision) {
+        if (precision < 0 || precision > MAX_FIXED_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between 0 and " + MAX_FIXED_PRECISION +
+                    ", but got " + precision);
+        }
+
+        return new DoubleFormatter(precision);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Formats a double into a string.
+     *
+     * @param value the value to format.
+     * @return the formatted value, not null.
+     */
+    public String format(double value) {
+        StringBuilder builder = new StringBuilder(24);
+        appendTo(builder, value);
+        return builder.toString();
+    }
+
+    /**
+     * Appends a formatted double to a string builder. Does not create any objects, unless the builder has
+     * to grow.
+     *
+     * @param builder the builder to append to, not null.
+     * @param value   the value to format.
+     */
+    public void appendTo(StringBuilder builder, double value) {
+
+        long bits = Double.doubleToRawLongBits(value);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+
+        if (bq == BQ_MASK) {
+            builder.append(t != 0 ? "NaN" : bits > 0 ? "Infinity" : "-Infinity");
+            return;
+        }
+
+        if (bits < 0) {
+            builder.append('-');
+        }
+
+        if (bq == 0 && t == 0) {
+            builder.append("0.0");
+            return;
+        }
+
+        if (bq != 0) {
+            // normal value: the value is c * 2^q
+            int q = bq - 1075;
+            long c = C_MIN | t;
+
+            // fast path for integers below 2^53
+            if (0 < -q && -q < P) {
+                long f = c >> -q;
+                if (f << -q == c) {
+                    appendDecimal(builder, f, 0);
+                    return;
+                }
+            }
+
+            toDecimal(builder, q, c, 0);
+
+        } else if (t < C_TINY) {
+            // scale tiny subnormals, otherwise they do not have enough digits for the algorithm
+            toDecimal(builder, Q_MIN, 10 * t, -1);
+
+        } else {
+            toDecimal(builder, Q_MIN, t, 0);
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Finds the shortest decimal in the rounding interval of the (positive) value c * 2^q and appends it.
+     */
+    private void toDecimal(StringBuilder builder, int q, long c, int dk) {
+
+        int out = (int) c & 0x1;    // the bounds of the rounding interval are included if c is even
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // the interval is not symmetric for powers of two
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G1[-k - E_MIN];
+        long g0 = G0[-k - E_MIN];
+
+        // the value and the bounds of its rounding interval, times 4 * 10^-k
+        long vb = roundToOdd(g1, g0, cb << h);
+        long vbl = roundToOdd(g1, g0, cbl << h);
+        long vbr = roundToOdd(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // try one digit less
+            long sp10 = 10 * (s / 10);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+
+            if (upin != wpin) {
+                appendDecimal(builder, upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+
+        if (uin != win) {
+            appendDecimal(builder, uin ? s : t, k + dk);
+            return;
+        }
+
+        // both s and t are in the interval: choose the closest to the value, or the even one on ties
+        long cmp = vb - ((s + t) << 1);
+        appendDecimal(builder, cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+    }
+
+    /**
+     * Appends the decimal f * 10^e, with the same layout as Double.toString.
+     */
+    private void appendDecimal(StringBuilder builder, long f, int e) {
+
+        // remove trailing zeros
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+
+        int digitCount = digitCount(f);
+        int exponent = digitCount + e - 1;  // exponent in scientific notation
+
+        if (precision >= 0 && -e > precision && exponent < 7) {
+            // round half up to the precision: values with all digits far below the precision round to 0
+            int droppedDigitCount = -e - precision;
+            if (droppedDigitCount > digitCount) {
+                f = 0;
+            } else {
+                long divisor = POWERS_OF_TEN[droppedDigitCount];
+                long remainder = f % divisor;
+                f = f / divisor + (remainder * 2 >= divisor ? 1 : 0);
+            }
+            e = -precision;
+
+            if (f == 0) {
+                builder.append("0.0");
+                return;
+            }
+
+            appendDecimal(builder, f, e);
+            return;
+        }
+
+        if (exponent < -3 || exponent >= 7) {
+            appendScientific(builder, f, digitCount, exponent);
+            return;
+        }
+
+        int start = builder.length();
+        if (e >= 0) {
+            // integer: digits, zeros, and '.0'
+            builder.append(f);
+            for (int i = 0; i < e; i++) {
+                builder.append('0');
+            }
+            builder.append(".0");
+
+        } else if (exponent >= 0) {
+            // the point is between the digits
+            builder.append(f);
+            builder.insert(start + exponent + 1, '.');
+
+        } else {
+            // the value is below 1
+            builder.append("0.");
+            for (int i = exponent + 1; i < 0; i++) {
+                builder.append('0');
+            }
+            builder.append(f);
+        }
+    }
+
+    private static void appendScientific(StringBuilder builder, long f, int digitCount, int exponent) {
+        int start = builder.length();
+
+        builder.append(f);
+        if (digitCount == 1) {
+            builder.append(".0");
+        } else {
+            builder.insert(start + 1, '.');
+        }
+
+        builder.append('E').append(exponent);
+    }
+
+    private static int digitCount(long f) {
+        int count = 1;
+        while (count < POWERS_OF_TEN.length && f >= POWERS_OF_TEN[count]) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns floor((g * cp) / 2^127), with the least significant bit set if the division is not exact,
+     * where g = g1 * 2^63 + g0.
+     */
+    private static long roundToOdd(long g1, long g0, long cp) {
+        long x1 = multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Returns the upper 64 bits of the 128-bit product of two longs (Math.multiplyHigh is only available
+     * from Java 9 onwards).
+     */
+    private static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * Returns floor(e * log10(2)), for |e| <= 5456721.
+     */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    /**
+     * Returns floor(log10(3/4 * 2^e)), for |e| <= 5456721.
+     */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    /**
+     * Returns floor(e * log2(10)), for |e| <= 1838394.
+     */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+}
@@ -1,13 +1,11 @@
 package core;
 
-import java.text.ParseException;
-
 /**
  * Thrown when an empty record is read.
  */
-public class EmptyRecordException extends ParseException {
+public class EmptyRecordException extends RecordParseException {
 
-    public EmptyRecordException(String message, int lineNumber) {
+    public EmptyRecordException(String message, long lineNumber) {
         super(message, lineNumber);
     }
 }
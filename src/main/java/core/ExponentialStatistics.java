@@ -0,0 +1,157 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ExponentialStatistics computes exponentially weighted moving (EWMA) means and standard deviations for
+ * multiple sets of data. Unlike the GroupStatistics, it keeps memory across periods: every value ever added
+ * contributes to the statistics, with a weight that decays exponentially with the time elapsed since it was
+ * added. After one half-life, a value weighs half as much as a value added right now.
+ *
+ * The decay is based on the time between the timestamps of the entries, so irregularly sampled data is
+ * weighted correctly. The state is a single weight plus a mean and a sum of squared deviations per data set.
+ */
+public class ExponentialStatistics {
+
+    private final int dataSetCount;
+    private final double timeConstant;  // in seconds: half-life / ln(2)
+
+    private Timestamp lastTimestamp = null;
+    private double weight = 0;
+    private final double[] means;
+    private final double[] squaredDeviations;
+
+    private long count = 0;     // entries added since the last count reset
+
+    /**
+     * Creates an ExponentialStatistics with a specified number of data sets and half-life.
+     *
+     * @param dataSetCount the number of different data sets to compute for.
+     * @param halfLife     the time after which the weight of a value is halved, not null. Months and years
+     *                     are converted to seconds using their average length.
+     * @throws IllegalArgumentException if the half-life is not positive.
+     */
+    public ExponentialStatistics(int dataSetCount, Period halfLife) {
+
+        if (halfLife.getLength() <= 0) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+
+        double halfLifeSeconds = halfLife.getLength() *
+                (halfLife.getUnit().getBaseUnit().getDuration().toNanos() / 1e9);
+
+        this.dataSetCount = dataSetCount;
+        this.timeConstant = halfLifeSeconds / Math.log(2);
+        this.means = new double[dataSetCount];
+        this.squaredDeviations = new double[dataSetCount];
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Adds a new entry of values for each data set. The input values must be always in the same order.
+     * The weight of all previous entries decays according to the time since the previous entry. Entries
+     * with the same timestamp as (or that predate) the previous entry do not decay previous entries.
+     *
+     * @param timestamp the timestamp of the entry, not null.
+     * @param values    the list with the values for each data set, not null.
+     * @throws IllegalArgumentException if the number of values is different from the number of data sets.
+     */
+    public void addEntry(Timestamp timestamp, List<Double> values) {
+
+        if (values.size() != dataSetCount) {
+            throw new IllegalArgumentException("Exponential statistics expected " + dataSetCount + " " +
+                    "items but got " + values.size());
+        }
+
+        double decay = 1.0;
+        if (lastTimestamp != null) {
+            double elapsedSeconds = lastTimestamp.secondsUntil(timestamp);
+            if (elapsedSeconds > 0) {
+                decay = Math.exp(-elapsedSeconds / timeConstant);
+                lastTimestamp = timestamp;
+            }
+
+        } else {
+            lastTimestamp = timestamp;
+        }
+
+        // weighted incremental update (West, 1979): the new value has weight 1
+        weight = weight * decay + 1.0;
+        for (int i = 0; i < dataSetCount; i++) {
+            double value = values.get(i);
+            double deviation = value - means[i];
+
+            means[i] += deviation / weight;
+            squaredDeviations[i] = squaredDeviations[i] * decay + deviation * (value - means[i]);
+        }
+
+        count++;
+    }
+
+    /**
+     * Returns the number of entries added since the last count reset.
+     *
+     * @return the number of entries added since the last count reset.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns a list with the exponentially weighted means for each data set. The means are NaN if no entry
+     * was ever added.
+     *
+     * @return the list with the means for each data set, not null.
+     */
+    public List<Double> getMeans() {
+        List<Double> weightedMeans = new ArrayList<>(dataSetCount);
+        for (int i = 0; i < dataSetCount; i++) {
+            weightedMeans.add(lastTimestamp == null ? Double.NaN : means[i]);
+        }
+
+        return weightedMeans;
+    }
+
+    /**
+     * Returns a list with the exponentially weighted standard deviations for each data set. The standard
+     * deviations are NaN if no entry was ever added.
+     *
+     * @return the list with the standard deviations for each data set, not null.
+     */
+    public List<Double> getStandardDeviations() {
+        List<Double> standardDeviations = new ArrayList<>(dataSetCount);
+        for (int i = 0; i < dataSetCount; i++) {
+            standardDeviations.add(lastTimestamp == null ? Double.NaN :
+                    Math.sqrt(Math.max(0.0, squaredDeviations[i] / weight)));
+        }
+
+        return standardDeviations;
+    }
+
+    /**
+     * Resets the count of entries, used to count the entries of each period. Unlike the clear() method of
+     * the GroupStatistics, the weighted statistics are kept.
+     */
+    public void resetCount() {
+        count = 0;
+    }
+
+    /**
+     * Clears all statistics, including the weighted statistics.
+     */
+    public void clear() {
+        lastTimestamp = null;
+        weight = 0;
+        count = 0;
+        Arrays.fill(means, 0.0);
+        Arrays.fill(squaredDeviations, 0.0);
+    }
+
+}
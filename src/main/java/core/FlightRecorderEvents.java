@@ -0,0 +1,119 @@
+package core;
+
+import java.io.File;
+
+/**
+ * Emits the events of statzy to the JDK Flight Recorder (JFR), so recordings show the stages of statzy
+ * next to the GC and IO events of the JVM: files opened, batches of records parsed, periods finalized,
+ * and output flushed. The events are in the 'Statzy' category of the recordings.
+ *
+ * The events are only created when the JVM has the flight recorder API (jdk.jfr, available in Java 8
+ * from update 262 onwards), so statzy still runs on older JVMs. The event classes are only loaded through
+ * JfrEvents, after checking that the API is available, and only once the flight recorder was started:
+ * registering the event classes starts up the flight recorder, which would slow down the start of every
+ * run. When an event is not enabled in the recording, or nothing is being recorded, the cost is a check
+ * per event and no event is committed.
+ *
+ * Events that span some work are started with a begin method, which returns an opaque token, and are
+ * committed with the matching commit method. The token is null when the event is not recorded.
+ */
+final class FlightRecorderEvents {
+
+    private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Emits a file opened event.
+     *
+     * @param file   the file opened, not null.
+     * @param output true if the file was opened for writing.
+     */
+    static void fileOpened(File file, boolean output) {
+        if (isRecorderStarted()) {
+            JfrEvents.fileOpened(file, output);
+        }
+    }
+
+    /**
+     * Starts a batch parsed event.
+     *
+     * @return the token of the event, or null if the event is not recorded.
+     */
+    static Object beginBatch() {
+        return isRecorderStarted() ? JfrEvents.beginBatch() : null;
+    }
+
+    /**
+     * Commits a batch parsed event.
+     *
+     * @param token       the token returned by beginBatch, may be null.
+     * @param recordCount the number of records parsed in the batch.
+     * @param bytesRead   the number of bytes read from the file so far, or -1 if not known.
+     */
+    static void commitBatch(Object token, int recordCount, long bytesRead) {
+        if (token != null) {
+            JfrEvents.commitBatch(token, recordCount, bytesRead);
+        }
+    }
+
+    /**
+     * Starts a period finalized event, when a period starts being processed.
+     *
+     * @return the token of the event, or null if the event is not recorded.
+     */
+    static Object beginPeriod() {
+        return isRecorderStarted() ? JfrEvents.beginPeriod() : null;
+    }
+
+    /**
+     * Commits a period finalized event, once the rows of the period are written.
+     *
+     * @param token       the token returned by beginPeriod, may be null.
+     * @param period      the lower-bound of the period, not null.
+     * @param recordCount the number of records in the period.
+     * @param rowCount    the number of rows written for the period.
+     */
+    static void commitPeriod(Object token, Timestamp period, long recordCount, long rowCount) {
+        if (token != null) {
+            JfrEvents.commitPeriod(token, period, recordCount, rowCount);
+        }
+    }
+
+    /**
+     * Starts an output flushed event.
+     *
+     * @return the token of the event, or null if the event is not recorded.
+     */
+    static Object beginFlush() {
+        return isRecorderStarted() ? JfrEvents.beginFlush() : null;
+    }
+
+    /**
+     * Commits an output flushed event.
+     *
+     * @param token   the token returned by beginFlush, may be null.
+     * @param closing true if the output was flushed to be closed.
+     */
+    static void commitFlush(Object token, boolean closing) {
+        if (token != null) {
+            JfrEvents.commitFlush(token, closing);
+        }
+    }
+
+    private static boolean isRecorderStarted() {
+        return AVAILABLE && JfrEvents.isRecorderStarted();
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package core;
+
+/**
+ * Defines what is output for the periods without any records, between two periods with records.
+ */
+public enum GapPolicy {
+
+    /**
+     * Outputs a row for each empty period, with count 0 and NaN statistics.
+     */
+    EMPTY_ROWS,
+
+    /**
+     * Outputs a single marker row for each sequence of empty periods, with the timestamp of the first empty
+     * period, count 0, and empty statistics.
+     */
+    MARKER,
+
+    /**
+     * Does not output any row for empty periods.
+     */
+    SKIP
+
+}
@@ -3,6 +3,7 @@ package core;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,6 +18,8 @@ import java.util.stream.Collectors;
 public class GroupStatistics {
 
     private final List<SummaryStatistics> itemsStatistics;
+    private final List<List<Aggregator>> itemsAggregators;
+    private final CovarianceMatrix covarianceMatrix;    // null if covariance is not computed
 
     /**
      * Creates a GroupStatistics with a specified number of data sets.
@@ -24,11 +27,42 @@ public class GroupStatistics {
      * @param dataSetCount the number of different data sets to compute for.
      */
     public GroupStatistics(int dataSetCount) {
+        this(dataSetCount, Collections.emptyList(), false);
+    }
+
+    /**
+     * Creates a GroupStatistics with a specified number of data sets, which computes the statistics of the
+     * given aggregators for each data set, in addition to the mean and standard deviation. The given
+     * aggregators are used as prototypes: each data set gets its own empty copy of each of them.
+     *
+     * @param dataSetCount the number of different data sets to compute for.
+     * @param aggregators  the prototypes of the aggregators to compute for each data set, not null.
+     */
+    public GroupStatistics(int dataSetCount, List<Aggregator> aggregators) {
+        this(dataSetCount, aggregators, false);
+    }
+
+    /**
+     * Creates a GroupStatistics with a specified number of data sets, which computes the statistics of the
+     * given aggregators for each data set and, optionally, the covariance matrix between all data sets.
+     *
+     * @param dataSetCount the number of different data sets to compute for.
+     * @param aggregators  the prototypes of the aggregators to compute for each data set, not null.
+     * @param covariance   true to compute the covariance matrix, and false if otherwise.
+     */
+    public GroupStatistics(int dataSetCount, List<Aggregator> aggregators, boolean covariance) {
         itemsStatistics = new ArrayList<>(dataSetCount);
+        itemsAggregators = new ArrayList<>(dataSetCount);
 
         for (int i = 0; i < dataSetCount; i++) {
             itemsStatistics.add(new SummaryStatistics());
+
+            List<Aggregator> dataSetAggregators = new ArrayList<>(aggregators.size());
+            aggregators.forEach(aggregator -> dataSetAggregators.add(aggregator.emptyCopy()));
+            itemsAggregators.add(dataSetAggregators);
         }
+
+        covarianceMatrix = covariance ? new CovarianceMatrix(dataSetCount) : null;
     }
 
     /**
@@ -44,7 +78,18 @@ public class GroupStatistics {
         }
 
         for (int i = 0; i < values.size(); i++) {
-            itemsStatistics.get(i).addValue(values.get(i)); // there is not ned to check the get method call!
+            double value = values.get(i);   // there is not ned to check the get method call!
+            itemsStatistics.get(i).addValue(value);
+
+            // indexed loop: an iterator for each value would be the only allocation of this method
+            List<Aggregator> aggregators = itemsAggregators.get(i);
+            for (int j = 0; j < aggregators.size(); j++) {
+                aggregators.get(j).addValue(value);
+            }
+        }
+
+        if (covarianceMatrix != null) {
+            covarianceMatrix.addEntry(values);
         }
 
     }
@@ -82,11 +127,55 @@ public class GroupStatistics {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns the number of data sets.
+     *
+     * @return the number of data sets.
+     */
+    public int getDataSetCount() {
+        return itemsStatistics.size();
+    }
+
+    /**
+     * Checks if any aggregator is computed in addition to the mean and standard deviation.
+     *
+     * @return true if the statistics include aggregators, and false if otherwise.
+     */
+    public boolean hasAggregators() {
+        return !itemsAggregators.isEmpty() && !itemsAggregators.get(0).isEmpty();
+    }
+
+    /**
+     * Returns the aggregators of a data set. The aggregators are in the same order as the prototypes
+     * given when the GroupStatistics was created.
+     *
+     * @param dataSet the index of the data set.
+     * @return the list with the aggregators of the data set, not null.
+     * @throws IndexOutOfBoundsException if the data set index is out of range.
+     */
+    public List<Aggregator> getAggregators(int dataSet) {
+        return itemsAggregators.get(dataSet);
+    }
+
+    /**
+     * Returns the covariance matrix between all data sets.
+     *
+     * @return the covariance matrix, or null if the covariance is not computed.
+     */
+    public CovarianceMatrix getCovarianceMatrix() {
+        return covarianceMatrix;
+    }
+
     /**
      * Clears all statistics for all data sets.
      */
     public void clear() {
         itemsStatistics.forEach(SummaryStatistics::clear);
+        itemsAggregators.forEach(aggregators -> aggregators.forEach(Aggregator::clear));
+
+        if (covarianceMatrix != null) {
+            covarianceMatrix.clear();
+        }
     }
 
 }
@@ -15,6 +15,7 @@ public class Headers {
     private final List<String> dataHeaders;
     private final String dateHeader;
     private final String timeHeader;
+    private final String keyHeader;     // null if the records are not grouped by key
 
     /**
      * Constructor should only be called by the HeadersReader class.
@@ -26,9 +27,23 @@ public class Headers {
      * @param timeHeader    the time header, not null.
      */
     Headers(List<String> dataHeaders, String dateHeader, String timeHeader) {
+        this(dataHeaders, dateHeader, timeHeader, null);
+    }
+
+    /**
+     * Constructor should only be called by the HeadersReader class.
+     * Initializes the headers structure, including the header of the key column used to group the records.
+     *
+     * @param dataHeaders   the non-ignored data headers, not null.
+     * @param dateHeader    the date header, not null.
+     * @param timeHeader    the time header, not null.
+     * @param keyHeader     the key header, or null if the records are not grouped by key.
+     */
+    Headers(List<String> dataHeaders, String dateHeader, String timeHeader, String keyHeader) {
         this.dataHeaders = dataHeaders;
         this.dateHeader = dateHeader;
         this.timeHeader = timeHeader;
+        this.keyHeader = keyHeader;
     }
 
     /**
@@ -59,6 +74,15 @@ public class Headers {
         return timeHeader;
     }
 
+    /**
+     * Returns the header of the key column used to group the records.
+     *
+     * @return the key header, or null if the records are not grouped by key.
+     */
+    public String getKeyHeader() {
+        return keyHeader;
+    }
+
     public static Builder with() {
         return new Builder();
     }
@@ -68,6 +92,7 @@ public class Headers {
         private List<String> dataHeaders = Collections.emptyList();
         private String dateHeader = "Date";
         private String timeHeader = "Time";
+        private String keyHeader = null;
 
         public Builder dataHeaders(String... headers) {
             dataHeaders = Arrays.asList(headers);
@@ -89,8 +114,13 @@ public class Headers {
             return this;
         }
 
+        public Builder keyHeader(String header) {
+            keyHeader = header;
+            return this;
+        }
+
         public Headers build() {
-            return new Headers(dataHeaders, dateHeader, timeHeader);
+            return new Headers(dataHeaders, dateHeader, timeHeader, keyHeader);
         }
 
     }
@@ -22,14 +22,22 @@ public class HeadersReader implements Closeable {
     private final HeadersParser parser;
     private final int dateColumn;
     private final int timeColumn;
+    private final int keyColumn;    // negative if the records are not grouped by key
     private final Set<Integer> ignoredColumns;
 
     HeadersReader(HeadersParser parser, int dateColumn, int timeColumn, Set<Integer> ignoredColumns)
             throws IOException {
 
+        this(parser, dateColumn, timeColumn, -1, ignoredColumns);
+    }
+
+    HeadersReader(HeadersParser parser, int dateColumn, int timeColumn, int keyColumn,
+                  Set<Integer> ignoredColumns) throws IOException {
+
         this.parser = parser;
         this.dateColumn = dateColumn;
         this.timeColumn = timeColumn;
+        this.keyColumn = keyColumn;
         this.ignoredColumns = ignoredColumns;
     }
 
@@ -45,7 +53,23 @@ public class HeadersReader implements Closeable {
     public HeadersReader(Reader reader, int dateColumn, int timeColumn, Set<Integer> ignoredColumns)
             throws IOException {
 
-        this(new HeadersParser(reader), dateColumn, timeColumn, ignoredColumns);
+        this(new HeadersParser(reader), dateColumn, timeColumn, -1, ignoredColumns);
+    }
+
+    /**
+     * Creates a headers reader with the date, time, key, and ignored columns specified.
+     *
+     * @param reader         the underlying reader used to read the headers file.
+     * @param dateColumn     the number of the date column (columns start at 0).
+     * @param timeColumn     the number of the time column (columns start at 0).
+     * @param keyColumn      the number of the key column (columns start at 0), negative if there is none.
+     * @param ignoredColumns the numbers of the columns to be ignored (columns start at 0).
+     * @throws IOException if an IO error occurs.
+     */
+    public HeadersReader(Reader reader, int dateColumn, int timeColumn, int keyColumn,
+                         Set<Integer> ignoredColumns) throws IOException {
+
+        this(new HeadersParser(reader), dateColumn, timeColumn, keyColumn, ignoredColumns);
     }
 
     /**
@@ -64,6 +88,23 @@ public class HeadersReader implements Closeable {
         this(new FileReader(headersFile), dateColumn, timeColumn, ignoredColumns);
     }
 
+    /**
+     * Creates a headers reader with the date, time, key, and ignored columns specified. Calls the previous
+     * constructor with a FileReader.
+     *
+     * @param headersFile    the path to the headers file.
+     * @param dateColumn     the number of the date column (columns start at 0).
+     * @param timeColumn     the number of the time column (columns start at 0).
+     * @param keyColumn      the number of the key column (columns start at 0), negative if there is none.
+     * @param ignoredColumns the numbers of the columns to be ignored (columns start at 0).
+     * @throws IOException if an IO error occurs.
+     */
+    public HeadersReader(File headersFile, int dateColumn, int timeColumn, int keyColumn,
+                         Set<Integer> ignoredColumns) throws IOException {
+
+        this(new FileReader(headersFile), dateColumn, timeColumn, keyColumn, ignoredColumns);
+    }
+
     /**
      * Reads the headers from the headers file. The file is read completely after calling this method.
      * There is no need to call read() multiple times.
@@ -76,8 +117,8 @@ public class HeadersReader implements Closeable {
 
         List<String> headers = parser.parse();
 
-        // check if there are enough headers to include the date and time columns
-        int minimumHeadersRequired = Math.max(dateColumn, timeColumn) + 1;
+        // check if there are enough headers to include the date, time, and key columns
+        int minimumHeadersRequired = Math.max(Math.max(dateColumn, timeColumn), keyColumn) + 1;
         if (headers.size() < minimumHeadersRequired) {
             throw new ParseException("Headers file was expected to have at least " + minimumHeadersRequired +
                     " header names, but got only " + headers.size() + ".", 1);
@@ -86,14 +127,15 @@ public class HeadersReader implements Closeable {
         // get the date and time headers
         String dateHeader = headers.get(dateColumn);
         String timeHeader = headers.get(timeColumn);
+        String keyHeader = keyColumn >= 0 ? headers.get(keyColumn) : null;
 
         // get only the headers for data columns that are not ignored
         List<String> dataHeaders = IntStream.range(0, headers.size())
-                .filter(i -> i != dateColumn && i != timeColumn && !ignoredColumns.contains(i))
+                .filter(i -> i != dateColumn && i != timeColumn && i != keyColumn && !ignoredColumns.contains(i))
                 .mapToObj(headers::get)
                 .collect(Collectors.toList());
 
-        return new Headers(dataHeaders, dateHeader, timeHeader);
+        return new Headers(dataHeaders, dateHeader, timeHeader, keyHeader);
     }
 
     /**
@@ -0,0 +1,349 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Histogram aggregator. Counts how many values fall into each bucket of a fixed layout. The counts are
+ * kept in a primitive array, so adding a value is a constant time operation that never allocates memory.
+ *
+ * Two layouts are supported:
+ * - linear: the range between a lower and an upper bound is divided into buckets of the same width.
+ * - logarithmic: each power of 2 between the lower and the upper bound is divided into a fixed number of
+ * sub-buckets (similar to HDR histograms). The width of each bucket is proportional to its values, which
+ * bounds the relative error of each bucket.
+ *
+ * Both layouts include an underflow bucket (index 0) and an overflow bucket (last index) for the values
+ * outside of the range. The underflow bucket also counts NaN values.
+ *
+ * The counts of all buckets are allocated when the histogram is created, so the number of buckets of a
+ * layout is limited to MAX_BUCKET_COUNT.
+ */
+public class Histogram implements Aggregator {
+
+    /**
+     * The maximum number of buckets of a histogram, not counting the underflow and overflow buckets.
+     */
+    public static final int MAX_BUCKET_COUNT = 1 << 16;
+
+    private final Layout layout;
+    private final long[] counts;
+
+    private Histogram(Layout layout) {
+        this.layout = layout;
+        this.counts = new long[layout.getBucketCount()];
+    }
+
+    /**
+     * Creates a histogram with a linear layout. The range between the lower and the upper bound is divided
+     * into the specified number of buckets, all with the same width.
+     *
+     * @param lowerBound  the lower bound of the first bucket (inclusive).
+     * @param upperBound  the upper bound of the last bucket (exclusive).
+     * @param bucketCount the number of buckets between the lower and the upper bounds.
+     * @return a new empty histogram, not null.
+     * @throws IllegalArgumentException if the upper bound is not greater than the lower bound or if the
+     * bucket count is not positive or is greater than MAX_BUCKET_COUNT.
+     */
+    public static Histogram linear(double lowerBound, double upperBound, int bucketCount) {
+        return new Histogram(new LinearLayout(lowerBound, upperBound, bucketCount));
+    }
+
+    /**
+     * Creates a histogram with a logarithmic layout. Each power of 2 between the lower and the upper bound
+     * is divided into the specified number of sub-buckets. The lower bound is rounded down and the upper
+     * bound is rounded up to the nearest power of 2. The relative error of each bucket is at most
+     * 1/subBucketCount.
+     *
+     * @param lowerBound     the lowest value to count in a regular bucket, must be positive.
+     * @param upperBound     the highest value to count in a regular bucket.
+     * @param subBucketCount the number of buckets for each power of 2, must be a power of 2.
+     * @return a new empty histogram, not null.
+     * @throws IllegalArgumentException if the bounds or the sub-bucket count are not valid or if the
+     * layout would have more than MAX_BUCKET_COUNT buckets.
+     */
+    public static Histogram logarithmic(double lowerBound, double upperBound, int subBucketCount) {
+        return new Histogram(new LogarithmicLayout(lowerBound, upperBound, subBucketCount));
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    @Override
+    public String getName() {
+        return "Histogram (" + layout + ")";
+    }
+
+    @Override
+    public void addValue(double value) {
+        counts[layout.indexOf(value)]++;
+    }
+
+    /**
+     * Returns the number of buckets, including the underflow and overflow buckets.
+     *
+     * @return the number of buckets.
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Returns the number of values counted in a bucket.
+     *
+     * @param bucket the index of the bucket: 0 is the underflow bucket and getBucketCount() - 1 is the
+     *               overflow bucket.
+     * @return the number of values counted in the bucket.
+     * @throws IndexOutOfBoundsException if the bucket index is out of range.
+     */
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Returns the lowest value counted in a bucket. The lower bound of the underflow bucket is negative
+     * infinity.
+     *
+     * @param bucket the index of the bucket.
+     * @return the lowest value counted in the bucket.
+     * @throws IndexOutOfBoundsException if the bucket index is out of range.
+     */
+    public double getLowerBound(int bucket) {
+        if (bucket < 0 || bucket >= counts.length) {
+            throw new IndexOutOfBoundsException("Bucket " + bucket + " does not exist");
+        }
+
+        return bucket == 0 ? Double.NEGATIVE_INFINITY : layout.lowerBoundOf(bucket);
+    }
+
+    /**
+     * Merges the counts of other histogram into this histogram, bucket by bucket. Both histograms must
+     * have the same layout. The other histogram is not modified.
+     *
+     * @param other the histogram to merge into this one, not null.
+     * @throws IllegalArgumentException if the histograms do not have the same layout.
+     */
+    public void merge(Histogram other) {
+
+        if (!layout.equals(other.layout)) {
+            throw new IllegalArgumentException("Can not merge an histogram with layout '" + other.layout +
+                    "' into an histogram with layout '" + layout + "'");
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * Encodes the histogram in a compact format: only the non-empty buckets are included, each as a pair
+     * 'index:count', and the pairs are separated by spaces. For instance, '0:2 3:10' indicates 2 values
+     * in the underflow bucket and 10 values in the bucket 3. An empty histogram is encoded as an empty string.
+     *
+     * @return the encoded histogram, not null.
+     */
+    @Override
+    public String getResult() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                if (builder.length() > 0) builder.append(' ');
+                builder.append(i).append(':').append(counts[i]);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(counts, 0L);
+    }
+
+    @Override
+    public Histogram emptyCopy() {
+        return new Histogram(layout);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Layouts: map values to bucket indexes
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private interface Layout {
+
+        int getBucketCount();
+
+        int indexOf(double value);
+
+        double lowerBoundOf(int bucket);
+
+    }
+
+    private static class LinearLayout implements Layout {
+
+        private final double lowerBound;
+        private final double upperBound;
+        private final int bucketCount;
+        private final double scale;     // number of buckets per unit
+
+        LinearLayout(double lowerBound, double upperBound, int bucketCount) {
+
+            if (!(upperBound > lowerBound)) {
+                throw new IllegalArgumentException("Histogram upper bound (" + upperBound + ") must be " +
+                        "greater than the lower bound (" + lowerBound + ")");
+            }
+
+            if (bucketCount <= 0 || bucketCount > MAX_BUCKET_COUNT) {
+                throw new IllegalArgumentException("Histogram must have between 1 and " + MAX_BUCKET_COUNT +
+                        " buckets, but got " + bucketCount);
+            }
+
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.bucketCount = bucketCount;
+            this.scale = bucketCount / (upperBound - lowerBound);
+        }
+
+        @Override
+        public int getBucketCount() {
+            return bucketCount + 2;
+        }
+
+        @Override
+        public int indexOf(double value) {
+            if (!(value >= lowerBound)) return 0;   // NaN values also go to the underflow bucket
+            if (value >= upperBound) return bucketCount + 1;
+
+            // rounding errors could place a value right below the upper bound outside of the last bucket
+            return 1 + Math.min((int) ((value - lowerBound) * scale), bucketCount - 1);
+        }
+
+        @Override
+        public double lowerBoundOf(int bucket) {
+            return bucket > bucketCount ? upperBound : lowerBound + (bucket - 1) / scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            LinearLayout that = (LinearLayout) o;
+
+            return Double.compare(that.lowerBound, lowerBound) == 0 &&
+                    Double.compare(that.upperBound, upperBound) == 0 &&
+                    bucketCount == that.bucketCount;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Double.hashCode(lowerBound);
+            result = 31 * result + Double.hashCode(upperBound);
+            result = 31 * result + bucketCount;
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "linear: " + bucketCount + " buckets from " + lowerBound + " to " + upperBound;
+        }
+    }
+
+    private static class LogarithmicLayout implements Layout {
+
+        private static final int MANTISSA_BITS = 52;
+
+        private final int minExponent;
+        private final int maxExponent;
+        private final int subBucketBits;
+        private final int subBucketMask;
+
+        LogarithmicLayout(double lowerBound, double upperBound, int subBucketCount) {
+
+            if (!(lowerBound > 0) || !(upperBound >= lowerBound) || Double.isInfinite(upperBound)) {
+                throw new IllegalArgumentException("Logarithmic histogram bounds must be positive and finite " +
+                        "and the upper bound (" + upperBound + ") must not be lower than the lower bound (" +
+                        lowerBound + ")");
+            }
+
+            if (subBucketCount <= 0 || Integer.bitCount(subBucketCount) != 1) {
+                throw new IllegalArgumentException("Logarithmic histogram sub-bucket count must be a power " +
+                        "of 2, but got " + subBucketCount);
+            }
+
+            this.minExponent = Math.getExponent(lowerBound);
+            this.maxExponent = Math.getExponent(upperBound);
+
+            // computed as a long: the bounds may span up to 2098 powers of 2
+            long bucketCount = (long) (maxExponent - minExponent + 1) * subBucketCount;
+            if (bucketCount > MAX_BUCKET_COUNT) {
+                throw new IllegalArgumentException("Logarithmic histogram from " + lowerBound + " to " +
+                        upperBound + " with " + subBucketCount + " sub-buckets would have " + bucketCount +
+                        " buckets, but the maximum is " + MAX_BUCKET_COUNT);
+            }
+
+            this.subBucketBits = Integer.numberOfTrailingZeros(subBucketCount);
+            this.subBucketMask = subBucketCount - 1;
+        }
+
+        @Override
+        public int getBucketCount() {
+            return (maxExponent - minExponent + 1) * (subBucketMask + 1) + 2;
+        }
+
+        @Override
+        public int indexOf(double value) {
+            if (!(value > 0)) return 0;     // NaN values also go to the underflow bucket
+
+            int exponent = Math.getExponent(value);
+            if (exponent < minExponent) return 0;
+            if (exponent > maxExponent) return getBucketCount() - 1;
+
+            // the sub-bucket is given by the most significant bits of the mantissa
+            long bits = Double.doubleToRawLongBits(value);
+            int subBucket = (int) (bits >>> (MANTISSA_BITS - subBucketBits)) & subBucketMask;
+
+            return 1 + ((exponent - minExponent) << subBucketBits) + subBucket;
+        }
+
+        @Override
+        public double lowerBoundOf(int bucket) {
+            int exponent = minExponent + ((bucket - 1) >> subBucketBits);
+            int subBucket = (bucket - 1) & subBucketMask;
+
+            return Math.scalb(1.0 + (double) subBucket / (subBucketMask + 1), exponent);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            LogarithmicLayout that = (LogarithmicLayout) o;
+
+            return minExponent == that.minExponent &&
+                    maxExponent == that.maxExponent &&
+                    subBucketBits == that.subBucketBits;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = minExponent;
+            result = 31 * result + maxExponent;
+            result = 31 * result + subBucketBits;
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "log: " + (subBucketMask + 1) + " sub-buckets per power of 2 from " +
+                    Math.scalb(1.0, minExponent) + " to " + Math.scalb(1.0, maxExponent + 1);
+        }
+    }
+
+}
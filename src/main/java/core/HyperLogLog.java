@@ -0,0 +1,175 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Distinct count aggregator based on the HyperLogLog algorithm. Estimates the number of distinct values
+ * added to it without keeping the values in memory: it only keeps a fixed-size array of registers. With a
+ * precision p, the aggregator uses 2^p registers (one byte each) and the standard error of the estimate is
+ * about 1.04 / sqrt(2^p).
+ *
+ * Values are compared as numbers: 0.0 and -0.0 are the same value, and so are all NaN values.
+ */
+public class HyperLogLog implements Aggregator {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Creates a distinct count aggregator with the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Creates a distinct count aggregator with the specified precision.
+     *
+     * @param precision the number of bits used to select a register, between MIN_PRECISION and
+     *                  MAX_PRECISION.
+     * @throws IllegalArgumentException if the precision is out of range.
+     */
+    public HyperLogLog(int precision) {
+
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between " + MIN_PRECISION +
+                    " and " + MAX_PRECISION + ", but got " + precision);
+        }
+
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    @Override
+    public String getName() {
+        return "Distinct Count";
+    }
+
+    @Override
+    public void addValue(double value) {
+        long hash = hash(value == 0.0 ? 0.0 : value);   // -0.0 == 0.0
+
+        int index = (int) (hash >>> (Long.SIZE - precision));
+
+        // the rank is the position of the first 1 bit in the remaining bits: the sentinel bit limits it
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Returns the precision of this aggregator.
+     *
+     * @return the precision of this aggregator.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns the estimated number of distinct values added to the aggregator.
+     *
+     * @return the estimated number of distinct values.
+     */
+    public long getEstimate() {
+        int registerCount = registers.length;
+
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((long) (Double.MAX_EXPONENT - register) << 52);   // 2^-register
+            if (register == 0) zeroRegisters++;
+        }
+
+        double estimate = alpha(registerCount) * registerCount * registerCount / sum;
+
+        if (estimate <= 2.5 * registerCount && zeroRegisters > 0) {
+            // small range correction: linear counting is more accurate
+            estimate = registerCount * Math.log((double) registerCount / zeroRegisters);
+        }
+
+        return Math.round(estimate);
+    }
+
+    /**
+     * Merges the registers of other aggregator into this aggregator. The result is the same as if all the
+     * values added to the other aggregator had been added to this one. Both aggregators must have the same
+     * precision. The other aggregator is not modified.
+     *
+     * @param other the aggregator to merge into this one, not null.
+     * @throws IllegalArgumentException if the aggregators do not have the same precision.
+     */
+    public void merge(HyperLogLog other) {
+
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Can not merge an HyperLogLog with precision " +
+                    other.precision + " into an HyperLogLog with precision " + precision);
+        }
+
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    @Override
+    public String getResult() {
+        return Long.toString(getEstimate());
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    @Override
+    public HyperLogLog emptyCopy() {
+        return new HyperLogLog(precision);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Hashes the bits of a value with the finalizer of MurmurHash3, which spreads the bits of similar
+     * values (for instance, consecutive integers) over the whole hash.
+     */
+    private static long hash(double value) {
+        long hash = Double.doubleToLongBits(value);     // all NaN values have the same bits
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    private static double alpha(int registerCount) {
+        switch (registerCount) {
+            case 16: return 0.673;
+            case 32: return 0.697;
+            case 64: return 0.709;
+            default: return 0.7213 / (1 + 1.079 / registerCount);
+        }
+    }
+
+}
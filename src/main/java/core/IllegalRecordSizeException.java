@@ -1,17 +1,15 @@
 package core;
 
-import java.text.ParseException;
-
 /**
  * Thrown when the size of a parsed record is not the expected size.
  */
-public class IllegalRecordSizeException extends ParseException {
+public class IllegalRecordSizeException extends RecordParseException {
 
     private final int expectedSize;
     private final int actualSize;
 
-    public IllegalRecordSizeException(String message, int errorOffset, int expectedSize, int actualSize) {
-        super(message, errorOffset);
+    public IllegalRecordSizeException(String message, long recordNumber, int expectedSize, int actualSize) {
+        super(message, recordNumber);
         this.expectedSize = expectedSize;
         this.actualSize = actualSize;
     }
@@ -0,0 +1,153 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.File;
+
+/**
+ * The flight recorder event types of statzy. Only used through FlightRecorderEvents, which checks that
+ * the flight recorder API is available before loading this class.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    @Name("statzy.FileOpened")
+    @Label("File Opened")
+    @Category("Statzy")
+    @Description("A data file opened for reading or an output file opened for writing")
+    static class FileOpenedEvent extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @Description("Size of the file when it was opened, in bytes")
+        long size;
+
+        @Label("Output")
+        boolean output;
+    }
+
+    @Name("statzy.BatchParsed")
+    @Label("Batch Parsed")
+    @Category("Statzy")
+    @Description("A batch of records parsed from a data file")
+    @StackTrace(false)
+    static class BatchParsedEvent extends Event {
+
+        @Label("Record Count")
+        int recordCount;
+
+        @Label("Bytes Read")
+        @Description("Bytes read from the data file so far, -1 if not known")
+        long bytesRead;
+    }
+
+    @Name("statzy.PeriodFinalized")
+    @Label("Period Finalized")
+    @Category("Statzy")
+    @Description("A period processed, from the start of the period to its rows being written")
+    @StackTrace(false)
+    static class PeriodFinalizedEvent extends Event {
+
+        @Label("Period")
+        String period;
+
+        @Label("Record Count")
+        long recordCount;
+
+        @Label("Row Count")
+        long rowCount;
+    }
+
+    @Name("statzy.OutputFlushed")
+    @Label("Output Flushed")
+    @Category("Statzy")
+    @Description("The rows of a data file writer flushed to its output")
+    static class OutputFlushedEvent extends Event {
+
+        @Label("Closing")
+        boolean closing;
+    }
+
+    /**
+     * Indicates whether the flight recorder was started in this JVM. Until then, no event can be recorded
+     * and the event classes are not even loaded, since registering them starts up the flight recorder.
+     */
+    static boolean isRecorderStarted() {
+        return FlightRecorder.isInitialized();
+    }
+
+    static void fileOpened(File file, boolean output) {
+        FileOpenedEvent event = new FileOpenedEvent();
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.size = file.length();
+            event.output = output;
+            event.commit();
+        }
+    }
+
+    static Object beginBatch() {
+        BatchParsedEvent event = new BatchParsedEvent();
+        if (!event.isEnabled()) return null;
+
+        event.begin();
+        return event;
+    }
+
+    static void commitBatch(Object token, int recordCount, long bytesRead) {
+        BatchParsedEvent event = (BatchParsedEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.recordCount = recordCount;
+            event.bytesRead = bytesRead;
+            event.commit();
+        }
+    }
+
+    static Object beginPeriod() {
+        PeriodFinalizedEvent event = new PeriodFinalizedEvent();
+        if (!event.isEnabled()) return null;
+
+        event.begin();
+        return event;
+    }
+
+    static void commitPeriod(Object token, Timestamp period, long recordCount, long rowCount) {
+        PeriodFinalizedEvent event = (PeriodFinalizedEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.period = period.toString();
+            event.recordCount = recordCount;
+            event.rowCount = rowCount;
+            event.commit();
+        }
+    }
+
+    static Object beginFlush() {
+        OutputFlushedEvent event = new OutputFlushedEvent();
+        if (!event.isEnabled()) return null;
+
+        event.begin();
+        return event;
+    }
+
+    static void commitFlush(Object token, boolean closing) {
+        OutputFlushedEvent event = (OutputFlushedEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.closing = closing;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * KeyedGroupStatistics computes the same statistics as the GroupStatistics (count, mean, and standard
+ * deviation of each data set), but separately for each key. It is used to compute the statistics of files
+ * that interleave the records of many groups (for instance, devices) in a single pass.
+ *
+ * Each key is assigned a slot the first time it is seen. Keys are found with an open-addressing hash table
+ * and the statistics of all slots are kept in primitive arrays, so adding an entry does not create any
+ * objects for keys that were already seen. Slots are kept after a clear: the keys of a period are usually
+ * the keys of the next period.
+ */
+public class KeyedGroupStatistics {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int dataSetCount;
+
+    // open-addressing hash table: each position holds a slot + 1, or 0 if it is empty
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    // slots: the statistics of the data sets of each slot are stored next to each other
+    private int slotCount = 0;
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private double[] means;
+    private double[] secondMoments;
+
+    /**
+     * Creates a KeyedGroupStatistics with a specified number of data sets.
+     *
+     * @param dataSetCount the number of different data sets to compute for.
+     */
+    public KeyedGroupStatistics(int dataSetCount) {
+        this.dataSetCount = dataSetCount;
+        this.means = new double[INITIAL_CAPACITY * dataSetCount];
+        this.secondMoments = new double[INITIAL_CAPACITY * dataSetCount];
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Adds a new entry of values for each data set to the statistics of a key. The input values must be
+     * always in the same order.
+     *
+     * @param key    the key the values belong to, not null.
+     * @param values the list with the values for each data set, not null.
+     * @throws IllegalArgumentException if the number of values is different from the number of data sets.
+     */
+    public void addEntry(String key, List<Double> values) {
+
+        if (values.size() != dataSetCount) {
+            throw new IllegalArgumentException("Group statistics expected " + dataSetCount + " " +
+                    "items but got " + values.size());
+        }
+
+        int slot = slotOf(key);
+        long count = ++counts[slot];
+        int offset = slot * dataSetCount;
+
+        // same incremental computation used by the GroupStatistics
+        for (int i = 0; i < dataSetCount; i++) {
+            double deviation = values.get(i) - means[offset + i];
+            double scaledDeviation = deviation / count;
+
+            means[offset + i] += scaledDeviation;
+            secondMoments[offset + i] += (count - 1) * deviation * scaledDeviation;
+        }
+    }
+
+    /**
+     * Returns the number of slots. Each key seen since this statistics were created has its own slot,
+     * even if it has no values since the last clear. Slots are numbered by the order the keys were seen.
+     *
+     * @return the number of slots.
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Returns the key of a slot.
+     *
+     * @param slot the slot number.
+     * @return the key of the slot, not null.
+     * @throws IndexOutOfBoundsException if the slot does not exist.
+     */
+    public String getKey(int slot) {
+        checkSlot(slot);
+        return keys[slot];
+    }
+
+    /**
+     * Returns the number of values in each data set of a slot.
+     *
+     * @param slot the slot number.
+     * @return the number of values in each data set of the slot.
+     * @throws IndexOutOfBoundsException if the slot does not exist.
+     */
+    public long getCount(int slot) {
+        checkSlot(slot);
+        return counts[slot];
+    }
+
+    /**
+     * Returns a list with the means for each data set of a slot. The means are NaN if the slot has no
+     * values.
+     *
+     * @param slot the slot number.
+     * @return the list with the means for each data set, not null.
+     * @throws IndexOutOfBoundsException if the slot does not exist.
+     */
+    public List<Double> getMeans(int slot) {
+        checkSlot(slot);
+
+        List<Double> slotMeans = new ArrayList<>(dataSetCount);
+        for (int i = 0; i < dataSetCount; i++) {
+            slotMeans.add(counts[slot] == 0 ? Double.NaN : means[slot * dataSetCount + i]);
+        }
+
+        return slotMeans;
+    }
+
+    /**
+     * Returns a list with the standard deviations for each data set of a slot. Like the GroupStatistics,
+     * the standard deviations are NaN if the slot has no values and 0 if the slot has a single value.
+     *
+     * @param slot the slot number.
+     * @return the list with the standard deviations for each data set, not null.
+     * @throws IndexOutOfBoundsException if the slot does not exist.
+     */
+    public List<Double> getStandardDeviations(int slot) {
+        checkSlot(slot);
+
+        long count = counts[slot];
+        List<Double> standardDeviations = new ArrayList<>(dataSetCount);
+        for (int i = 0; i < dataSetCount; i++) {
+            if (count == 0) {
+                standardDeviations.add(Double.NaN);
+            } else if (count == 1) {
+                standardDeviations.add(0.0);
+            } else {
+                standardDeviations.add(Math.sqrt(secondMoments[slot * dataSetCount + i] / (count - 1)));
+            }
+        }
+
+        return standardDeviations;
+    }
+
+    /**
+     * Clears the statistics of all keys. The slots of the keys are kept.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0, slotCount, 0L);
+        Arrays.fill(means, 0, slotCount * dataSetCount, 0.0);
+        Arrays.fill(secondMoments, 0, slotCount * dataSetCount, 0.0);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= slotCount) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " does not exist");
+        }
+    }
+
+    /**
+     * Returns the slot of a key. If the key does not have a slot yet, a new slot is assigned to it.
+     */
+    private int slotOf(String key) {
+        int hash = spread(key.hashCode());
+        int mask = table.length - 1;
+
+        for (int position = hash & mask; ; position = (position + 1) & mask) {
+            int slot = table[position] - 1;
+
+            if (slot < 0) {
+                return newSlot(key, hash, position);
+            }
+
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+    }
+
+    private int newSlot(String key, int hash, int position) {
+        if (slotCount == keys.length) {
+            growSlots();
+        }
+
+        int slot = slotCount++;
+        keys[slot] = key;
+        hashes[slot] = hash;
+        table[position] = slot + 1;
+
+        // keep the table at most half full, so that probe sequences stay short
+        if (slotCount * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+
+        return slot;
+    }
+
+    private void growSlots() {
+        int capacity = keys.length * 2;
+
+        keys = Arrays.copyOf(keys, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        means = Arrays.copyOf(means, capacity * dataSetCount);
+        secondMoments = Arrays.copyOf(secondMoments, capacity * dataSetCount);
+    }
+
+    private void rehash(int tableSize) {
+        table = new int[tableSize];
+        int mask = tableSize - 1;
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            int position = hashes[slot] & mask;
+            while (table[position] != 0) {
+                position = (position + 1) & mask;
+            }
+
+            table[position] = slot + 1;
+        }
+    }
+
+    /**
+     * Spreads the bits of a hash code, so that keys with similar hash codes (for instance, 'device1' and
+     * 'device2') do not end up in consecutive positions.
+     */
+    private static int spread(int hashCode) {
+        int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+}
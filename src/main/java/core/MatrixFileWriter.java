@@ -0,0 +1,181 @@
+package core;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the covariance (or correlation) matrix of each period to its own file. All files are written to
+ * the same directory and their names include the timestamp of the period: for instance,
+ * 'covariance-20161122-010000.csv'. Each file has a row and a column for each data set, both starting with
+ * the data set header. With periods of milliseconds or microseconds, the names include the fraction of a
+ * second (for instance, 'covariance-20161122-010000250.csv'), so each period has its own file. A file is
+ * never written twice: a period whose file name is the same as the one of an earlier period, because the
+ * timestamp pattern is not precise enough, fails instead of replacing the earlier matrix.
+ */
+public class MatrixFileWriter {
+
+    private static final char DELIMITER = ',';
+
+    private final File directory;
+    private final String filePrefix;
+    private final TimestampFormatter fileTimestampFormatter;
+    private final boolean correlation;
+    private final List<String> dataHeaders;
+    private final Set<File> writtenFiles = new HashSet<>();
+
+    private MatrixFileWriter(File directory, String filePrefix, TimestampFormatter fileTimestampFormatter,
+                             boolean correlation, List<String> dataHeaders) {
+        this.directory = directory;
+        this.filePrefix = filePrefix;
+        this.fileTimestampFormatter = fileTimestampFormatter;
+        this.correlation = correlation;
+        this.dataHeaders = dataHeaders;
+    }
+
+    /**
+     * Writes the matrix of a period to a new file. If the file already exists from an earlier run it is
+     * overwritten.
+     *
+     * @param timestamp the timestamp of the period.
+     * @param matrix    the covariance matrix computed for the period, not null.
+     * @throws FileAlreadyExistsException if the matrix of another period was written to the same file.
+     * @throws IOException if an IO error occurs.
+     * @throws IllegalArgumentException if the number of data sets in the matrix is different from the
+     * number of headers.
+     */
+    public void write(Timestamp timestamp, CovarianceMatrix matrix) throws IOException {
+
+        if (matrix.getDataSetCount() != dataHeaders.size()) {
+            throw new IllegalArgumentException("The covariance matrix is expected to have " +
+                    dataHeaders.size() + " data sets, but has " + matrix.getDataSetCount() + " data sets.");
+        }
+
+        File file = getFile(timestamp);
+        if (!writtenFiles.add(file)) {
+            throw new FileAlreadyExistsException(file.getPath(), null, "the matrix of another period was " +
+                    "written to the same file: the file timestamp pattern is not precise enough");
+        }
+
+        try (
+                FileWriter writer = new FileWriter(file);
+                CSVPrinter printer = CSVFormat.EXCEL
+                        .withDelimiter(DELIMITER)
+                        .print(writer)
+        ) {
+
+            printer.print("");
+            for (String header : dataHeaders) {
+                printer.print(header);
+            }
+            printer.println();
+
+            for (int i = 0; i < dataHeaders.size(); i++) {
+                printer.print(dataHeaders.get(i));
+
+                for (int j = 0; j < dataHeaders.size(); j++) {
+                    printer.print(correlation ? matrix.getCorrelation(i, j) : matrix.getCovariance(i, j));
+                }
+
+                printer.println();
+            }
+        }
+    }
+
+    /**
+     * Returns the file where the matrix of a period is written.
+     *
+     * @param timestamp the timestamp of the period.
+     * @return the file where the matrix of the period is written, not null.
+     */
+    public File getFile(Timestamp timestamp) {
+        return new File(directory, filePrefix + "-" + fileTimestampFormatter.format(timestamp) + ".csv");
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Builder class
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    public static Builder outputTo(File directory) {
+        return new Builder(directory);
+    }
+
+    public static class Builder {
+
+        private final File directory;
+
+        private boolean correlation = false;
+        private String filePrefix = null;   // if null, it depends on the type of matrix
+        private String fileTimestampPattern = null;     // if null, it depends on the unit of the periods
+        private Unit periodUnit = Unit.SECONDS;
+        private List<String> dataHeaders = Collections.emptyList();
+
+        private Builder(File directory) {
+            this.directory = directory;
+        }
+
+        public Builder withCorrelation(boolean correlation) {
+            this.correlation = correlation;
+            return this;
+        }
+
+        public Builder withFilePrefix(String prefix) {
+            this.filePrefix = prefix;
+            return this;
+        }
+
+        public Builder withFileTimestampPattern(String pattern) {
+            this.fileTimestampPattern = pattern;
+            return this;
+        }
+
+        /**
+         * Sets the unit of the periods, which sets the precision of the timestamps in the file names when
+         * no pattern is given: the names include the milliseconds for periods of milliseconds, and the
+         * microseconds for periods of microseconds.
+         *
+         * @param unit the unit of the periods, not null.
+         * @return this builder.
+         */
+        public Builder withPeriodUnit(Unit unit) {
+            this.periodUnit = unit;
+            return this;
+        }
+
+        public Builder withDataHeaders(List<String> headers) {
+            this.dataHeaders = headers;
+            return this;
+        }
+
+        public MatrixFileWriter build() {
+            String prefix = filePrefix != null ? filePrefix : (correlation ? "correlation" : "covariance");
+            String pattern = fileTimestampPattern != null ? fileTimestampPattern : defaultPattern(periodUnit);
+
+            return new MatrixFileWriter(directory, prefix, TimestampFormatter.ofPattern(pattern),
+                    correlation, dataHeaders);
+        }
+
+        private static String defaultPattern(Unit periodUnit) {
+            switch (periodUnit) {
+                case MILLIS:
+                    return "uuuuMMdd-HHmmssSSS";
+                case MICROS:
+                    return "uuuuMMdd-HHmmssSSSSSS";
+                default:
+                    return "uuuuMMdd-HHmmss";
+            }
+        }
+
+    }
+
+}
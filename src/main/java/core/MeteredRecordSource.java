@@ -0,0 +1,46 @@
+package core;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Reads the records of a data record reader, adding each record, each parse error, the time spent parsing,
+ * and the bytes read to processing metrics.
+ */
+class MeteredRecordSource implements RecordSource {
+
+    private final DataRecordReader dataReader;
+    private final ProcessingMetrics metrics;
+    private long bytesRead = 0;     // bytes already added to the metrics
+
+    MeteredRecordSource(DataRecordReader dataReader, ProcessingMetrics metrics) {
+        this.dataReader = dataReader;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public DataRecord read() throws ParseException, IOException {
+        long start = System.nanoTime();
+
+        DataRecord record;
+        try {
+            record = dataReader.read();
+        } catch (ParseException | RuntimeException e) {
+            metrics.addParseError(System.nanoTime() - start);
+            throw e;
+        }
+
+        if (record != null) {
+            metrics.addRecordParsed(System.nanoTime() - start);
+        }
+
+        long newBytesRead = dataReader.getBytesRead();
+        if (newBytesRead > bytesRead) {
+            metrics.addBytesRead(newBytesRead - bytesRead);
+            bytesRead = newBytesRead;
+        }
+
+        return record;
+    }
+
+}
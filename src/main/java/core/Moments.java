@@ -0,0 +1,91 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Count, means, and second central moments of multiple data sets. Two moments can be combined into the
+ * moments of the union of their values, which is what allows the statistics of a window to be computed from
+ * the statistics of its slides.
+ */
+class Moments {
+
+    private final int dataSetCount;
+    private long count = 0;
+    private final double[] means;
+    private final double[] secondMoments;
+
+    Moments(int dataSetCount) {
+        this.dataSetCount = dataSetCount;
+        this.means = new double[dataSetCount];
+        this.secondMoments = new double[dataSetCount];
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getMean(int dataSet) {
+        return count == 0 ? Double.NaN : means[dataSet];
+    }
+
+    /**
+     * Returns the (sample) standard deviation of a data set. Like the GroupStatistics, it is NaN if there
+     * are no values and 0 if there is a single value.
+     */
+    double getStandardDeviation(int dataSet) {
+        if (count == 0) return Double.NaN;
+        if (count == 1) return 0.0;
+
+        return Math.sqrt(secondMoments[dataSet] / (count - 1));
+    }
+
+    void add(List<Double> values) {
+        count++;
+
+        for (int i = 0; i < dataSetCount; i++) {
+            double deviation = values.get(i) - means[i];
+            double scaledDeviation = deviation / count;
+
+            means[i] += scaledDeviation;
+            secondMoments[i] += (count - 1) * deviation * scaledDeviation;
+        }
+    }
+
+    /**
+     * Combines other moments into these moments (Chan et al.). The other moments are not modified.
+     */
+    void combine(Moments other) {
+        if (other.count == 0) return;
+
+        if (count == 0) {
+            set(other);
+            return;
+        }
+
+        long totalCount = count + other.count;
+        double weight = (double) count * other.count / totalCount;
+
+        for (int i = 0; i < dataSetCount; i++) {
+            double delta = other.means[i] - means[i];
+
+            means[i] += delta * other.count / totalCount;
+            secondMoments[i] += other.secondMoments[i] + delta * delta * weight;
+        }
+
+        count = totalCount;
+    }
+
+    void set(Moments other) {
+        count = other.count;
+        System.arraycopy(other.means, 0, means, 0, dataSetCount);
+        System.arraycopy(other.secondMoments, 0, secondMoments, 0, dataSetCount);
+    }
+
+    void clear() {
+        count = 0;
+        Arrays.fill(means, 0.0);
+        Arrays.fill(secondMoments, 0.0);
+    }
+
+}
@@ -0,0 +1,250 @@
+package core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream that compresses the data in gzip format using multiple threads. The data is split in
+ * blocks, each block is compressed into an independent gzip member by a thread pool, and the members are
+ * written to the underlying stream in order. The result is a standard multi-member gzip stream, which any
+ * gzip reader (including gunzip and GZIPInputStream) decompresses into the original data.
+ *
+ * Compressing the blocks independently costs a little compression, since a block can not refer to the data
+ * of the previous blocks, but the blocks are large enough for that to be negligible. The number of blocks
+ * waiting to be written is bounded, so the memory used does not depend on the amount of data, and the
+ * blocks are reused once their members are written, so a long stream does not allocate a new block for
+ * each megabyte of data.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int PENDING_BLOCKS_PER_THREAD = 2;
+
+    /**
+     * A block being compressed into a gzip member. The block is reused once the member is written.
+     */
+    private static final class PendingMember {
+        private final byte[] block;
+        private final Future<byte[]> member;
+
+        private PendingMember(byte[] block, Future<byte[]> member) {
+            this.block = block;
+            this.member = member;
+        }
+    }
+
+    private final OutputStream output;
+    private final int level;
+    private final ExecutorService executor;
+    private final int maxPendingBlocks;
+
+    private final Queue<PendingMember> pendingMembers = new ArrayDeque<>();
+    private final Deque<byte[]> freeBlocks = new ArrayDeque<>();    // at most maxPendingBlocks
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength = 0;
+    private boolean memberWritten = false;
+    private boolean closed = false;
+
+    /**
+     * Creates a parallel gzip output stream with the default compression level.
+     *
+     * @param output      the stream where the compressed data is written, not null.
+     * @param threadCount the number of threads used to compress the data.
+     * @throws IllegalArgumentException if the thread count is not positive.
+     */
+    public ParallelGzipOutputStream(OutputStream output, int threadCount) {
+        this(output, threadCount, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a parallel gzip output stream.
+     *
+     * @param output      the stream where the compressed data is written, not null.
+     * @param threadCount the number of threads used to compress the data.
+     * @param level       the compression level, from 0 to 9, or -1 for the default level.
+     * @throws IllegalArgumentException if the thread count is not positive or the level is not valid.
+     */
+    public ParallelGzipOutputStream(OutputStream output, int threadCount, int level) {
+
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The number of compression threads must be positive, but got " +
+                    threadCount);
+        }
+
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+
+        this.output = output;
+        this.level = level;
+        this.maxPendingBlocks = threadCount * PENDING_BLOCKS_PER_THREAD;
+        this.executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "statzy-gzip");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    @Override
+    public void write(int b) throws IOException {
+        checkOpen();
+
+        block[blockLength++] = (byte) b;
+        if (blockLength == BLOCK_SIZE) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        checkOpen();
+
+        while (length > 0) {
+            int copyLength = Math.min(length, BLOCK_SIZE - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, copyLength);
+            blockLength += copyLength;
+            offset += copyLength;
+            length -= copyLength;
+
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Compresses all data written so far and writes it to the underlying stream. The data written so far
+     * becomes a gzip member, even if it is small: flushing often hurts the compression.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+
+        if (blockLength > 0) {
+            submitBlock();
+        }
+
+        while (!pendingMembers.isEmpty()) {
+            writeOldestMember();
+        }
+
+        output.flush();
+    }
+
+    /**
+     * Compresses and writes all remaining data, stops the compression threads, and closes the underlying
+     * stream. If no data was written, an empty gzip member is written, so the result is always a valid gzip
+     * stream.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+
+        try {
+            flush();
+
+            if (!memberWritten) {
+                output.write(compress(new byte[0], 0));
+            }
+
+        } finally {
+            closed = true;
+            executor.shutdownNow();
+            output.close();
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void submitBlock() throws IOException {
+        byte[] data = block;
+        int length = blockLength;
+        block = freeBlocks.isEmpty() ? new byte[BLOCK_SIZE] : freeBlocks.pop();
+        blockLength = 0;
+
+        pendingMembers.add(new PendingMember(data, executor.submit(() -> compress(data, length))));
+
+        // write the members that are already compressed, and wait for the oldest if there are too many
+        while (!pendingMembers.isEmpty()
+                && (pendingMembers.peek().member.isDone() || pendingMembers.size() > maxPendingBlocks)) {
+            writeOldestMember();
+        }
+    }
+
+    private byte[] compress(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream member = new ByteArrayOutputStream(length / 4 + 64);
+
+        try (GZIPOutputStream gzip = new LeveledGzipOutputStream(member, level)) {
+            gzip.write(data, 0, length);
+        }
+
+        return member.toByteArray();
+    }
+
+    private void writeOldestMember() throws IOException {
+        try {
+            PendingMember pending = pendingMembers.poll();
+            output.write(pending.member.get());
+            memberWritten = true;
+
+            // the member is compressed, so its block is no longer read
+            if (freeBlocks.size() < maxPendingBlocks) {
+                freeBlocks.push(pending.block);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the data to be compressed");
+
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException("Failed to compress the data", e.getCause());
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * GZIPOutputStream only exposes the compression level through its deflater.
+     */
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream output, int level) throws IOException {
+            super(output, 64 * 1024);
+            def.setLevel(level);
+        }
+    }
+
+}
@@ -0,0 +1,259 @@
+package core;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Formats the rows of a DataFileWriter on worker threads and writes them to the output in the order they
+ * were written. Rows are grouped in batches and each batch is formatted into a string by one of the
+ * workers. The formatted batches are written to the output by a dedicated writer thread, in the order the
+ * batches were submitted, so the output is exactly the same as if the rows were formatted by the thread
+ * writing the rows, and that thread never waits for the output while there is room for more batches.
+ *
+ * The batches waiting to be written are handed off to the writer thread through a ring buffer, so their
+ * number is bounded: when the ring buffer is full, the thread writing the rows waits for the writer thread
+ * (back-pressure). An error in the writer thread, unchecked exceptions and errors included, is reported on
+ * the next call from the thread writing the rows.
+ */
+class ParallelRowWriter implements Closeable {
+
+    static final int BATCH_SIZE = 256;
+    static final int PENDING_BATCHES_PER_THREAD = 4;
+    private static final long FLUSH_WAIT_NANOS = 100_000;
+
+    // marks the end of the batches for the writer thread
+    private static final Future<String> END_OF_BATCHES = CompletableFuture.completedFuture("");
+
+    /**
+     * A row captured with all its values, ready to be printed by any thread.
+     */
+    interface Row {
+        void printTo(CSVPrinter printer) throws IOException;
+    }
+
+    private final Writer output;
+    private final CSVFormat format;
+    private final ExecutorService executor;
+    private final RingBuffer<Future<String>> pendingBatches;
+    private final Thread writerThread;
+
+    private List<Row> batch = new ArrayList<>(BATCH_SIZE);
+    private long submittedBatchCount = 0;
+    private final AtomicLong writtenBatchCount = new AtomicLong();
+    private volatile Throwable failure = null;      // first error in the writer thread
+    private boolean closed = false;
+
+    /**
+     * Creates a parallel row writer and starts its threads.
+     *
+     * @param output      the writer where the formatted rows are written, not null.
+     * @param format      the CSV format used to print the rows, not null.
+     * @param threadCount the number of worker threads used to format the rows.
+     */
+    ParallelRowWriter(Writer output, CSVFormat format, int threadCount) {
+        this.output = output;
+        this.format = format;
+        this.pendingBatches = new RingBuffer<>(threadCount * PENDING_BATCHES_PER_THREAD);
+        this.executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "statzy-formatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.writerThread = new Thread(this::writeBatches, "statzy-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Adds a row after all rows written before. The row may only be written to the output later on.
+     *
+     * @param row the row to write, not null.
+     * @throws IOException if an IO error occurs while writing or formatting previous rows.
+     */
+    void write(Row row) throws IOException {
+        checkFailure();
+        batch.add(row);
+
+        if (batch.size() == BATCH_SIZE) {
+            submitBatch();
+        }
+    }
+
+    /**
+     * Writes all rows to the output, waiting for them to be formatted and written by the writer thread.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    void flush() throws IOException {
+        if (!batch.isEmpty()) {
+            submitBatch();
+        }
+
+        while (writtenBatchCount.get() < submittedBatchCount && failure == null) {
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the rows to be written");
+            }
+
+            LockSupport.parkNanos(FLUSH_WAIT_NANOS);
+        }
+
+        checkFailure();
+        output.flush();     // the writer thread is idle: it is waiting for the next batch
+    }
+
+    /**
+     * Writes all rows to the output and stops the worker threads and the writer thread. Does not close the
+     * output, but always waits for the writer thread to end, even when interrupted, so the output can be
+     * closed as soon as this returns.
+     *
+     * @throws IOException if an IO error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+
+        try {
+            flush();
+        } finally {
+            stopThreads();
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void submitBatch() throws IOException {
+        List<Row> rows = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+
+        Future<String> formattedRows = executor.submit(() -> format(rows));
+
+        try {
+            pendingBatches.put(formattedRows);
+            submittedBatchCount++;
+
+        } catch (InterruptedException e) {
+            formattedRows.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the rows to be written");
+        }
+    }
+
+    private String format(List<Row> rows) throws IOException {
+        StringBuilder formattedRows = new StringBuilder(rows.size() * 64);
+        CSVPrinter printer = format.print(formattedRows);
+
+        for (Row row : rows) {
+            row.printTo(printer);
+        }
+
+        return formattedRows.toString();
+    }
+
+    /**
+     * Body of the writer thread: writes the formatted batches in order until the end marker. After an
+     * error, the remaining batches are taken but not written, so the thread writing the rows never blocks
+     * on a full ring buffer. Each batch taken is counted as written, even if writing it failed, so flush
+     * never waits for a batch that will not be written.
+     */
+    private void writeBatches() {
+        try {
+            Future<String> formattedRows;
+            while ((formattedRows = pendingBatches.take()) != END_OF_BATCHES) {
+                try {
+                    if (failure == null) {
+                        writeBatch(formattedRows);
+                    }
+
+                } finally {
+                    writtenBatchCount.incrementAndGet();
+                }
+            }
+
+        } catch (InterruptedException e) {
+            // stopped by close
+        }
+    }
+
+    private void writeBatch(Future<String> formattedRows) throws InterruptedException {
+        try {
+            output.write(formattedRows.get());
+
+        } catch (ExecutionException e) {
+            failure = e.getCause() instanceof IOException
+                    ? (IOException) e.getCause()
+                    : new IOException("Failed to format the rows", e.getCause());
+
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+        }
+    }
+
+    private void stopThreads() throws InterruptedIOException {
+        executor.shutdownNow();
+
+        try {
+            if (failure == null) {
+                pendingBatches.put(END_OF_BATCHES);
+            } else {
+                writerThread.interrupt();
+            }
+
+            writerThread.join();
+
+        } catch (InterruptedException e) {
+            // the output is closed after this, so the writer thread must be done with it even so
+            writerThread.interrupt();
+            joinUninterruptibly(writerThread);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while stopping the writer thread");
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        while (true) {
+            try {
+                thread.join();
+                return;
+
+            } catch (InterruptedException e) {
+                // the interrupt is restored by the caller
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+}
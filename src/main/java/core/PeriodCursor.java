@@ -0,0 +1,193 @@
+package core;
+
+/**
+ * The bounds of the current period while the statistics generator goes through the periods of an input.
+ * For periods with a fixed duration, from microseconds to days, the bounds are kept as nanoseconds since
+ * the epoch: truncating the first timestamp, checking if a record is past the current period, counting
+ * the periods skipped over, and advancing to the next period are all arithmetic on longs, and the bounds
+ * are only created as timestamps when they are written. Periods of months and years, which have no fixed
+ * duration, go through the calendar fields of the timestamps.
+ *
+ * Timestamps too far from the epoch for their nanoseconds to fit a long (before 1677 or after 2262) also
+ * go through the calendar fields: the cursor moves to the calendar once it reaches one of them.
+ */
+final class PeriodCursor {
+
+    private final Period period;
+    private final long periodNanos;     // the duration of the period, 0 if it is not fixed
+
+    private boolean epochNanos;         // true while the bounds are kept as nanoseconds since the epoch
+    private long lowerNanos;
+    private long upperNanos;
+    private Timestamp lowerBound;       // created when needed while the bounds are kept as nanoseconds
+    private Timestamp upperBound;
+
+    /**
+     * Creates a cursor at the period of a timestamp: the timestamp truncated to the unit of the period.
+     *
+     * @param first  the timestamp in the first period, not null.
+     * @param period the period, not null.
+     */
+    PeriodCursor(Timestamp first, Period period) {
+        this.period = period;
+        this.periodNanos = fixedNanos(period);
+
+        if (periodNanos > 0) {
+            try {
+                long unitNanos = period.getUnit().getBaseUnit().getDuration().toNanos();
+                // the epoch is at midnight, so truncating the nanoseconds truncates the calendar fields
+                lowerNanos = Math.floorDiv(first.toEpochNanos(), unitNanos) * unitNanos;
+                upperNanos = Math.addExact(lowerNanos, periodNanos);
+                epochNanos = true;
+                return;
+
+            } catch (ArithmeticException e) {
+                // too far from the epoch: goes through the calendar
+            }
+        }
+
+        lowerBound = first.truncatedTo(period.getUnit());
+        upperBound = lowerBound.plus(period);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Checks if a timestamp is past the current period: if it does not predate its upper bound.
+     *
+     * @param timestamp the timestamp to check, not null.
+     * @return true if the timestamp is past the current period.
+     */
+    boolean isPast(Timestamp timestamp) {
+        if (epochNanos) {
+            return saturatedEpochNanos(timestamp) >= upperNanos;
+        }
+
+        return !timestamp.predates(upperBound);
+    }
+
+    /**
+     * Returns the number of complete periods from the upper bound of the current period until a
+     * timestamp: the periods skipped over when the cursor advances to the period of the timestamp.
+     *
+     * @param timestamp the timestamp, which must not predate the upper bound, not null.
+     * @return the number of complete periods until the timestamp.
+     */
+    long periodsUntil(Timestamp timestamp) {
+        if (epochNanos) {
+            try {
+                return Math.subtractExact(timestamp.toEpochNanos(), upperNanos) / periodNanos;
+            } catch (ArithmeticException e) {
+                moveToCalendar();
+            }
+        }
+
+        return upperBound.periodsUntil(timestamp, period);
+    }
+
+    /**
+     * Advances to the next period.
+     */
+    void advance() {
+        advance(0);
+    }
+
+    /**
+     * Advances to the period after skipping a number of periods after the current one.
+     *
+     * @param skippedPeriodCount the number of periods skipped.
+     */
+    void advance(long skippedPeriodCount) {
+        if (epochNanos) {
+            try {
+                long lower = Math.addExact(upperNanos, Math.multiplyExact(skippedPeriodCount, periodNanos));
+                upperNanos = Math.addExact(lower, periodNanos);
+                lowerNanos = lower;
+                lowerBound = null;
+                upperBound = null;
+                return;
+
+            } catch (ArithmeticException e) {
+                moveToCalendar();
+            }
+        }
+
+        lowerBound = upperBound.plus(period, skippedPeriodCount);
+        upperBound = lowerBound.plus(period);
+    }
+
+    /**
+     * Returns the lower bound of the current period, which is included in the period.
+     *
+     * @return the lower bound, not null.
+     */
+    Timestamp getLowerBound() {
+        if (lowerBound == null) {
+            lowerBound = Timestamp.ofEpochNanos(lowerNanos);
+        }
+
+        return lowerBound;
+    }
+
+    /**
+     * Returns the upper bound of the current period, which is the lower bound of the next period.
+     *
+     * @return the upper bound, not null.
+     */
+    Timestamp getUpperBound() {
+        if (upperBound == null) {
+            upperBound = Timestamp.ofEpochNanos(upperNanos);
+        }
+
+        return upperBound;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void moveToCalendar() {
+        getLowerBound();
+        getUpperBound();
+        epochNanos = false;
+    }
+
+    /**
+     * Returns the duration of the period in nanoseconds, or 0 if the period has no fixed duration or if its
+     * duration does not fit a long.
+     */
+    private static long fixedNanos(Period period) {
+        // days have no fixed duration in time-zones with daylight saving time, but timestamps have no zone
+        if (period.getUnit() == Unit.YEARS || period.getUnit() == Unit.MONTHS) {
+            return 0;
+        }
+
+        try {
+            long unitNanos = period.getUnit().getBaseUnit().getDuration().toNanos();
+            return Math.multiplyExact(unitNanos, (long) period.getLength());
+
+        } catch (ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the nanoseconds since the epoch of a timestamp, or the minimum or maximum long if they do
+     * not fit a long. Comparing the saturated value with a bound that fits a long gives the same result as
+     * comparing the timestamps.
+     */
+    private static long saturatedEpochNanos(Timestamp timestamp) {
+        try {
+            return timestamp.toEpochNanos();
+        } catch (ArithmeticException e) {
+            return timestamp.getYear() >= 1970 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+    }
+
+}
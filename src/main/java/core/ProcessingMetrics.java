@@ -0,0 +1,152 @@
+package core;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of what the statistics generator is doing: records parsed, bytes read, periods output, parse
+ * errors, and the time spent in each stage (parse, aggregate, and write). Comparing the times of the
+ * stages tells which stage limits the throughput.
+ *
+ * The counters are striped (LongAdder), so the threads of a pipelined generator update them without
+ * contending with each other, and they can be read at any time from any thread: by a progress listener,
+ * or over JMX once the metrics are registered as an MBean.
+ */
+public class ProcessingMetrics implements ProcessingMetricsMXBean {
+
+    private static final String OBJECT_NAME_PREFIX = "statzy:type=ProcessingMetrics,name=";
+
+    private final LongAdder recordsParsed = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder periodsEmitted = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder aggregateNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    private ObjectName objectName = null;   // null if not registered
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    @Override
+    public long getRecordsParsed() {
+        return recordsParsed.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getPeriodsEmitted() {
+        return periodsEmitted.sum();
+    }
+
+    @Override
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    @Override
+    public long getAggregateNanos() {
+        return aggregateNanos.sum();
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos.sum();
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, with the object name
+     * 'statzy:type=ProcessingMetrics,name=[name]'.
+     *
+     * @param name the name that identifies these metrics, for instance the name of the input file.
+     * @return the object name the metrics are registered with, not null.
+     * @throws IllegalArgumentException if the name is not valid in an object name.
+     * @throws IllegalStateException if the metrics are already registered or if other metrics are
+     * registered with the same name.
+     */
+    public synchronized ObjectName register(String name) {
+        if (objectName != null) {
+            throw new IllegalStateException("Metrics are already registered as " + objectName);
+        }
+
+        try {
+            ObjectName newObjectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, newObjectName);
+            objectName = newObjectName;
+            return objectName;
+
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid metrics name: " + name, e);
+
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Other metrics are already registered with name " + name, e);
+
+        } catch (MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalStateException("Failed to register the metrics", e);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server. Does nothing if the metrics are not registered.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            // already removed from the server
+        } finally {
+            objectName = null;
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Package-private methods to update the metrics
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    void addRecordParsed(long nanos) {
+        recordsParsed.increment();
+        parseNanos.add(nanos);
+    }
+
+    void addParseError(long nanos) {
+        parseErrors.increment();
+        parseNanos.add(nanos);
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    void addAggregateNanos(long nanos) {
+        aggregateNanos.add(nanos);
+    }
+
+    void addPeriodsEmitted(long periodCount, long nanos) {
+        periodsEmitted.add(periodCount);
+        writeNanos.add(nanos);
+    }
+
+}
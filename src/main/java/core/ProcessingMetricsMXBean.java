@@ -0,0 +1,58 @@
+package core;
+
+/**
+ * Management interface of the processing metrics, exposed over JMX. All counts are totals since the
+ * metrics were created and all times are in nanoseconds.
+ */
+public interface ProcessingMetricsMXBean {
+
+    /**
+     * Returns the number of records parsed from the input.
+     *
+     * @return the number of records parsed.
+     */
+    long getRecordsParsed();
+
+    /**
+     * Returns the number of bytes read from the input files. Inputs that are not files do not count.
+     *
+     * @return the number of bytes read.
+     */
+    long getBytesRead();
+
+    /**
+     * Returns the number of periods output, including the empty periods output by the gap policy.
+     *
+     * @return the number of periods output.
+     */
+    long getPeriodsEmitted();
+
+    /**
+     * Returns the number of records that failed to be parsed.
+     *
+     * @return the number of parse errors.
+     */
+    long getParseErrors();
+
+    /**
+     * Returns the time spent parsing the records.
+     *
+     * @return the parse time in nanoseconds.
+     */
+    long getParseNanos();
+
+    /**
+     * Returns the time spent adding the records to the statistics.
+     *
+     * @return the aggregation time in nanoseconds.
+     */
+    long getAggregateNanos();
+
+    /**
+     * Returns the time spent writing the statistics to the data file writer.
+     *
+     * @return the write time in nanoseconds.
+     */
+    long getWriteNanos();
+
+}
@@ -0,0 +1,133 @@
+package core;
+
+/**
+ * Snapshot of how far the statistics generator is in its input: the records and bytes read so far, the
+ * size of the input, and the rates at which records and bytes were read over the last few seconds. The
+ * progress and the time remaining are estimated from the bytes read, since the number of records in the
+ * input is only known once it is all read.
+ *
+ * Values that are not known are -1: the bytes are only known when reading from a file.
+ */
+public final class Progress {
+
+    private final long recordsRead;
+    private final long bytesRead;
+    private final long inputSize;
+    private final double recordsPerSecond;
+    private final double bytesPerSecond;
+    private final boolean finished;
+
+    /**
+     * Creates a progress snapshot.
+     *
+     * @param recordsRead      the number of records read so far.
+     * @param bytesRead        the number of bytes read so far, or -1 if not known.
+     * @param inputSize        the size of the input in bytes, or -1 if not known.
+     * @param recordsPerSecond the recent rate of records read, or -1 if not known.
+     * @param bytesPerSecond   the recent rate of bytes read, or -1 if not known.
+     * @param finished         true if the whole input was read.
+     */
+    public Progress(long recordsRead, long bytesRead, long inputSize, double recordsPerSecond,
+                    double bytesPerSecond, boolean finished) {
+        this.recordsRead = recordsRead;
+        this.bytesRead = bytesRead;
+        this.inputSize = inputSize;
+        this.recordsPerSecond = recordsPerSecond;
+        this.bytesPerSecond = bytesPerSecond;
+        this.finished = finished;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    /**
+     * Returns the bytes read from the input. For compressed files, these are the bytes of the compressed
+     * file, like the input size.
+     *
+     * @return the bytes read, or -1 if not known.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Returns the size of the input, as stored: for compressed files, the size of the compressed file.
+     *
+     * @return the size of the input in bytes, or -1 if not known.
+     */
+    public long getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Returns the rate of records read over the last few seconds.
+     *
+     * @return the records read per second, or -1 if not known yet.
+     */
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    /**
+     * Returns the rate of bytes read over the last few seconds.
+     *
+     * @return the bytes read per second, or -1 if not known.
+     */
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Indicates whether the whole input was read. The last progress reported is always finished.
+     *
+     * @return true if the whole input was read.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Returns the fraction of the input read so far.
+     *
+     * @return the fraction of the input read, between 0 and 1, or -1 if not known.
+     */
+    public double getFraction() {
+        if (finished) return 1;
+        if (bytesRead < 0 || inputSize <= 0) return -1;
+
+        return Math.min(1, (double) bytesRead / inputSize);
+    }
+
+    /**
+     * Estimates the time needed to read the rest of the input, assuming it is read at the recent rate.
+     *
+     * @return the estimated time remaining in nanoseconds, or -1 if it can not be estimated.
+     */
+    public long getEstimatedNanosRemaining() {
+        if (finished) return 0;
+        if (bytesRead < 0 || inputSize < 0 || bytesPerSecond <= 0) return -1;
+
+        long remainingBytes = Math.max(0, inputSize - bytesRead);
+        return (long) (remainingBytes / bytesPerSecond * 1_000_000_000L);
+    }
+
+    @Override
+    public String toString() {
+        return "Progress{" +
+                "recordsRead=" + recordsRead +
+                ", bytesRead=" + bytesRead +
+                ", inputSize=" + inputSize +
+                ", recordsPerSecond=" + recordsPerSecond +
+                ", bytesPerSecond=" + bytesPerSecond +
+                ", finished=" + finished +
+                '}';
+    }
+
+}
@@ -0,0 +1,176 @@
+package core;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Notifies progress listeners from a dedicated thread, at a fixed rate, of the latest progress published
+ * by the thread processing the records. Each kind of update (period and progress in the input) has a
+ * single slot: publishing an update replaces the previous one if it was not dispatched yet, so the
+ * listeners only ever see the latest state, and the processing thread never waits for the listeners or
+ * takes a lock.
+ *
+ * Once closed, the updates still in the slots are dispatched, so the listeners always see the last
+ * period and the final progress.
+ */
+class ProgressDispatcher implements Closeable {
+
+    // bounds of the interval between two dispatches, so the thread neither spins nor waits forever
+    private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_INTERVAL_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    /**
+     * Bounds of a period being processed, published together.
+     */
+    private static final class PeriodUpdate {
+        private final Timestamp lowerBound;
+        private final Timestamp upperBound;
+
+        private PeriodUpdate(Timestamp lowerBound, Timestamp upperBound) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+        }
+    }
+
+    private final List<ProgressListener> listeners;
+    private final long intervalNanos;
+    private final AtomicReference<PeriodUpdate> latestPeriod = new AtomicReference<>();
+    private final AtomicReference<Progress> latestProgress = new AtomicReference<>();
+    private final Thread dispatcherThread;
+
+    private volatile boolean closed = false;
+    private volatile RuntimeException failure = null;   // first error thrown by a listener
+
+    /**
+     * Creates a dispatcher and starts its thread.
+     *
+     * @param listeners        the listeners to notify, not null. Must be safe to iterate while other
+     *                         threads add or remove listeners.
+     * @param updatesPerSecond the maximum number of times per second the listeners are notified. The
+     *                         interval between two notifications is kept between 1 millisecond and 1 hour.
+     */
+    ProgressDispatcher(List<ProgressListener> listeners, double updatesPerSecond) {
+        this.listeners = listeners;
+        this.intervalNanos = intervalNanos(updatesPerSecond);
+        this.dispatcherThread = new Thread(this::dispatchPeriodically, "statzy-progress");
+        this.dispatcherThread.setDaemon(true);
+        this.dispatcherThread.start();
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Publishes the period being processed, replacing any period not dispatched yet.
+     *
+     * @param lowerBound the lower-bound of the period, not null.
+     * @param upperBound the upper-bound of the period, not null.
+     */
+    void publishPeriod(Timestamp lowerBound, Timestamp upperBound) {
+        latestPeriod.lazySet(new PeriodUpdate(lowerBound, upperBound));
+    }
+
+    /**
+     * Publishes the progress in the input, replacing any progress not dispatched yet.
+     *
+     * @param progress the progress in the input, not null.
+     */
+    void publishProgress(Progress progress) {
+        latestProgress.lazySet(progress);
+    }
+
+    /**
+     * Dispatches the updates not dispatched yet and stops the dispatcher thread.
+     *
+     * @throws RuntimeException the first error thrown by a listener, if any.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(dispatcherThread);
+
+        try {
+            dispatcherThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Body of the dispatcher thread: dispatches the latest updates once per interval until closed, and a
+     * last time after being closed.
+     */
+    private void dispatchPeriodically() {
+        long nextDispatch = System.nanoTime() + intervalNanos;
+
+        while (!closed) {
+            long waitNanos = nextDispatch - System.nanoTime();
+
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            } else {
+                dispatch();
+                nextDispatch = System.nanoTime() + intervalNanos;   // slow listeners lower the rate
+            }
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Returns the interval between two dispatches for a rate, within the bounds. A rate of 0 or less, or
+     * not a number, has the longest interval.
+     */
+    private static long intervalNanos(double updatesPerSecond) {
+        double intervalNanos = 1_000_000_000.0 / updatesPerSecond;
+
+        if (!(intervalNanos < MAX_INTERVAL_NANOS) || intervalNanos < 0) {
+            return MAX_INTERVAL_NANOS;
+        }
+
+        return Math.max(MIN_INTERVAL_NANOS, (long) intervalNanos);
+    }
+
+    private void dispatch() {
+        try {
+            PeriodUpdate period = latestPeriod.getAndSet(null);
+            if (period != null) {
+                for (ProgressListener listener : listeners) {
+                    listener.notifyProcessingPeriod(period.lowerBound, period.upperBound);
+                }
+            }
+
+            Progress progress = latestProgress.getAndSet(null);
+            if (progress != null) {
+                for (ProgressListener listener : listeners) {
+                    if (listener instanceof ThroughputListener) {
+                        ((ThroughputListener) listener).notifyProgress(progress);
+                    }
+                }
+            }
+
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package core;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.function.Consumer;
+
+/**
+ * Passes on the records of a record source while reporting the progress in the input: the records and
+ * bytes read, and the rates at which they were read. The rates are rolling: they are measured over the
+ * last few reports, so they follow changes in the throughput instead of averaging the whole run.
+ *
+ * The clock is only read once every few hundred records, so tracking the progress costs little more than
+ * a counter per record. The progress is reported by the thread reading from the tracker.
+ */
+class ProgressTracker implements RecordSource {
+
+    private static final int RECORDS_BETWEEN_CLOCK_READS = 256;
+    private static final long REPORT_INTERVAL_NANOS = 250_000_000;
+    private static final int RATE_SAMPLE_COUNT = 8;     // rates over the last 2 seconds
+
+    private final RecordSource source;
+    private final DataRecordReader dataReader;
+    private final Consumer<Progress> reporter;
+
+    // the last reports, in a ring: the rates are measured since the oldest one
+    private final long[] sampleNanos = new long[RATE_SAMPLE_COUNT];
+    private final long[] sampleRecords = new long[RATE_SAMPLE_COUNT];
+    private final long[] sampleBytes = new long[RATE_SAMPLE_COUNT];
+    private int sampleCount = 0;
+    private int nextSample = 0;
+
+    private long recordCount = 0;
+    private long lastReportNanos;
+    private boolean finished = false;
+
+    /**
+     * Creates a tracker for the records of a source.
+     *
+     * @param source     the source of the records, not null.
+     * @param dataReader the data reader the records come from, to get the bytes read, not null.
+     * @param reporter   called with each progress report, not null.
+     */
+    ProgressTracker(RecordSource source, DataRecordReader dataReader, Consumer<Progress> reporter) {
+        this.source = source;
+        this.dataReader = dataReader;
+        this.reporter = reporter;
+        this.lastReportNanos = System.nanoTime();
+        addSample(lastReportNanos, 0, Math.max(0, dataReader.getBytesRead()));
+    }
+
+    /**
+     * Returns the next record of the source, reporting the progress if it is time for a report. After the
+     * last record, the progress is reported as finished.
+     *
+     * @return the next record or null if there are no more records.
+     * @throws ParseException if the source failed to parse the next record.
+     * @throws IOException if the source failed to read the next record.
+     */
+    @Override
+    public DataRecord read() throws ParseException, IOException {
+        DataRecord record = source.read();
+
+        if (record == null) {
+            if (!finished) {
+                finished = true;
+                report(System.nanoTime());
+            }
+
+            return null;
+        }
+
+        if (++recordCount % RECORDS_BETWEEN_CLOCK_READS == 0) {
+            long now = System.nanoTime();
+            if (now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+                report(now);
+            }
+        }
+
+        return record;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void report(long now) {
+        long bytesRead = dataReader.getBytesRead();
+
+        // the oldest sample is the one to be replaced next once the ring is full
+        int oldest = sampleCount < RATE_SAMPLE_COUNT ? 0 : nextSample;
+        double seconds = (now - sampleNanos[oldest]) / 1e9;
+
+        double recordsPerSecond = -1;
+        double bytesPerSecond = -1;
+        if (seconds > 0) {
+            recordsPerSecond = (recordCount - sampleRecords[oldest]) / seconds;
+            if (bytesRead >= 0) {
+                bytesPerSecond = (bytesRead - sampleBytes[oldest]) / seconds;
+            }
+        }
+
+        Progress progress = new Progress(recordCount, bytesRead, dataReader.getInputSize(), recordsPerSecond,
+                bytesPerSecond, finished);
+
+        addSample(now, recordCount, Math.max(0, bytesRead));
+        lastReportNanos = now;
+
+        reporter.accept(progress);
+    }
+
+    private void addSample(long nanos, long records, long bytes) {
+        sampleNanos[nextSample] = nanos;
+        sampleRecords[nextSample] = records;
+        sampleBytes[nextSample] = bytes;
+
+        nextSample = (nextSample + 1) % RATE_SAMPLE_COUNT;
+        sampleCount = Math.min(sampleCount + 1, RATE_SAMPLE_COUNT);
+    }
+
+}
@@ -11,16 +11,19 @@ import java.util.stream.Stream;
 /**
  * Record corresponds to a row in a CSV file. The row will have multiple values (corresponding to different
  * columns). Each value is stored as a string. A record also stores the line where the records is stored in
- * the file.
+ * the file and the position of its first character in the file. Both are longs, so that files with more than
+ * 2^31 records or characters are supported.
  */
 public class Record implements Iterable<String> {
 
     private final List<String> values;
-    private final int recordNumber;
+    private final long recordNumber;
+    private final long characterPosition;   // -1 if unknown
 
-    private Record(List<String> values, int recordNumber) {
+    private Record(List<String> values, long recordNumber, long characterPosition) {
         this.values = values;
         this.recordNumber = recordNumber;
+        this.characterPosition = characterPosition;
     }
 
     /**
@@ -33,7 +36,7 @@ public class Record implements Iterable<String> {
         List<String> values = new ArrayList<>(csvRecord.size());
         csvRecord.forEach(value -> values.add(value.trim()));
 
-        return new Record(values, (int) csvRecord.getRecordNumber());
+        return new Record(values, csvRecord.getRecordNumber(), csvRecord.getCharacterPosition());
     }
 
     /**
@@ -43,8 +46,8 @@ public class Record implements Iterable<String> {
      * @param recordNumber the line number of the record.
      * @return the new record, not null.
      */
-    public static Record from(List<String> values, int recordNumber) {
-        return new Record(values, recordNumber);
+    public static Record from(List<String> values, long recordNumber) {
+        return new Record(values, recordNumber, -1);
     }
 
     /**
@@ -63,10 +66,19 @@ public class Record implements Iterable<String> {
      *
      * @return the record's line number.
      */
-    public int getRecordNumber() {
+    public long getRecordNumber() {
         return recordNumber;
     }
 
+    /**
+     * Returns the position of the first character of the record in the file, counting from 0.
+     *
+     * @return the position of the record's first character, or -1 if it is unknown.
+     */
+    public long getCharacterPosition() {
+        return characterPosition;
+    }
+
     /**
      * Returns the number of values the record holds.
      *
@@ -123,7 +135,7 @@ public class Record implements Iterable<String> {
     @Override
     public int hashCode() {
         int result = values != null ? values.hashCode() : 0;
-        result = 31 * result + recordNumber;
+        result = 31 * result + Long.hashCode(recordNumber);
         return result;
     }
 
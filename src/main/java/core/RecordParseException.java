@@ -0,0 +1,29 @@
+package core;
+
+import java.text.ParseException;
+
+/**
+ * Thrown when a record of a data file can not be parsed. The error offset of a ParseException is an int,
+ * which can not hold the number of a record beyond the 2^31th record of a file. This exception keeps the
+ * full record number: use getRecordNumber() instead of getErrorOffset(), which saturates at
+ * Integer.MAX_VALUE.
+ */
+public class RecordParseException extends ParseException {
+
+    private final long recordNumber;
+
+    public RecordParseException(String message, long recordNumber) {
+        super(message, (int) Math.min(recordNumber, Integer.MAX_VALUE));
+        this.recordNumber = recordNumber;
+    }
+
+    /**
+     * Returns the number of the record that could not be parsed.
+     *
+     * @return the number of the record that could not be parsed.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+}
@@ -6,6 +6,7 @@ import org.apache.commons.csv.CSVRecord;
 
 import java.io.*;
 import java.util.Iterator;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Record parser is responsible for parsing a CSV file. Each line in the file is handled as a record. The
@@ -14,13 +15,20 @@ import java.util.Iterator;
 public class RecordParser implements Closeable {
 
     private static final char DELIMITER = ',';
+    private static final int EVENT_BATCH_SIZE = 4096;    // records in each batch parsed event
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
 
     private final CSVParser csvParser;
     private final Iterator<CSVRecord> recordIterator;
+    private final ByteCounter byteCounter;  // null if the bytes read are not known
+    private final long inputSize;           // -1 if the size of the input is not known
 
     private boolean isFirstRecord = true;
     private int expectedColumnCount = 0;
 
+    private int batchRecordCount = 0;
+    private Object batchEvent = null;   // flight recorder event of the current batch, null if not recorded
+
     /**
      * Creates a new record parser.
      *
@@ -28,19 +36,37 @@ public class RecordParser implements Closeable {
      * @throws IOException if an IO error occurs.
      */
     public RecordParser(Reader reader) throws IOException {
-        csvParser = CSVFormat.EXCEL.withDelimiter(DELIMITER).parse(reader);
-        recordIterator = csvParser.iterator();
+        this(reader, null);
     }
 
     /**
-     * Creates a new record parser.
+     * Creates a new record parser. If the name of the file ends with '.gz', the file is decompressed
+     * while it is parsed. The bytes read are always counted in the file itself, before decompressing, so
+     * they can be compared with the size of the file to tell how much of it was parsed. The file is read
+     * through a buffer taken from the buffer pool, which is given back when the parser is closed.
      *
      * @param file the file to be parsed, not null.
      * @throws FileNotFoundException if the file does not exist.
      * @throws IOException if an IO error occurs.
      */
     public RecordParser(File file) throws IOException {
-        this(new FileReader(file));
+        this(new ByteCounter(new PooledInputStream(new FileInputStream(file))), file);
+        FlightRecorderEvents.fileOpened(file, false);
+    }
+
+    private RecordParser(ByteCounter byteCounter, File file) throws IOException {
+        this(new InputStreamReader(decompressed(byteCounter, file)), byteCounter, file.length());
+    }
+
+    private RecordParser(Reader reader, ByteCounter byteCounter) throws IOException {
+        this(reader, byteCounter, -1);
+    }
+
+    private RecordParser(Reader reader, ByteCounter byteCounter, long inputSize) throws IOException {
+        this.csvParser = CSVFormat.EXCEL.withDelimiter(DELIMITER).parse(reader);
+        this.recordIterator = csvParser.iterator();
+        this.byteCounter = byteCounter;
+        this.inputSize = inputSize;
     }
 
     /**
@@ -72,16 +98,39 @@ public class RecordParser implements Closeable {
             } else if (csvRecord.size() != expectedColumnCount) {
                 // this record has different number of columns than expected
                 throw new IllegalRecordSizeException("Row has " + csvRecord.size() + " columns, but " +
-                        expectedColumnCount + " were expected.", (int) csvRecord.getRecordNumber(),
+                        expectedColumnCount + " were expected.", csvRecord.getRecordNumber(),
                         expectedColumnCount, csvRecord.size());
             }
 
             record = Record.from(csvRecord);
         }
 
+        countBatchRecord(record);
         return record;
     }
 
+    /**
+     * Returns the number of bytes read from the file so far. The file is read ahead in blocks, so the
+     * count may be a little ahead of the last record parsed. For compressed files, these are the bytes of
+     * the compressed file. Can be called from any thread.
+     *
+     * @return the number of bytes read, or -1 if the parser was created with a reader instead of a file.
+     */
+    public long getBytesRead() {
+        return byteCounter != null ? byteCounter.getByteCount() : -1;
+    }
+
+    /**
+     * Returns the size of the file being parsed, taken when the parser was created. Once the whole file is
+     * parsed, the bytes read are the same as the size.
+     *
+     * @return the size of the file in bytes, or -1 if the parser was created with a reader instead of a
+     * file.
+     */
+    public long getInputSize() {
+        return inputSize;
+    }
+
     /**
      * Closes the underlying CSV parser.
      *
@@ -92,6 +141,48 @@ public class RecordParser implements Closeable {
         csvParser.close();
     }
 
+    /**
+     * Counts the records in batches for the batch parsed events. The last batch ends with the file.
+     */
+    private void countBatchRecord(Record record) {
+        if (record == null) {
+            if (batchRecordCount > 0) {
+                FlightRecorderEvents.commitBatch(batchEvent, batchRecordCount, getBytesRead());
+                batchRecordCount = 0;
+                batchEvent = null;
+            }
+            return;
+        }
+
+        if (batchRecordCount == 0) {
+            batchEvent = FlightRecorderEvents.beginBatch();
+        }
+
+        if (++batchRecordCount == EVENT_BATCH_SIZE) {
+            FlightRecorderEvents.commitBatch(batchEvent, batchRecordCount, getBytesRead());
+            batchRecordCount = 0;
+            batchEvent = null;
+        }
+    }
+
+    /**
+     * Returns the stream with the contents of the file: the stream itself, or the stream decompressed if
+     * the file is compressed in gzip format.
+     */
+    private static InputStream decompressed(InputStream input, File file) throws IOException {
+        if (!file.getName().endsWith(".gz")) {
+            return input;
+        }
+
+        try {
+            return new GZIPInputStream(input, GZIP_BUFFER_SIZE);
+
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
     /**
      * Checks if the CSV record corresponds to an empty line.
      *
@@ -102,4 +193,71 @@ public class RecordParser implements Closeable {
         return csvRecord.size() == 1 && csvRecord.get(0).trim().isEmpty();
     }
 
+    /**
+     * Counts the bytes read from a stream. The count is written by the thread parsing the records, but may
+     * be read by any thread, for instance to report the progress while the records are parsed on a reader
+     * thread.
+     */
+    private static class ByteCounter extends FilterInputStream {
+
+        private volatile long byteCount = 0;    // only the parsing thread writes the count
+
+        ByteCounter(InputStream input) {
+            super(input);
+        }
+
+        long getByteCount() {
+            return byteCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                byteCount++;
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int readCount = super.read(buffer, offset, length);
+            if (readCount > 0) {
+                byteCount += readCount;
+            }
+
+            return readCount;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = super.skip(length);
+            byteCount += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Buffered stream that reads into a buffer taken from the buffer pool, instead of allocating its own,
+     * and gives it back when closed.
+     */
+    private static class PooledInputStream extends BufferedInputStream {
+
+        PooledInputStream(InputStream input) {
+            super(input, 1);
+            buf = BufferPool.takeReadBuffer();
+        }
+
+        @Override
+        public void close() throws IOException {
+            byte[] buffer = buf;    // closing clears the buffer field
+            super.close();
+
+            if (buffer != null) {
+                BufferPool.giveBack(buffer);
+            }
+        }
+    }
+
 }
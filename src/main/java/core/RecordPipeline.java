@@ -0,0 +1,183 @@
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the records of a record source on a dedicated reader thread, ahead of the thread consuming them.
+ * The records are handed off in batches through a ring buffer, so parsing the input goes on while the
+ * consumer computes statistics or waits for the output. The number of batches read ahead is bounded: when
+ * the ring buffer is full, the reader thread waits for the consumer (back-pressure).
+ *
+ * The records are returned in the same order as the source returns them, and errors found by the reader
+ * thread are thrown by the read call that reaches them, so consuming a pipeline behaves exactly like
+ * consuming the source.
+ */
+class RecordPipeline implements RecordSource, Closeable {
+
+    static final int BATCH_SIZE = 512;
+    static final int PENDING_BATCHES = 16;
+
+    // marks the end of the records for the consumer
+    private static final List<DataRecord> END_OF_RECORDS = Collections.emptyList();
+
+    private final RecordSource source;
+    private final RingBuffer<List<DataRecord>> pendingBatches = new RingBuffer<>(PENDING_BATCHES);
+    private final Thread readerThread;
+
+    private volatile Throwable failure = null;  // error that stopped the reader thread
+    private List<DataRecord> batch = Collections.emptyList();
+    private int batchIndex = 0;
+    private boolean endReached = false;
+
+    /**
+     * Creates a pipeline and starts reading records from the source. The source must not be used by any
+     * other thread until the pipeline is closed.
+     *
+     * @param source the source to read the records from, not null.
+     */
+    RecordPipeline(RecordSource source) {
+        this.source = source;
+        this.readerThread = new Thread(this::readBatches, "statzy-reader");
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Returns the next record, waiting for the reader thread if no record was read ahead.
+     *
+     * @return the next record or null if there are no more records.
+     * @throws ParseException if the source failed to parse the next record.
+     * @throws IOException if the source failed to read the next record or if interrupted while waiting
+     * for the reader thread.
+     */
+    @Override
+    public DataRecord read() throws ParseException, IOException {
+
+        if (batchIndex == batch.size()) {
+            if (endReached) return null;
+
+            takeBatch();
+            if (endReached) {
+                throwFailure();
+                return null;
+            }
+        }
+
+        return batch.get(batchIndex++);
+    }
+
+    /**
+     * Stops the reader thread. Does not close the source.
+     */
+    @Override
+    public void close() {
+        readerThread.interrupt();
+
+        try {
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Body of the reader thread: reads batches of records until the end of the input or an error. The
+     * error is stored before the end marker, so the consumer sees it when it reaches the end marker. Any
+     * error is stored, errors like an OutOfMemoryError included: the end marker is always put, unless the
+     * thread is stopped by close, so the consumer never waits for records that will not come.
+     */
+    private void readBatches() {
+        List<DataRecord> records = new ArrayList<>(BATCH_SIZE);
+        boolean stopped = false;
+
+        try {
+            DataRecord record;
+            while ((record = source.read()) != null) {
+                records.add(record);
+
+                if (records.size() == BATCH_SIZE) {
+                    pendingBatches.put(records);
+                    records = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+
+        } catch (InterruptedException e) {
+            stopped = true;     // stopped by close
+
+        } catch (Throwable e) {
+            failure = e;
+
+        } finally {
+            if (!stopped) {
+                putEndOfRecords(records);
+            }
+        }
+    }
+
+    private void putEndOfRecords(List<DataRecord> records) {
+        try {
+            if (!records.isEmpty()) {
+                pendingBatches.put(records);
+            }
+
+            pendingBatches.put(END_OF_RECORDS);
+
+        } catch (InterruptedException e) {
+            // stopped by close
+        }
+    }
+
+    private void takeBatch() throws InterruptedIOException {
+        try {
+            batch = pendingBatches.take();
+            batchIndex = 0;
+            endReached = batch == END_OF_RECORDS;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the records to be read");
+        }
+    }
+
+    private void throwFailure() throws ParseException, IOException {
+        if (failure instanceof ParseException) {
+            throw (ParseException) failure;
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+
+        if (failure != null) {
+            // not reached: the source only throws parse and IO exceptions
+            throw new IOException("Failed to read the records", failure);
+        }
+    }
+
+}
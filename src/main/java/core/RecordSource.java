@@ -0,0 +1,21 @@
+package core;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Source of the records processed by the statistics generator: a data record reader, a pipeline reading
+ * ahead of the generator, or a source counting the records it reads.
+ */
+interface RecordSource {
+
+    /**
+     * Returns the next record.
+     *
+     * @return the next record or null if there are no more records.
+     * @throws ParseException if the next record is not valid.
+     * @throws IOException if an IO error occurs.
+     */
+    DataRecord read() throws ParseException, IOException;
+
+}
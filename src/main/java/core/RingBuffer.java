@@ -0,0 +1,109 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue to hand off items from one thread (the producer) to another thread (the consumer). The
+ * items are stored in a ring array and the two threads only coordinate through two counters, without any
+ * locks: the producer only moves the tail and the consumer only moves the head.
+ *
+ * When the ring is full, the producer waits for the consumer to take an item (back-pressure), and when the
+ * ring is empty, the consumer waits for the producer to put an item. A waiting thread spins for a moment,
+ * then yields, and then parks for short periods, so it does not burn a core while the other thread is
+ * blocked on IO.
+ *
+ * It must be used by a single producer and a single consumer.
+ */
+final class RingBuffer<T> {
+
+    private static final int SPIN_WAITS = 100;
+    private static final int YIELD_WAITS = 200;
+    private static final long PARK_NANOS = 50_000;
+
+    private final Object[] slots;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();    // position of the next item to take
+    private final AtomicLong tail = new AtomicLong();    // position of the next item to put
+
+    /**
+     * Creates a ring buffer with at least the specified capacity. The capacity is rounded up to a power of
+     * two.
+     *
+     * @param capacity the minimum number of items the ring buffer holds.
+     * @throws IllegalArgumentException if the capacity is not positive or is above 2^30.
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 1 and 2^30, but got " +
+                    capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Puts an item in the ring buffer. Waits while the ring buffer is full. Must only be called by the
+     * producer.
+     *
+     * @param item the item to put, not null.
+     * @throws InterruptedException if the producer is interrupted while waiting.
+     */
+    void put(T item) throws InterruptedException {
+        long position = tail.get();
+
+        for (int waits = 0; position - head.get() == slots.length; waits++) {
+            waitBriefly(waits);
+        }
+
+        slots[(int) position & mask] = item;
+        tail.lazySet(position + 1);     // publishes the item
+    }
+
+    /**
+     * Takes the oldest item from the ring buffer. Waits while the ring buffer is empty. Must only be called
+     * by the consumer.
+     *
+     * @return the oldest item, not null.
+     * @throws InterruptedException if the consumer is interrupted while waiting.
+     */
+    @SuppressWarnings("unchecked")
+    T take() throws InterruptedException {
+        long position = head.get();
+
+        for (int waits = 0; position == tail.get(); waits++) {
+            waitBriefly(waits);
+        }
+
+        int index = (int) position & mask;
+        T item = (T) slots[index];
+        slots[index] = null;
+        head.lazySet(position + 1);     // frees the slot
+
+        return item;
+    }
+
+    private static void waitBriefly(int waits) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        if (waits < SPIN_WAITS) {
+            return;
+        }
+
+        if (waits < YIELD_WAITS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SlidingWindowStatistics computes the same statistics as the GroupStatistics (count, mean, and standard
+ * deviation of each data set) over a window that slides over time.
+ *
+ * Entries are added to the current slide. When the slide ends, its statistics are pushed into the window and
+ * the statistics of the oldest slide leave the window. The statistics of the window are obtained by
+ * combining the statistics of its slides, kept in two stacks: the newest slides are combined into a single
+ * running aggregate as they enter, and the oldest slides are kept as suffix aggregates, so that removing the
+ * oldest slide is just a pop. This way, the cost of each slide is constant (amortized) no matter how many
+ * slides fit in the window, and entries are never added or removed more than once.
+ */
+public class SlidingWindowStatistics {
+
+    private final int dataSetCount;
+    private final int slideCount;
+
+    private final Moments currentSlide;
+
+    // newest slides, from oldest to newest, and their aggregate
+    private final Moments[] backSlides;
+    private final Moments backAggregate;
+    private int backSize = 0;
+
+    // oldest slides: each position aggregates its slide with all newer slides in this stack
+    private final Moments[] frontAggregates;
+    private int frontSize = 0;
+
+    private final Moments window;
+
+    /**
+     * Creates a SlidingWindowStatistics with a specified number of data sets.
+     *
+     * @param dataSetCount the number of different data sets to compute for.
+     * @param slideCount   the number of slides that fit in the window.
+     */
+    public SlidingWindowStatistics(int dataSetCount, int slideCount) {
+        this.dataSetCount = dataSetCount;
+        this.slideCount = slideCount;
+        this.currentSlide = new Moments(dataSetCount);
+        this.backSlides = newMoments(slideCount, dataSetCount);
+        this.backAggregate = new Moments(dataSetCount);
+        this.frontAggregates = newMoments(slideCount, dataSetCount);
+        this.window = new Moments(dataSetCount);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Public Interface
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    /**
+     * Adds a new entry of values for each data set to the current slide. The input values must be always
+     * in the same order.
+     *
+     * @param values the list with the values for each data set, not null.
+     * @throws IllegalArgumentException if the number of values is different from the number of data sets.
+     */
+    public void addEntry(List<Double> values) {
+
+        if (values.size() != dataSetCount) {
+            throw new IllegalArgumentException("Group statistics expected " + dataSetCount + " " +
+                    "items but got " + values.size());
+        }
+
+        currentSlide.add(values);
+    }
+
+    /**
+     * Ends the current slide: its entries enter the window and, if the window is full, the entries of the
+     * oldest slide leave the window. The statistics returned afterwards correspond to the window ending
+     * with the slide that just ended. A new empty slide is started.
+     */
+    public void slide() {
+
+        if (frontSize + backSize == slideCount) {
+            evictOldestSlide();
+        }
+
+        backSlides[backSize++].set(currentSlide);
+        backAggregate.combine(currentSlide);
+        currentSlide.clear();
+
+        window.set(frontSize > 0 ? frontAggregates[frontSize - 1] : backAggregate);
+        if (frontSize > 0) {
+            window.combine(backAggregate);
+        }
+    }
+
+    /**
+     * Returns the number of values in each data set of the window.
+     *
+     * @return the number of values in each data set of the window.
+     */
+    public long getCount() {
+        return window.getCount();
+    }
+
+    /**
+     * Returns a list with the means for each data set of the window.
+     *
+     * @return the list with the means for each data set, not null.
+     */
+    public List<Double> getMeans() {
+        List<Double> means = new ArrayList<>(dataSetCount);
+        for (int i = 0; i < dataSetCount; i++) {
+            means.add(window.getMean(i));
+        }
+
+        return means;
+    }
+
+    /**
+     * Returns a list with the standard deviations for each data set of the window.
+     *
+     * @return the list with the standard deviations for each data set, not null.
+     */
+    public List<Double> getStandardDeviations() {
+        List<Double> standardDeviations = new ArrayList<>(dataSetCount);
+        for (int i = 0; i < dataSetCount; i++) {
+            standardDeviations.add(window.getStandardDeviation(i));
+        }
+
+        return standardDeviations;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     *  Private Helper Methods
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+    private void evictOldestSlide() {
+
+        if (frontSize == 0) {
+            // move the slides from the back to the front stack, from newest to oldest, so that the oldest
+            // slide ends up on the top
+            for (int i = backSize - 1; i >= 0; i--) {
+                Moments aggregate = frontAggregates[frontSize];
+                aggregate.set(backSlides[i]);
+                if (frontSize > 0) {
+                    aggregate.combine(frontAggregates[frontSize - 1]);
+                }
+
+                frontSize++;
+            }
+
+            backSize = 0;
+            backAggregate.clear();
+        }
+
+        frontSize--;
+    }
+
+    private static Moments[] newMoments(int length, int dataSetCount) {
+        Moments[] moments = new Moments[length];
+        for (int i = 0; i < length; i++) {
+            moments[i] = new Moments(dataSetCount);
+        }
+
+        return moments;
+    }
+
+}
@@ -2,8 +2,8 @@ package core;
 
 import java.io.IOException;
 import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The statistics generator is the 'engine' behind statzy. Reads the data records from the input file,
@@ -11,7 +11,18 @@ import java.util.List;
  */
 public class StatisticsGenerator {
 
-    private final List<ProgressListener> listeners = new ArrayList<>();
+    // listeners may be added and removed by any thread, even while they are being notified
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private GapPolicy gapPolicy = GapPolicy.EMPTY_ROWS;
+    private boolean pipelined = false;
+    private double notificationRate = 0;        // 0 if every update is notified by the processing thread
+    private ProcessingMetrics metrics = null;   // null if the processing is not measured
+    private Object periodEvent = null;          // flight recorder event of the current period, may be null
+    private ProgressDispatcher dispatcher = null;   // null if not processing with a notification rate
+
+    private interface RecordProcessor {
+        void process(RecordSource records) throws ParseException, IOException;
+    }
 
     /**
      * This method is the entry point to process an input file, compute the statistics and output the
@@ -19,6 +30,17 @@ public class StatisticsGenerator {
      * records according to the specified period and computes the statistics for each of this groups.
      * Outputs every result to a files using a pre-configured data file writer.
      *
+     * If the data file reader is configured with a key column, the statistics are computed for each key in
+     * each period and the writer outputs one row for each key with records in the period. In that case,
+     * periods without records do not output any row.
+     *
+     * Periods without records, between two periods with records, are output according to the gap policy
+     * (see setGapPolicy). The generator jumps straight from the last period with records to the period of
+     * the next record, so long gaps only cost the rows the gap policy outputs.
+     *
+     * If the data file writer has an anomaly writer, the values flagged by its AnomalyDetector aggregators
+     * are written to it as the records are read, so the input file is only read once.
+     *
      * @param dataReader the pre-configured data file reader used to read the input data records.
      * @param dataWriter the pre-configured data file writer used to output the results.
      * @param period     the period defined for each data group.
@@ -27,42 +49,370 @@ public class StatisticsGenerator {
     public void process(DataRecordReader dataReader, DataFileWriter dataWriter, Period period)
             throws ParseException, IOException {
 
-        DataRecord record = dataReader.read();  // read first record
+        readRecords(dataReader, records -> process(records, dataWriter, period));
+    }
+
+    private void process(RecordSource records, DataFileWriter dataWriter, Period period)
+            throws ParseException, IOException {
+
+        DataRecord record = records.read();  // read first record
         if (record == null) return;
 
+        if (record.getKey() != null) {
+            processByKey(record, records, dataWriter, period);
+            return;
+        }
+
         int valueCount = record.getDataValues().size();
-        GroupStatistics groupStatistics = new GroupStatistics(valueCount);
+        GroupStatistics groupStatistics = new GroupStatistics(valueCount, dataWriter.getAggregators(),
+                dataWriter.getMatrixWriter() != null);
 
-        Timestamp currentPeriod = record.getTimestamp().truncatedTo(period.getUnit());
-        Timestamp nextPeriod = currentPeriod.plus(period);
-        notifyProcessingPeriod(currentPeriod, nextPeriod);
+        PeriodCursor cursor = new PeriodCursor(record.getTimestamp(), period);
+        notifyProcessingPeriod(cursor);
 
         while (record != null) {
 
-            while (!record.getTimestamp().predates(nextPeriod)) {
-                dataWriter.write(currentPeriod, groupStatistics.getCount(), groupStatistics.getMeans(),
-                        groupStatistics.getStandardDeviations());
+            if (cursor.isPast(record.getTimestamp())) {
+                write(dataWriter, cursor.getLowerBound(), groupStatistics);
 
                 groupStatistics.clear();
 
-                currentPeriod = nextPeriod;
-                nextPeriod = currentPeriod.plus(period);
-                notifyProcessingPeriod(currentPeriod, nextPeriod);
+                long emptyPeriodCount = cursor.periodsUntil(record.getTimestamp());
+                if (emptyPeriodCount > 0) {
+                    writeEmptyPeriods(dataWriter, cursor.getUpperBound(), period, emptyPeriodCount,
+                            groupStatistics);
+                }
+
+                cursor.advance(emptyPeriodCount);
+                notifyProcessingPeriod(cursor);
             }
 
+            if (dataWriter.getAnomalyWriter() != null) {
+                writeAnomalies(dataWriter.getAnomalyWriter(), record, groupStatistics);
+            }
+
+            long aggregateStart = metricsClock();
             groupStatistics.addEntry(record.getDataValues());
-            record = dataReader.read();
+            addAggregateTime(aggregateStart);
+            record = records.read();
         }
 
         if (groupStatistics.getCount() > 0) {
-            dataWriter.write(currentPeriod, groupStatistics.getCount(), groupStatistics.getMeans(),
-                    groupStatistics.getStandardDeviations());
+            write(dataWriter, cursor.getLowerBound(), groupStatistics);
+        }
+
+    }
+
+    /**
+     * Processes an input file like the process method with a period, but computes the statistics over a
+     * sliding window: a row is output at the end of each slide, with the statistics of the window ending
+     * with that slide. The timestamp of each row is the lower-bound of its window. The first windows may
+     * start before the first record and the last windows are output until the last record leaves the window.
+     *
+     * Windows without records, between two windows with records, are output according to the gap policy
+     * (see setGapPolicy). Once the window is empty, the generator jumps straight to the slide of the next
+     * record, so long gaps only cost the rows the gap policy outputs.
+     *
+     * Only the count, mean, and standard deviation are computed over sliding windows: records grouped by
+     * key, aggregators, and covariance matrices are not supported.
+     *
+     * @param dataReader the pre-configured data file reader used to read the input data records.
+     * @param dataWriter the pre-configured data file writer used to output the results.
+     * @param window     the size and slide of the windows.
+     * @throws ParseException if the input data file is not valid or some line in the file is corrupted.
+     * @throws IllegalArgumentException if the records are grouped by key or if the data file writer is
+     * configured with aggregators or with a matrix writer.
+     */
+    public void process(DataRecordReader dataReader, DataFileWriter dataWriter, Window window)
+            throws ParseException, IOException {
+
+        readRecords(dataReader, records -> process(records, dataWriter, window));
+    }
+
+    private void process(RecordSource records, DataFileWriter dataWriter, Window window)
+            throws ParseException, IOException {
+
+        DataRecord record = records.read();  // read first record
+        if (record == null) return;
+
+        if (record.getKey() != null || !dataWriter.getAggregators().isEmpty()
+                || dataWriter.getMatrixWriter() != null) {
+            throw new IllegalArgumentException("Keys, aggregators and covariance matrices are not " +
+                    "supported with sliding windows.");
+        }
+
+        SlidingWindowStatistics windowStatistics = new SlidingWindowStatistics(record.getDataValues().size(),
+                window.getSlideCount());
+
+        Period slide = window.getSlide();
+        Period size = window.getSize();
+
+        PeriodCursor cursor = new PeriodCursor(record.getTimestamp(), slide);
+        notifyProcessingPeriod(cursor);
+
+        while (record != null) {
+
+            while (cursor.isPast(record.getTimestamp())) {
+                windowStatistics.slide();
+
+                if (windowStatistics.getCount() == 0) {
+                    // the window is empty, and so is every window until the record enters the window
+                    long emptyWindowCount = cursor.periodsUntil(record.getTimestamp()) + 1;
+                    writeEmptyPeriods(dataWriter, cursor.getUpperBound().minus(size), slide, emptyWindowCount,
+                            windowStatistics.getMeans(), windowStatistics.getStandardDeviations());
+
+                    cursor.advance(emptyWindowCount - 1);
+                    notifyProcessingPeriod(cursor);
+                    break;
+                }
+
+                write(dataWriter, cursor.getUpperBound().minus(size), windowStatistics);
+
+                cursor.advance();
+                notifyProcessingPeriod(cursor);
+            }
+
+            long aggregateStart = metricsClock();
+            windowStatistics.addEntry(record.getDataValues());
+            addAggregateTime(aggregateStart);
+            record = records.read();
+        }
+
+        // keep sliding until the last record leaves the window
+        windowStatistics.slide();
+        while (windowStatistics.getCount() > 0) {
+            write(dataWriter, cursor.getUpperBound().minus(size), windowStatistics);
+
+            cursor.advance();
+            windowStatistics.slide();
+        }
+    }
+
+    /**
+     * Processes an input file like the process method, but outputs exponentially weighted moving (EWMA)
+     * means and standard deviations instead of the statistics of each period. A row is still output for
+     * each period, with the number of records in the period and the weighted statistics at the end of the
+     * period. The weighted statistics are not cleared between periods, so periods without records repeat
+     * the statistics of the previous period. Periods without records, between two periods with records, are
+     * output according to the gap policy (see setGapPolicy), and the generator jumps straight to the period
+     * of the next record, so long gaps only cost the rows the gap policy outputs.
+     *
+     * Only the count, mean, and standard deviation are computed: records grouped by key, aggregators, and
+     * covariance matrices are not supported.
+     *
+     * @param dataReader the pre-configured data file reader used to read the input data records.
+     * @param dataWriter the pre-configured data file writer used to output the results.
+     * @param period     the period between two consecutive rows.
+     * @param halfLife   the time after which the weight of a record is halved.
+     * @throws ParseException if the input data file is not valid or some line in the file is corrupted.
+     * @throws IllegalArgumentException if the records are grouped by key or if the data file writer is
+     * configured with aggregators or with a matrix writer.
+     */
+    public void processExponentiallyWeighted(DataRecordReader dataReader, DataFileWriter dataWriter,
+                                             Period period, Period halfLife)
+            throws ParseException, IOException {
+
+        readRecords(dataReader, records ->
+                processExponentiallyWeighted(records, dataWriter, period, halfLife));
+    }
+
+    private void processExponentiallyWeighted(RecordSource records, DataFileWriter dataWriter,
+                                              Period period, Period halfLife)
+            throws ParseException, IOException {
+
+        DataRecord record = records.read();  // read first record
+        if (record == null) return;
+
+        if (record.getKey() != null || !dataWriter.getAggregators().isEmpty()
+                || dataWriter.getMatrixWriter() != null) {
+            throw new IllegalArgumentException("Keys, aggregators and covariance matrices are not " +
+                    "supported with exponentially weighted statistics.");
+        }
+
+        ExponentialStatistics statistics = new ExponentialStatistics(record.getDataValues().size(), halfLife);
+
+        PeriodCursor cursor = new PeriodCursor(record.getTimestamp(), period);
+        notifyProcessingPeriod(cursor);
+
+        while (record != null) {
+
+            if (cursor.isPast(record.getTimestamp())) {
+                write(dataWriter, cursor.getLowerBound(), statistics);
+
+                statistics.resetCount();
+
+                // the weighted statistics only change with records: empty periods repeat them
+                long emptyPeriodCount = cursor.periodsUntil(record.getTimestamp());
+                if (emptyPeriodCount > 0) {
+                    writeEmptyPeriods(dataWriter, cursor.getUpperBound(), period, emptyPeriodCount,
+                            statistics.getMeans(), statistics.getStandardDeviations());
+                }
+
+                cursor.advance(emptyPeriodCount);
+                notifyProcessingPeriod(cursor);
+            }
+
+            long aggregateStart = metricsClock();
+            statistics.addEntry(record.getTimestamp(), record.getDataValues());
+            addAggregateTime(aggregateStart);
+            record = records.read();
+        }
+
+        if (statistics.getCount() > 0) {
+            write(dataWriter, cursor.getLowerBound(), statistics);
+        }
+    }
+
+    /**
+     * Processes the records grouping them by period and key. Works exactly like the process method, but
+     * keeps statistics for each key.
+     *
+     * @param record the first record, already read from the records.
+     * @throws IllegalArgumentException if the data file writer is configured with aggregators or with a
+     * matrix writer, which are not supported when grouping by key.
+     */
+    private void processByKey(DataRecord record, RecordSource records, DataFileWriter dataWriter,
+                              Period period) throws ParseException, IOException {
+
+        if (!dataWriter.getAggregators().isEmpty() || dataWriter.getMatrixWriter() != null) {
+            throw new IllegalArgumentException("Aggregators and covariance matrices are not supported " +
+                    "when grouping the records by key.");
+        }
+
+        KeyedGroupStatistics keyedStatistics = new KeyedGroupStatistics(record.getDataValues().size());
+
+        PeriodCursor cursor = new PeriodCursor(record.getTimestamp(), period);
+        notifyProcessingPeriod(cursor);
+
+        while (record != null) {
+
+            if (cursor.isPast(record.getTimestamp())) {
+                write(dataWriter, cursor.getLowerBound(), keyedStatistics);
+
+                keyedStatistics.clear();
+
+                // empty periods do not output any rows when grouping by key
+                cursor.advance(cursor.periodsUntil(record.getTimestamp()));
+                notifyProcessingPeriod(cursor);
+            }
+
+            long aggregateStart = metricsClock();
+            keyedStatistics.addEntry(record.getKey(), record.getDataValues());
+            addAggregateTime(aggregateStart);
+            record = records.read();
+        }
+
+        write(dataWriter, cursor.getLowerBound(), keyedStatistics);
+    }
+
+    /**
+     * Sets the policy used to output the periods without records, between two periods with records. By
+     * default, a row is output for each empty period. When grouping records by key, empty periods never
+     * output any rows. The policy also applies to the empty windows of sliding windows, and to the empty
+     * periods of exponentially weighted statistics, whose rows repeat the weighted statistics of the last
+     * period with records.
+     *
+     * @param gapPolicy the policy for empty periods, not null.
+     */
+    public void setGapPolicy(GapPolicy gapPolicy) {
+        this.gapPolicy = gapPolicy;
+    }
+
+    /**
+     * Returns the policy used to output the periods without records.
+     *
+     * @return the policy for empty periods, not null.
+     */
+    public GapPolicy getGapPolicy() {
+        return gapPolicy;
+    }
+
+    /**
+     * Sets whether the input is parsed on its own thread. When pipelined, a reader thread parses the
+     * records ahead of the generator and hands them off in batches through a bounded ring buffer, so
+     * parsing goes on while the generator computes the statistics. To also format and write the output on
+     * its own threads, build the data file writer with pipelined output (or with formatting threads): the
+     * three stages then run concurrently, each waiting for the next when its buffer is full. The output is
+     * the same with or without the pipeline. By default, the input is parsed by the thread calling the
+     * process methods.
+     *
+     * @param pipelined true to parse the input on its own thread.
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Indicates whether the input is parsed on its own thread.
+     *
+     * @return true if the input is parsed on its own thread.
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Sets the maximum rate at which the progress listeners are notified. With a rate, the processing
+     * thread only publishes the latest period and progress, and a notification thread notifies the
+     * listeners at most that many times per second, with the latest updates only: updates published in
+     * between are coalesced. The listeners are always notified of the last period and of the final
+     * progress before the process methods return. This keeps slow listeners, like user interfaces, from
+     * slowing down the processing when the periods are short.
+     *
+     * By default, the rate is 0: the listeners are notified of every update, by the processing thread.
+     * Rates above 1000 notifications per second are lowered to 1000, and the listeners are notified at
+     * least once per hour with any rate.
+     *
+     * @param updatesPerSecond the maximum number of notifications per second, or 0 to notify every update
+     *                         from the processing thread.
+     * @throws IllegalArgumentException if the rate is negative, infinite, or not a number.
+     */
+    public void setNotificationRate(double updatesPerSecond) {
+        if (!(updatesPerSecond >= 0) || Double.isInfinite(updatesPerSecond)) {
+            throw new IllegalArgumentException("The notification rate must be a finite number, not " +
+                    "negative, but got " + updatesPerSecond);
         }
 
+        this.notificationRate = updatesPerSecond;
+    }
+
+    /**
+     * Returns the maximum rate at which the progress listeners are notified.
+     *
+     * @return the maximum number of notifications per second, or 0 if every update is notified.
+     */
+    public double getNotificationRate() {
+        return notificationRate;
+    }
+
+    /**
+     * Sets the metrics updated while processing: records parsed, bytes read, periods output, parse errors,
+     * and the time spent parsing, aggregating, and writing. The same metrics can be used for several
+     * inputs, to get the totals. By default, the processing is not measured, which avoids reading the clock
+     * for each record.
+     *
+     * @param metrics the metrics to update, or null to stop measuring the processing.
+     */
+    public void setMetrics(ProcessingMetrics metrics) {
+        this.metrics = metrics;
     }
 
     /**
-     * Adds a new progress listener to be notified of progress updates.
+     * Returns the metrics updated while processing. Progress listeners can read them at any time, for
+     * instance when notified of a new period.
+     *
+     * @return the metrics, or null if the processing is not measured.
+     */
+    public ProcessingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds a new progress listener to be notified of progress updates. Throughput listeners are also
+     * notified of the progress in the input, a few times per second, so they can show how much of the
+     * input was read, how fast, and how long it should take to read the rest. Listeners can be added and
+     * removed at any time, from any thread, but throughput listeners added while processing an input are
+     * only notified of the progress in the next input.
      *
      * @param listener the listener to add.
      */
@@ -79,8 +429,255 @@ public class StatisticsGenerator {
         listeners.remove(listener);
     }
 
-    private void notifyProcessingPeriod(Timestamp lowerBound, Timestamp upperBound) {
-        listeners.forEach(listener -> listener.notifyProcessingPeriod(lowerBound, upperBound));
+    /**
+     * Gives the records of a data record reader to a processor, either directly or through a record
+     * pipeline, which is stopped when the processor returns or fails. The records are counted in the
+     * metrics, if there are any, and the progress is reported to the throughput listeners, if there are
+     * any, as the processor consumes the records.
+     */
+    private void readRecords(DataRecordReader dataReader, RecordProcessor processor)
+            throws ParseException, IOException {
+
+        RecordSource source = metrics != null
+                ? new MeteredRecordSource(dataReader, metrics)
+                : dataReader::read;
+
+        try (ProgressDispatcher dispatcher = notificationRate > 0
+                ? new ProgressDispatcher(listeners, notificationRate)
+                : null) {
+
+            this.dispatcher = dispatcher;
+
+            if (!pipelined) {
+                processor.process(tracked(source, dataReader));
+                return;
+            }
+
+            try (RecordPipeline pipeline = new RecordPipeline(source)) {
+                processor.process(tracked(pipeline, dataReader));
+            }
+
+        } finally {
+            this.dispatcher = null;
+        }
+    }
+
+    /**
+     * Returns a source that reports the progress to the throughput listeners, or the source itself if none
+     * of the listeners is a throughput listener.
+     */
+    private RecordSource tracked(RecordSource source, DataRecordReader dataReader) {
+        for (ProgressListener listener : listeners) {
+            if (listener instanceof ThroughputListener) {
+                return new ProgressTracker(source, dataReader, this::notifyProgress);
+            }
+        }
+
+        return source;
+    }
+
+    /**
+     * Writes the statistics of a period. The results of the aggregators and the covariance matrix are only
+     * written when the data writer is configured for them.
+     */
+    private void write(DataFileWriter dataWriter, Timestamp period, GroupStatistics groupStatistics)
+            throws IOException {
+
+        long start = metricsClock();
+
+        if (groupStatistics.hasAggregators() || groupStatistics.getCovarianceMatrix() != null) {
+            dataWriter.write(period, groupStatistics);
+        } else {
+            dataWriter.write(period, groupStatistics.getCount(), groupStatistics.getMeans(),
+                    groupStatistics.getStandardDeviations());
+        }
+
+        addWriteTime(start, 1);
+        commitPeriodEvent(period, groupStatistics.getCount(), 1);
+    }
+
+    /**
+     * Outputs a sequence of empty periods according to the gap policy. The statistics must be empty. Empty
+     * rows are all the same except for the timestamp, so the statistics are only obtained once.
+     */
+    private void writeEmptyPeriods(DataFileWriter dataWriter, Timestamp firstPeriod, Period period,
+                                   long periodCount, GroupStatistics emptyStatistics) throws IOException {
+
+        if (gapPolicy == GapPolicy.EMPTY_ROWS
+                && (emptyStatistics.hasAggregators() || emptyStatistics.getCovarianceMatrix() != null)) {
+
+            long start = metricsClock();
+            Timestamp emptyPeriod = firstPeriod;
+
+            for (long i = 0; i < periodCount; i++) {
+                dataWriter.write(emptyPeriod, emptyStatistics);
+                emptyPeriod = emptyPeriod.plus(period);
+            }
+
+            addWriteTime(start, periodCount);
+            return;
+        }
+
+        writeEmptyPeriods(dataWriter, firstPeriod, period, periodCount, emptyStatistics.getMeans(),
+                emptyStatistics.getStandardDeviations());
+    }
+
+    /**
+     * Outputs a sequence of periods, or windows, without records according to the gap policy. The rows of
+     * the periods have a count of 0 and the given statistics.
+     */
+    private void writeEmptyPeriods(DataFileWriter dataWriter, Timestamp firstPeriod, Period period,
+                                   long periodCount, List<Double> means, List<Double> standardDeviations)
+            throws IOException {
+
+        long start = metricsClock();
+
+        switch (gapPolicy) {
+            case EMPTY_ROWS:
+                Timestamp emptyPeriod = firstPeriod;
+
+                for (long i = 0; i < periodCount; i++) {
+                    dataWriter.write(emptyPeriod, 0, means, standardDeviations);
+                    emptyPeriod = emptyPeriod.plus(period);
+                }
+
+                addWriteTime(start, periodCount);
+                break;
+
+            case MARKER:
+                dataWriter.writeGap(firstPeriod);
+                addWriteTime(start, 1);
+                break;
+
+            case SKIP:
+                break;
+        }
+    }
+
+    private void write(DataFileWriter dataWriter, Timestamp window, SlidingWindowStatistics statistics)
+            throws IOException {
+
+        long start = metricsClock();
+        dataWriter.write(window, statistics.getCount(), statistics.getMeans(),
+                statistics.getStandardDeviations());
+        addWriteTime(start, 1);
+        commitPeriodEvent(window, statistics.getCount(), 1);
+    }
+
+    private void write(DataFileWriter dataWriter, Timestamp period, ExponentialStatistics statistics)
+            throws IOException {
+
+        long start = metricsClock();
+        dataWriter.write(period, statistics.getCount(), statistics.getMeans(),
+                statistics.getStandardDeviations());
+        addWriteTime(start, 1);
+        commitPeriodEvent(period, statistics.getCount(), 1);
+    }
+
+    /**
+     * Writes the statistics of each key with records in a period, by the order the keys were first seen.
+     */
+    private void write(DataFileWriter dataWriter, Timestamp period, KeyedGroupStatistics statistics)
+            throws IOException {
+
+        long start = metricsClock();
+        long rowCount = 0;
+        long recordCount = 0;
+
+        for (int slot = 0; slot < statistics.getSlotCount(); slot++) {
+            if (statistics.getCount(slot) > 0) {
+                dataWriter.write(period, statistics.getKey(slot), statistics.getCount(slot),
+                        statistics.getMeans(slot), statistics.getStandardDeviations(slot));
+                rowCount++;
+                recordCount += statistics.getCount(slot);
+            }
+        }
+
+        addWriteTime(start, rowCount);
+        commitPeriodEvent(period, recordCount, rowCount);
+    }
+
+    /**
+     * Writes every value of a record flagged by any of the anomaly detectors in the statistics.
+     */
+    private static void writeAnomalies(AnomalyFileWriter anomalyWriter, DataRecord record,
+                                       GroupStatistics statistics) throws IOException {
+
+        List<Double> values = record.getDataValues();
+        for (int i = 0; i < values.size(); i++) {
+            for (Aggregator aggregator : statistics.getAggregators(i)) {
+                if (aggregator instanceof AnomalyDetector) {
+                    AnomalyDetector detector = (AnomalyDetector) aggregator;
+                    double value = values.get(i);
+
+                    if (detector.isAnomaly(value)) {
+                        anomalyWriter.write(record, i, detector.score(value));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the current time for the metrics, or 0 without reading the clock if there are no metrics.
+     */
+    private long metricsClock() {
+        return metrics != null ? System.nanoTime() : 0;
+    }
+
+    private void addAggregateTime(long start) {
+        if (metrics != null) {
+            metrics.addAggregateNanos(System.nanoTime() - start);
+        }
+    }
+
+    private void addWriteTime(long start, long periodCount) {
+        if (metrics != null) {
+            metrics.addPeriodsEmitted(periodCount, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Commits the flight recorder event of the current period, if it is recorded. Periods output by the
+     * gap policy and the last windows, output after the last record, have no events of their own.
+     */
+    private void commitPeriodEvent(Timestamp period, long recordCount, long rowCount) {
+        FlightRecorderEvents.commitPeriod(periodEvent, period, recordCount, rowCount);
+        periodEvent = null;
+    }
+
+    /**
+     * Notifies the listeners of the current period of a cursor. The bounds of the period are only created
+     * as timestamps if there are listeners.
+     */
+    private void notifyProcessingPeriod(PeriodCursor cursor) {
+        periodEvent = FlightRecorderEvents.beginPeriod();
+        if (listeners.isEmpty()) return;
+
+        Timestamp lowerBound = cursor.getLowerBound();
+        Timestamp upperBound = cursor.getUpperBound();
+
+        if (dispatcher != null) {
+            dispatcher.publishPeriod(lowerBound, upperBound);
+            return;
+        }
+
+        for (ProgressListener listener : listeners) {
+            listener.notifyProcessingPeriod(lowerBound, upperBound);
+        }
+    }
+
+    private void notifyProgress(Progress progress) {
+        if (dispatcher != null) {
+            dispatcher.publishProgress(progress);
+            return;
+        }
+
+        for (ProgressListener listener : listeners) {
+            if (listener instanceof ThroughputListener) {
+                ((ThroughputListener) listener).notifyProgress(progress);
+            }
+        }
     }
 
 }
@@ -0,0 +1,19 @@
+package core;
+
+/**
+ * Progress listener that is also told how much of the input was read and how fast, so it can show a
+ * progress bar, the throughput, and an estimate of the time remaining.
+ */
+public interface ThroughputListener extends ProgressListener {
+
+    /**
+     * Notifies the listener of the progress in the input. Called a few times per second while the input is
+     * read, and once more when all of the input was read. Called from the thread calling the process
+     * methods of the statistics generator or, if the generator has a notification rate, from its
+     * notification thread.
+     *
+     * @param progress the progress in the input, not null.
+     */
+    void notifyProgress(Progress progress);
+
+}
@@ -2,6 +2,7 @@ package core;
 
 import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 
 /**
@@ -11,6 +12,8 @@ public class Timestamp implements Comparable<Timestamp> {
 
     public static final Timestamp MIN = new Timestamp(LocalDateTime.MIN);
 
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
     // Timestamp uses Java's Instant class underneath to represent the timestamp instant
     final LocalDateTime dateTime;  // should only be accessed by the TimestampFormatter class
 
@@ -41,6 +44,65 @@ public class Timestamp implements Comparable<Timestamp> {
         return new Timestamp(LocalDateTime.of(year, month, day, hour, minute, second));
     }
 
+    /**
+     * Obtains an instance of Timestamp from year, month, day, hour, minute, second and nanosecond. The day
+     * must be valid for the year and month, otherwise an exception will be thrown.
+     *
+     * @param year         calendar year.
+     * @param month        month of the year (value between 1-12).
+     * @param day          day of the month (value between 1-31).
+     * @param hour         hour of day (value between 0-23).
+     * @param minute       minute of hour (value between 0-59).
+     * @param second       second of minute (value between 0-59).
+     * @param nanoOfSecond nano of second (value between 0-999,999,999).
+     * @return the timestamp, not null.
+     * @throws DateTimeException if the value of any field is out of range, or if the day-of-month is
+     * invalid for the month-year.
+     */
+    public static Timestamp of(int year, int month, int day, int hour, int minute, int second,
+                               int nanoOfSecond) {
+        return new Timestamp(LocalDateTime.of(year, month, day, hour, minute, second, nanoOfSecond));
+    }
+
+    /**
+     * Obtains an instance of Timestamp from the number of nanoseconds since the epoch
+     * (1970-01-01T00:00:00). Timestamps have no time-zone: the epoch is taken at UTC.
+     *
+     * @param epochNanos the number of nanoseconds since the epoch, negative for timestamps before it.
+     * @return the timestamp, not null.
+     */
+    public static Timestamp ofEpochNanos(long epochNanos) {
+        long epochSecond = Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+        int nanoOfSecond = (int) Math.floorMod(epochNanos, NANOS_PER_SECOND);
+
+        return new Timestamp(LocalDateTime.ofEpochSecond(epochSecond, nanoOfSecond, ZoneOffset.UTC));
+    }
+
+    /**
+     * Obtains an instance of Timestamp from a number of units since the epoch (1970-01-01T00:00:00, taken
+     * at UTC), for instance Unix time in seconds or in milliseconds.
+     *
+     * @param epochValue the number of units since the epoch, negative for timestamps before it.
+     * @param unit       the unit of the value: a unit with a fixed duration, from microseconds to hours.
+     * @return the timestamp, not null.
+     * @throws IllegalArgumentException if the unit does not have a fixed duration.
+     * @throws ArithmeticException if the timestamp is not supported.
+     */
+    public static Timestamp ofEpoch(long epochValue, Unit unit) {
+        long unitNanos = nanosOf(unit);
+
+        if (unitNanos >= NANOS_PER_SECOND) {
+            long epochSecond = Math.multiplyExact(epochValue, unitNanos / NANOS_PER_SECOND);
+            return new Timestamp(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+        }
+
+        long unitsPerSecond = NANOS_PER_SECOND / unitNanos;
+        long epochSecond = Math.floorDiv(epochValue, unitsPerSecond);
+        int nanoOfSecond = (int) (Math.floorMod(epochValue, unitsPerSecond) * unitNanos);
+
+        return new Timestamp(LocalDateTime.ofEpochSecond(epochSecond, nanoOfSecond, ZoneOffset.UTC));
+    }
+
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
      *
      *  Public Interface
@@ -101,6 +163,47 @@ public class Timestamp implements Comparable<Timestamp> {
         return dateTime.getSecond();
     }
 
+    /**
+     * Gets the nano-of-second field.
+     *
+     * @return the nano-of-second, from 0 to 999,999,999
+     */
+    public int getNano() {
+        return dateTime.getNano();
+    }
+
+    /**
+     * Returns the number of nanoseconds from the epoch (1970-01-01T00:00:00, taken at UTC) until this
+     * timestamp. A long holds the nanoseconds of any timestamp between the years 1677 and 2262.
+     *
+     * @return the number of nanoseconds since the epoch, negative for timestamps before it.
+     * @throws ArithmeticException if the timestamp is too far from the epoch to fit a long.
+     */
+    public long toEpochNanos() {
+        long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return Math.addExact(Math.multiplyExact(epochSecond, NANOS_PER_SECOND), dateTime.getNano());
+    }
+
+    /**
+     * Returns the number of complete units from the epoch (1970-01-01T00:00:00, taken at UTC) until this
+     * timestamp, for instance Unix time in seconds or in milliseconds. Timestamps before the epoch are
+     * rounded down.
+     *
+     * @param unit the unit of the value: a unit with a fixed duration, from microseconds to hours.
+     * @return the number of units since the epoch, negative for timestamps before it.
+     * @throws IllegalArgumentException if the unit does not have a fixed duration.
+     */
+    public long toEpoch(Unit unit) {
+        long unitNanos = nanosOf(unit);
+        long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+
+        if (unitNanos >= NANOS_PER_SECOND) {
+            return Math.floorDiv(epochSecond, unitNanos / NANOS_PER_SECOND);
+        }
+
+        return epochSecond * (NANOS_PER_SECOND / unitNanos) + dateTime.getNano() / unitNanos;
+    }
+
     /**
      * Returns a copy of this Timestamp with the date and time truncated. Truncation returns a copy of the
      * original date-time with fields smaller than the specified unit set to zero. Day and month fields are
@@ -123,6 +226,54 @@ public class Timestamp implements Comparable<Timestamp> {
         return new Timestamp(dateTime.plus(period.getLength(), period.getUnit().getBaseUnit()));
     }
 
+    /**
+     * This returns a Timestamp, based on this one, with the given period length added a number of times.
+     * It is equivalent to adding the period that number of times, but takes the same time for any number.
+     *
+     * @param period the period to add to the timestamp, not null.
+     * @param count  the number of times to add the period.
+     * @return a copy of this timestamp with the specified period added count times.
+     */
+    public Timestamp plus(Period period, long count) {
+        return new Timestamp(dateTime.plus(period.getLength() * count, period.getUnit().getBaseUnit()));
+    }
+
+    /**
+     * Returns the number of complete periods from this timestamp until another timestamp. For instance,
+     * there are 2 complete periods of 5 seconds from 10:10:00 until 10:10:12.
+     *
+     * @param other  other timestamp, which must not predate this timestamp, not null.
+     * @param period the period to count, not null.
+     * @return the number of complete periods from this timestamp until the other timestamp.
+     */
+    public long periodsUntil(Timestamp other, Period period) {
+        return period.getUnit().getBaseUnit().between(dateTime, other.dateTime) / period.getLength();
+    }
+
+    /**
+     * This returns a Timestamp, based on this one, with the given period length subtracted.
+     *
+     * @param period the period to subtract from the timestamp, not null.
+     * @return a copy of this timestamp with the specified period subtracted.
+     */
+    public Timestamp minus(Period period) {
+        return new Timestamp(dateTime.minus(period.getLength(), period.getUnit().getBaseUnit()));
+    }
+
+    /**
+     * Returns the number of seconds from this timestamp until another timestamp. The result is negative if
+     * the other timestamp predates this timestamp.
+     *
+     * @param other other timestamp, not null.
+     * @return the number of seconds from this timestamp until the other timestamp.
+     */
+    public double secondsUntil(Timestamp other) {
+        long seconds = other.dateTime.toEpochSecond(ZoneOffset.UTC) - dateTime.toEpochSecond(ZoneOffset.UTC);
+        int nanos = other.dateTime.getNano() - dateTime.getNano();
+
+        return seconds + nanos / 1e9;
+    }
+
     /**
      * Checks if the timestamp predates another timestamp.
      *
@@ -164,6 +315,15 @@ public class Timestamp implements Comparable<Timestamp> {
         return dateTime.toString();
     }
 
+    private static long nanosOf(Unit unit) {
+        if (unit.getBaseUnit().isDurationEstimated()) {
+            throw new IllegalArgumentException("Epoch values must be given in a unit with a fixed duration, " +
+                    "but got " + unit);
+        }
+
+        return unit.getBaseUnit().getDuration().toNanos();
+    }
+
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
      *
      *  Truncation visitor methods, visited by the Unit objects to truncate a timestamp.
@@ -179,7 +339,7 @@ public class Timestamp implements Comparable<Timestamp> {
     }
 
     /**
-     * Can only be called for the Seconds, Minutes, Hours, and Days units.
+     * Can only be called for the Microseconds, Milliseconds, Seconds, Minutes, Hours, and Days units.
      *
      * @param unit the unit to truncate timestamp to, not null.
      * @return copy of the timestamp truncated to the given chrono unit, not null.
@@ -3,6 +3,9 @@ package core;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * The TimestampFormatter class provides methods to convert timestamps into strings following a predefined
@@ -10,6 +13,20 @@ import java.time.format.DateTimeParseException;
  */
 public class TimestampFormatter {
 
+    /**
+     * The date pattern used when none is chosen.
+     */
+    public static final String DEFAULT_DATE_PATTERN = "dd/MM/uuuu";
+
+    /**
+     * The date patterns offered to the user, starting with the default one.
+     */
+    public static final List<String> DATE_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+            DEFAULT_DATE_PATTERN, "dd/MMM/uu", "dd/MMM/uuuu", "dd/MM/uu",
+            "dd-MM-uuuu", "dd-MMM-uu", "dd-MMM-uuuu", "dd-MM-uu",
+            "uuMMdd"
+    ));
+
     private final DateTimeFormatter formatter;
 
     private TimestampFormatter(DateTimeFormatter formatter) {
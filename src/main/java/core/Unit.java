@@ -60,6 +60,20 @@ public enum Unit {
         public String toString() {
             return "Second(s)";
         }
+    },
+
+    MILLIS(ChronoUnit.MILLIS) {
+        @Override
+        public String toString() {
+            return "Millisecond(s)";
+        }
+    },
+
+    MICROS(ChronoUnit.MICROS) {
+        @Override
+        public String toString() {
+            return "Microsecond(s)";
+        }
     };
 
     private final ChronoUnit baseUnit;
@@ -0,0 +1,72 @@
+package core;
+
+/**
+ * Defines a sliding window of time: the statistics are computed over the last 'size' units of time and are
+ * output every 'slide' units of time. For instance, a window with size 15 and slide 1 in minutes computes
+ * the statistics of the last 15 minutes, every minute. The size must be a multiple of the slide. A window
+ * whose size is equal to the slide is the same as a period.
+ */
+public class Window {
+
+    private final int size;
+    private final int slide;
+    private final Unit unit;
+
+    private Window(int size, int slide, Unit unit) {
+        this.size = size;
+        this.slide = slide;
+        this.unit = unit;
+    }
+
+    /**
+     * Obtains an instance of Window with the specified size and slide given in the specified units.
+     *
+     * @param size  the length of the window.
+     * @param slide the length of time between the start of two consecutive windows.
+     * @param unit  the unit for the specified size and slide, not null.
+     * @return the window, not null.
+     * @throws IllegalArgumentException if the size or the slide are not positive or if the size is not a
+     * multiple of the slide.
+     */
+    public static Window of(int size, int slide, Unit unit) {
+
+        if (size <= 0 || slide <= 0) {
+            throw new IllegalArgumentException("Window size and slide must be positive");
+        }
+
+        if (size % slide != 0) {
+            throw new IllegalArgumentException("Window size (" + size + ") must be a multiple of the " +
+                    "slide (" + slide + ")");
+        }
+
+        return new Window(size, slide, unit);
+    }
+
+    /**
+     * Returns the size of the window as a period.
+     *
+     * @return the size of the window, not null.
+     */
+    public Period getSize() {
+        return Period.of(size, unit);
+    }
+
+    /**
+     * Returns the slide of the window as a period.
+     *
+     * @return the slide of the window, not null.
+     */
+    public Period getSlide() {
+        return Period.of(slide, unit);
+    }
+
+    /**
+     * Returns the number of slides that fit in one window.
+     *
+     * @return the number of slides that fit in one window.
+     */
+    public int getSlideCount() {
+        return size / slide;
+    }
+
+}
@@ -10,7 +10,6 @@ import javafx.scene.input.TransferMode;
 import javafx.scene.layout.GridPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import org.apache.commons.io.FilenameUtils;
 
 import java.io.File;
 import java.io.IOException;
@@ -52,17 +51,10 @@ public class Controller implements Initializable {
     private File tempOutputFile = new File(TEMP_FILE_NAME);
     private final CachedFileChooser fileChooser = new CachedFileChooser();
 
-    private static final String[] DATE_FORMATS = {
-            "dd/MM/uuuu", "dd/MMM/uu", "dd/MMM/uuuu", "dd/MM/uu",
-            "dd-MM-uuuu", "dd-MMM-uu", "dd-MMM-uuuu", "dd-MM-uu",
-            "uuMMdd"
-    };
     private static final String[] TIME_FORMATS = {
-            "HH:mm:ss", "HHmmss", "HH:mm"
+            "HH:mm:ss", "HHmmss", "HH:mm", "HH:mm:ss.SSS", "HH:mm:ss.SSSSSS"
     };
 
-    private static final String HEADERS_TAG = "headers";
-
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
      *
      *  Constructors and Initializer
@@ -115,7 +107,7 @@ public class Controller implements Initializable {
         });
 
         // add options to the choice boxes
-        dateFormatChoiceBox.getItems().addAll(DATE_FORMATS);
+        dateFormatChoiceBox.getItems().addAll(TimestampFormatter.DATE_PATTERNS);
         timeFormatChoiceBox.getItems().addAll(TIME_FORMATS);
         delimiterChoiceBox.getItems().addAll(DelimiterOption.values());
         periodUnitChoiceBox.getItems().addAll(Unit.values());
@@ -204,14 +196,13 @@ public class Controller implements Initializable {
 
     /**
      * Checks if a file corresponds to an headers file. A file is considered an headers file if its name
-     * (excluding the extension) ends with the headers tag.
+     * (excluding the extension) ends with 'headers', the same rule used to pair the files of a batch.
      *
      * @param file the file to check, not null.
      * @return true is the file is an headers file, and false if otherwise.
      */
     private static boolean isHeadersFile(File file) {
-        String filename = FilenameUtils.getBaseName(file.getName());
-        return filename.toLowerCase().endsWith(HEADERS_TAG);
+        return BatchFile.isHeadersFile(file);
     }
 
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -275,6 +266,7 @@ public class Controller implements Initializable {
 
         ProgressDialog progressDialog = new ProgressDialog(mainPain.getScene().getWindow());
         progressDialog.messageProperty().bind(task.messageProperty());
+        progressDialog.progressProperty().bind(task.progressProperty());
 
         task.setOnSucceeded(event -> {
             progressDialog.onFinished();
@@ -290,7 +282,7 @@ public class Controller implements Initializable {
                 errorAlert(e.getMessage(), "I/O Error").showAndWait();
 
             } catch (ParseException e) {
-                errorAlert("Data file probably has an error in line " + e.getErrorOffset() + ". " +
+                errorAlert("Data file probably has an error in line " + lineOf(e) + ". " +
                         e.getMessage(), "Process Error").showAndWait();
 
             } catch (Throwable throwable) {
@@ -354,7 +346,7 @@ public class Controller implements Initializable {
             errorAlert(e.getMessage(), "Data Preview Error").showAndWait();
 
         } catch (IllegalRecordSizeException e) {
-            errorAlert("Data file probably has an error in line " + e.getErrorOffset() + ". " +
+            errorAlert("Data file probably has an error in line " + lineOf(e) + ". " +
                     e.getMessage(), "Data Preview Error").showAndWait();
         }
     }
@@ -376,6 +368,18 @@ public class Controller implements Initializable {
 
     }
 
+    /**
+     * Returns the line of a parse error. Record parse errors keep the full record number, which may not
+     * fit the error offset.
+     */
+    private static long lineOf(ParseException e) {
+        if (e instanceof RecordParseException) {
+            return ((RecordParseException) e).getRecordNumber();
+        }
+
+        return e.getErrorOffset();
+    }
+
     private static Alert errorAlert(String message, String header) {
         Alert alert = new Alert(Alert.AlertType.ERROR, message.replace(". ", ".\n"), ButtonType.OK);
         alert.setHeaderText(header);
@@ -1,5 +1,6 @@
 package gui.main;
 
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.StringProperty;
 import javafx.event.Event;
 import javafx.event.EventHandler;
@@ -46,6 +47,16 @@ public class ProgressDialog extends Stage {
         return controller.messageProperty();
     }
 
+    /**
+     * Returns the property corresponding to the progress shown in the progress bar: a value between 0 and
+     * 1, or a negative value while the progress is not known.
+     *
+     * @return the property corresponding to the progress shown in the progress bar.
+     */
+    public DoubleProperty progressProperty() {
+        return controller.progressProperty();
+    }
+
     /**
      * Adjusts the progress dialog to indicate to the user the processing is complete.
      */
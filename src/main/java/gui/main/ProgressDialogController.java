@@ -1,5 +1,6 @@
 package gui.main;
 
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.StringProperty;
 import javafx.event.Event;
 import javafx.event.EventHandler;
@@ -28,6 +29,7 @@ public class ProgressDialogController extends GridPane {
         messageLabel.textProperty().unbind();
         messageLabel.setText("");
         saveButton.setDisable(false);
+        progressBar.progressProperty().unbind();
         progressBar.setProgress(1);
     }
 
@@ -47,6 +49,16 @@ public class ProgressDialogController extends GridPane {
         return messageLabel.textProperty();
     }
 
+    /**
+     * Returns the property corresponding to the progress shown in the progress bar: a value between 0 and
+     * 1, or a negative value while the progress is not known.
+     *
+     * @return the property corresponding to the progress shown in the progress bar.
+     */
+    public DoubleProperty progressProperty() {
+        return progressBar.progressProperty();
+    }
+
     public void save() {
         saveEventHandler.handle(new Event(Event.ANY));
         close();
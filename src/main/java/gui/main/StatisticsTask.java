@@ -10,14 +10,19 @@ import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Task to perform the statistics processing. It is based on a statistics generator.
+ * Task to perform the statistics processing. It is based on a statistics generator. The progress of the
+ * task is the fraction of the data file read, and its message tells the period being processed, the
+ * throughput, and the estimated time remaining.
  */
-public class StatisticsTask extends Task<Integer> implements ProgressListener {
+public class StatisticsTask extends Task<Integer> implements ThroughputListener {
 
     private static final StatisticsGenerator statisticsGenerator = new StatisticsGenerator();
     private static final TimestampFormatter formatter = TimestampFormatter.ofPattern("uuuu-MM-dd HH:mm:ss");
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final double NOTIFICATIONS_PER_SECOND = 10;    // more is not visible in the dialog
 
     private final File headersFile;
     private final int dateColumn;
@@ -27,6 +32,8 @@ public class StatisticsTask extends Task<Integer> implements ProgressListener {
     private final DataFileWriter.Builder writerBuilder;
     private final Period period;
 
+    private volatile Timestamp currentPeriod = null;    // lower-bound of the period being processed
+
     public StatisticsTask(File headersFile, int dateColumn, int timeColumn, Set<Integer> ignoredColumns,
                           DataRecordReader.Builder readerBuilder, DataFileWriter.Builder writerBuilder,
                           Period period) {
@@ -47,14 +54,23 @@ public class StatisticsTask extends Task<Integer> implements ProgressListener {
             headers = headersReader.read();
         }
 
+        // the metrics of the running task can be followed over JMX, for instance with jconsole
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        metrics.register("statistics-task");
+
         try (
                 DataRecordReader reader = readerBuilder.build();
                 DataFileWriter writer = writerBuilder.withHeaders(headers).build();
         ) {
+            statisticsGenerator.setMetrics(metrics);
+            statisticsGenerator.setNotificationRate(NOTIFICATIONS_PER_SECOND);
             statisticsGenerator.addListener(this);
             statisticsGenerator.process(reader, writer, period);
-            statisticsGenerator.removeListener(this);
 
+        } finally {
+            statisticsGenerator.removeListener(this);
+            statisticsGenerator.setMetrics(null);
+            metrics.unregister();
         }
 
         return null;
@@ -66,13 +82,61 @@ public class StatisticsTask extends Task<Integer> implements ProgressListener {
      * upper-bound value is not included in the period, for instance if the period is of 5 seconds and the
      * upper-bound is 10:12:05 then the period comprises only data relative to time before that time.
      *
+     * The period is only shown with the next progress update, so the message is not updated for every
+     * period when the periods are short. Called from the notification thread of the statistics generator.
+     *
      * @param lowerBound the lower-bound value of the period currently being processed.
      * @param upperBound the upper-bound value of the period currently being processed.
      */
     @Override
     public void notifyProcessingPeriod(Timestamp lowerBound, Timestamp upperBound) {
-        updateMessage("Period between " + formatter.format(lowerBound) + " and " +
-                formatter.format(upperBound));
+        currentPeriod = lowerBound;
+    }
+
+    /**
+     * Updates the progress of the task with the fraction of the data file read, and its message with the
+     * period being processed, the throughput, and the estimated time remaining.
+     *
+     * @param progress the progress in the data file.
+     */
+    @Override
+    public void notifyProgress(Progress progress) {
+        if (progress.getFraction() >= 0) {
+            updateProgress(progress.getFraction(), 1);
+        }
+
+        StringBuilder message = new StringBuilder();
+        if (currentPeriod != null) {
+            message.append("Period starting at ").append(formatter.format(currentPeriod)).append('\n');
+        }
+
+        if (progress.getRecordsPerSecond() >= 0) {
+            message.append(String.format("%,.0f rows/s", progress.getRecordsPerSecond()));
+        }
+
+        if (progress.getBytesPerSecond() >= 0) {
+            message.append(String.format(", %.1f MB/s", progress.getBytesPerSecond() / BYTES_PER_MEGABYTE));
+        }
+
+        long nanosRemaining = progress.getEstimatedNanosRemaining();
+        if (nanosRemaining >= 0 && !progress.isFinished()) {
+            message.append(", ").append(formatTimeRemaining(nanosRemaining)).append(" left");
+        }
+
+        updateMessage(message.toString());
+    }
+
+    /**
+     * Formats the time remaining in hours and minutes, or minutes and seconds when under one hour.
+     */
+    private static String formatTimeRemaining(long nanos) {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+
+        if (seconds >= 3600) {
+            return String.format("%d h %02d min", seconds / 3600, seconds % 3600 / 60);
+        }
+
+        return String.format("%d min %02d s", seconds / 60, seconds % 60);
     }
 
-}
\ No newline at end of file
+}
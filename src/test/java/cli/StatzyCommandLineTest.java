@@ -0,0 +1,152 @@
+package cli;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StatzyCommandLineTest {
+
+    private static final String END_LINE = "\r\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    private int run(String input, String... args) {
+        StatzyCommandLine commandLine = new StatzyCommandLine(new ByteArrayInputStream(input.getBytes()),
+                output, new PrintStream(errors, true));
+
+        return commandLine.run(args);
+    }
+
+    private File writeFile(File directory, String name, String contents) throws Exception {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), contents.getBytes());
+        return file;
+    }
+
+    @Test
+    public void
+    run_3RecordsFromStandardInputIn2Periods_Writes2RowsToStandardOutput() throws Exception {
+        String input = "10/10/2016,10:10:00,1.0\n" +
+                       "10/10/2016,10:10:02,3.0\n" +
+                       "10/10/2016,10:10:05,4.0\n";
+
+        int exitCode = run(input, "--period", "5s", "--data-headers=H1");
+
+        assertThat(errors.toString(), exitCode, is(StatzyCommandLine.EXIT_OK));
+        assertThat(output.toString(),
+                is("Date,Time,Count,H1 - Avg,H1 - StdDev" + END_LINE +
+                   "10/10/2016,10:10:00,2,2.0,1.4142135623730951" + END_LINE +
+                   "10/10/2016,10:10:05,1,4.0,0.0" + END_LINE));
+    }
+
+    @Test
+    public void
+    run_EpochTimestampsAndKeyColumn_WritesEpochRowsForEachKey() throws Exception {
+        String input = "1476094200,a,1.0\n" +
+                       "1476094201,b,2.0\n";
+
+        int exitCode = run(input, "-p", "1min", "--epoch-column", "1", "--key-column", "2",
+                "--data-headers", "H1");
+
+        assertThat(errors.toString(), exitCode, is(StatzyCommandLine.EXIT_OK));
+        assertThat(output.toString(),
+                is("Date,Key,Count,H1 - Avg,H1 - StdDev" + END_LINE +
+                   "1476094200,a,1,1.0,0.0" + END_LINE +
+                   "1476094200,b,1,2.0,0.0" + END_LINE));
+    }
+
+    @Test
+    public void
+    run_ValueThatIsNotANumber_ExitsWithDataError() throws Exception {
+        String input = "10/10/2016,10:10:00,1.0\n" +
+                       "10/10/2016,10:10:02,n/a\n";
+
+        int exitCode = run(input, "--period", "5s", "--data-headers", "H1");
+
+        assertThat(exitCode, is(StatzyCommandLine.EXIT_DATA_ERROR));
+        assertThat(errors.toString(), containsString("line 2"));
+    }
+
+    @Test
+    public void
+    run_InputFileThatDoesNotExist_ExitsWithIOError() throws Exception {
+        File missingFile = new File(folder.getRoot(), "missing.csv");
+
+        int exitCode = run("", "--period", "5s", "--data-headers", "H1", "--input", missingFile.getPath());
+
+        assertThat(exitCode, is(StatzyCommandLine.EXIT_IO_ERROR));
+    }
+
+    @Test
+    public void
+    run_WithoutPeriod_ExitsWithUsageError() throws Exception {
+        int exitCode = run("", "--data-headers", "H1");
+
+        assertThat(exitCode, is(StatzyCommandLine.EXIT_USAGE));
+        assertThat(errors.toString(), containsString("--period"));
+    }
+
+    @Test
+    public void
+    run_OutputDatePatternThatIsNotValid_ExitsWithUsageErrorAndKeepsTheAnomalyFile() throws Exception {
+        File anomalyFile = writeFile(folder.getRoot(), "anomalies.csv", "anomalies of an earlier run");
+
+        int exitCode = run("10/10/2016,10:10:00,1.0\n", "--period", "5s", "--data-headers", "H1",
+                "--anomalies", "zscore:3", "--anomaly-output", anomalyFile.getPath(),
+                "--output-date-pattern", "dd{MM");
+
+        assertThat(exitCode, is(StatzyCommandLine.EXIT_USAGE));
+        assertThat(new String(Files.readAllBytes(anomalyFile.toPath())), is("anomalies of an earlier run"));
+    }
+
+    @Test
+    public void
+    run_BatchWithAFileThatIsNotValid_WritesTheOtherFilesAndExitsWithDataError() throws Exception {
+        File inputDirectory = folder.newFolder("input");
+        File outputDirectory = new File(folder.getRoot(), "output");
+        writeFile(inputDirectory, "logger1_headers.csv", "Date,Time,H1\n");
+        writeFile(inputDirectory, "logger1.csv", "10/10/2016,10:10:00,1.0\n" +
+                                                 "10/10/2016,10:10:02,3.0\n");
+        writeFile(inputDirectory, "logger2-headers.csv", "Date,Time,H2\n");
+        writeFile(inputDirectory, "logger2.csv", "10/10/2016,10:10:00,n/a\n");
+
+        int exitCode = run("", "--period", "5s", "--batch", inputDirectory.getPath(),
+                "--output-dir", outputDirectory.getPath(), "--jobs", "2");
+
+        assertThat(exitCode, is(StatzyCommandLine.EXIT_DATA_ERROR));
+        assertThat(errors.toString(), containsString("logger2.csv"));
+        assertThat(new String(Files.readAllBytes(new File(outputDirectory, "logger1_statistics.csv").toPath())),
+                is("Date,Time,Count,H1 - Avg,H1 - StdDev" + END_LINE +
+                   "10/10/2016,10:10:00,2,2.0,1.4142135623730951" + END_LINE));
+        assertThat(new File(outputDirectory, "logger2_statistics.csv").exists(), is(false));
+    }
+
+    @Test
+    public void
+    run_EmptyBatchWithJmxThenAnotherRunWithTheSameName_BothExitOk() throws Exception {
+        File inputDirectory = folder.newFolder("empty");
+
+        int firstExitCode = run("", "--period", "5s", "--batch", inputDirectory.getPath(),
+                "--jmx", "empty-batch");
+        int secondExitCode = run("10/10/2016,10:10:00,1.0\n", "--period", "5s", "--data-headers=H1",
+                "--jmx", "empty-batch");
+
+        assertThat(errors.toString(), firstExitCode, is(StatzyCommandLine.EXIT_OK));
+        assertThat(errors.toString(), secondExitCode, is(StatzyCommandLine.EXIT_OK));
+    }
+
+}
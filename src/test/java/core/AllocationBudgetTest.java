@@ -0,0 +1,141 @@
+package core;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Fails when the per-record path allocates more bytes per record than the budgets stored in
+ * allocation-budgets.properties. The bytes allocated by the test thread are measured with the thread MXBean
+ * of HotSpot, after running each stage enough times for the JIT compiler to remove the allocations it can.
+ *
+ * A change that reduces the allocations should lower the budgets, so they can not silently go up again.
+ */
+public class AllocationBudgetTest {
+
+    private static final int RECORD_COUNT = 20_000;
+    private static final int VALUE_COUNT = 8;
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private static String input;
+    private static Properties budgets;
+
+    @BeforeClass
+    public static void setUpInputAndBudgets() throws IOException {
+        StringBuilder content = new StringBuilder();
+        TimestampFormatter dateFormatter = TimestampFormatter.ofPattern("dd/MM/uuuu");
+        TimestampFormatter timeFormatter = TimestampFormatter.ofPattern("HH:mm:ss");
+        Timestamp timestamp = Timestamp.of(2016, 10, 10, 0, 0, 0);
+
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            content.append(dateFormatter.format(timestamp)).append(',').append(timeFormatter.format(timestamp));
+            for (int j = 0; j < VALUE_COUNT; j++) {
+                content.append(',').append(i * 0.25 + j);
+            }
+            content.append("\r\n");
+
+            timestamp = timestamp.plus(Period.of(1, Unit.SECONDS));
+        }
+
+        input = content.toString();
+
+        budgets = new Properties();
+        try (InputStream budgetsFile = AllocationBudgetTest.class.getResourceAsStream(
+                "allocation-budgets.properties")) {
+            budgets.load(budgetsFile);
+        }
+    }
+
+    /**
+     * A stage of the per-record path, run over all records.
+     */
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs a stage a few times to warm it up, then returns the bytes it allocated per record on one more
+     * run.
+     */
+    private static double bytesPerRecord(Stage stage) throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            stage.run();
+        }
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        stage.run();
+        long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
+
+        return (double) (allocatedAfter - allocatedBefore) / RECORD_COUNT;
+    }
+
+    private static void assertWithinBudget(String stageName, double bytesPerRecord) {
+        double budget = Double.parseDouble(budgets.getProperty(stageName));
+
+        assertTrue(String.format("%s allocated %.1f bytes per record, over its budget of %.1f bytes",
+                stageName, bytesPerRecord, budget), bytesPerRecord <= budget);
+    }
+
+    @Test
+    public void
+    parseRecord_20000Records_AllocatesWithinTheParseBudget() throws Exception {
+
+        double bytesPerRecord = bytesPerRecord(() -> {
+            try (RecordParser parser = new RecordParser(new StringReader(input))) {
+                while (parser.parseRecord() != null) ;
+            }
+        });
+
+        assertWithinBudget("parse", bytesPerRecord);
+    }
+
+    @Test
+    public void
+    read_20000Records_AllocatesWithinTheReadBudget() throws Exception {
+
+        double bytesPerRecord = bytesPerRecord(() -> {
+            try (DataRecordReader reader = DataRecordReader.with(new RecordParser(new StringReader(input)))
+                    .build()) {
+                while (reader.read() != null) ;
+            }
+        });
+
+        assertWithinBudget("read", bytesPerRecord);
+    }
+
+    @Test
+    public void
+    addEntry_20000Records_AllocatesWithinTheAggregateBudget() throws Exception {
+        List<List<Double>> records = new ArrayList<>(RECORD_COUNT);
+        try (DataRecordReader reader = DataRecordReader.with(new RecordParser(new StringReader(input)))
+                .build()) {
+            DataRecord record;
+            while ((record = reader.read()) != null) {
+                records.add(record.getDataValues());
+            }
+        }
+
+        GroupStatistics statistics = new GroupStatistics(VALUE_COUNT);
+        double bytesPerRecord = bytesPerRecord(() -> {
+            for (List<Double> values : records) {
+                statistics.addEntry(values);
+            }
+        });
+
+        assertWithinBudget("aggregate", bytesPerRecord);
+    }
+
+}
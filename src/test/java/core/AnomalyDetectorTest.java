@@ -0,0 +1,71 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+
+public class AnomalyDetectorTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private static void addNormalPeriod(AnomalyDetector detector, Random random) {
+        for (int i = 0; i < 1000; i++) {
+            detector.addValue(10.0 + random.nextGaussian());
+        }
+        detector.clear();
+    }
+
+    @Test
+    public void addValue_FirstPeriod_NoAnomalies() throws Exception {
+        AnomalyDetector detector = AnomalyDetector.zScore(3.0);
+
+        detector.addValue(1.0);
+        detector.addValue(1000.0);
+
+        collector.checkThat(detector.getAnomalyCount(), is(0L));
+        collector.checkThat(detector.getResult(), is("0"));
+    }
+
+    @Test
+    public void addValue_ZScoreAfterNormalPeriod_OnlyOutliersAreAnomalies() throws Exception {
+        AnomalyDetector detector = AnomalyDetector.zScore(4.0);
+        addNormalPeriod(detector, new Random(3));
+
+        detector.addValue(10.5);
+        detector.addValue(20.0);
+        detector.addValue(0.0);
+
+        collector.checkThat(detector.getAnomalyCount(), is(2L));
+        collector.checkThat(detector.isAnomaly(9.0), is(false));
+    }
+
+    @Test
+    public void addValue_MadScoreAfterNormalPeriod_OnlyOutliersAreAnomalies() throws Exception {
+        AnomalyDetector detector = AnomalyDetector.medianAbsoluteDeviation(5.0);
+        addNormalPeriod(detector, new Random(3));
+
+        detector.addValue(10.5);
+        detector.addValue(20.0);
+        detector.addValue(0.0);
+
+        collector.checkThat(detector.getAnomalyCount(), is(2L));
+        collector.checkThat(detector.isAnomaly(9.0), is(false));
+    }
+
+    @Test
+    public void clear_AfterPeriodWithAnomalies_AnomalyCountIsReset() throws Exception {
+        AnomalyDetector detector = AnomalyDetector.zScore(4.0);
+        addNormalPeriod(detector, new Random(3));
+
+        detector.addValue(50.0);
+        detector.clear();
+
+        collector.checkThat(detector.getAnomalyCount(), is(0L));
+    }
+
+}
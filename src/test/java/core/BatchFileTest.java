@@ -0,0 +1,58 @@
+package core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class BatchFileTest {
+
+    private static final File OUTPUT_DIRECTORY = new File("output");
+
+    @Test
+    public void
+    pair_DataFilesWithHeadersFilesOfTheSameName_PairsEachDataFileWithItsHeadersFile() throws Exception {
+        List<BatchFile> files = BatchFile.pair(Arrays.asList(
+                new File("logger1.csv.gz"), new File("Logger1_Headers.csv"),
+                new File("logger2.csv"), new File("logger2-headers.csv")), OUTPUT_DIRECTORY);
+
+        assertThat(files.size(), is(2));
+        assertThat(files.get(0).getHeadersFile(), is(new File("Logger1_Headers.csv")));
+        assertThat(files.get(0).getOutputFile(), is(new File(OUTPUT_DIRECTORY, "logger1_statistics.csv")));
+        assertThat(files.get(1).getHeadersFile(), is(new File("logger2-headers.csv")));
+    }
+
+    @Test
+    public void
+    pair_DataFilesWithOnlyOneHeadersFile_PairsAllDataFilesWithIt() throws Exception {
+        List<BatchFile> files = BatchFile.pair(Arrays.asList(
+                new File("2016-10-10.csv"), new File("2016-10-11.csv"), new File("headers.csv")),
+                OUTPUT_DIRECTORY);
+
+        assertThat(files.get(0).getHeadersFile(), is(new File("headers.csv")));
+        assertThat(files.get(1).getHeadersFile(), is(new File("headers.csv")));
+    }
+
+    @Test
+    public void
+    pair_DataFileWithoutAHeadersFileOfItsOwn_HasNoHeadersFile() throws Exception {
+        List<BatchFile> files = BatchFile.pair(Arrays.asList(
+                new File("logger1.csv"), new File("logger1_headers.csv"),
+                new File("logger2_headers.csv"), new File("logger3.csv")), OUTPUT_DIRECTORY);
+
+        assertThat(files.get(1).getHeadersFile(), is(nullValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void
+    pair_DataFilesWithTheSameNameInDifferentDirectories_ThrowsIllegalArgumentException() throws Exception {
+        BatchFile.pair(Arrays.asList(new File("a", "logger1.csv"), new File("b", "logger1.csv")),
+                OUTPUT_DIRECTORY);
+    }
+
+}
@@ -0,0 +1,166 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BatchProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BatchFile batchFile(String name) throws IOException {
+        return new BatchFile(new File(folder.getRoot(), name + ".csv"), null,
+                new File(folder.getRoot(), name + "_statistics.csv"));
+    }
+
+    private List<BatchFile> batchFiles(int count) throws IOException {
+        BatchFile[] files = new BatchFile[count];
+        for (int i = 0; i < count; i++) {
+            files[i] = batchFile("logger" + i);
+        }
+
+        return Arrays.asList(files);
+    }
+
+    /**
+     * A job that only takes some time, and keeps the maximum number of jobs running at the same time.
+     */
+    private static class ConcurrencyJob implements BatchProcessor.Job {
+
+        private final long memoryEstimate;
+        private final AtomicInteger runningCount = new AtomicInteger();
+        private final AtomicInteger maxRunningCount = new AtomicInteger();
+
+        ConcurrencyJob(long memoryEstimate) {
+            this.memoryEstimate = memoryEstimate;
+        }
+
+        @Override
+        public void process(BatchFile file) throws IOException {
+            int running = runningCount.incrementAndGet();
+            maxRunningCount.accumulateAndGet(running, Math::max);
+
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                runningCount.decrementAndGet();
+            }
+        }
+
+        @Override
+        public long estimateMemory(BatchFile file) {
+            return memoryEstimate;
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void
+    process_OneJobRunsOutOfMemory_KeepsTheErrorInItsResultAndProcessesTheOtherFiles() throws Exception {
+        List<BatchFile> files = Arrays.asList(batchFile("logger1"), batchFile("logger2"), batchFile("logger3"));
+
+        List<BatchResult> results = new BatchProcessor(2, 1024 * 1024 * 1024).process(files, file -> {
+            if (file == files.get(1)) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        }, result -> {});
+
+        assertThat(results.get(0).isSuccessful(), is(true));
+        assertThat(results.get(1).getError(), instanceOf(OutOfMemoryError.class));
+        assertThat(results.get(2).isSuccessful(), is(true));
+    }
+
+    @Test
+    public void
+    process_JobFailsBeforeWritingItsOutput_KeepsTheOutputOfAnEarlierRun() throws Exception {
+        BatchFile file = batchFile("logger1");
+        write(file.getOutputFile(), "statistics of an earlier run");
+
+        List<BatchResult> results = new BatchProcessor(1, 1024 * 1024 * 1024).process(Arrays.asList(file),
+                batchFile -> {
+                    throw new IOException("No headers file found");
+                }, result -> {});
+
+        assertThat(results.get(0).isSuccessful(), is(false));
+        assertThat(file.getOutputFile().exists(), is(true));
+    }
+
+    @Test
+    public void
+    process_JobFailsAfterWritingItsOutput_DeletesThePartialOutput() throws Exception {
+        BatchFile file = batchFile("logger1");
+        write(file.getOutputFile(), "statistics of an earlier run");
+
+        List<BatchResult> results = new BatchProcessor(1, 1024 * 1024 * 1024).process(Arrays.asList(file),
+                batchFile -> {
+                    write(batchFile.getOutputFile(), "partial");
+                    throw new IOException("Disk full");
+                }, result -> {});
+
+        assertThat(results.get(0).isSuccessful(), is(false));
+        assertThat(file.getOutputFile().exists(), is(false));
+    }
+
+    @Test(timeout = 10_000)
+    public void
+    process_JobsThatDoNotFitTogetherInTheBudget_RunOneAtATime() throws Exception {
+        ConcurrencyJob job = new ConcurrencyJob(6 * 1024 * 1024);
+
+        List<BatchResult> results = new BatchProcessor(4, 10 * 1024 * 1024).process(batchFiles(4), job,
+                result -> {});
+
+        assertThat(results.size(), is(4));
+        assertThat(job.maxRunningCount.get(), is(1));
+    }
+
+    @Test(timeout = 10_000)
+    public void
+    process_MoreFilesThanWorkers_RunsAtMostOneJobPerWorker() throws Exception {
+        ConcurrencyJob job = new ConcurrencyJob(1024 * 1024);
+
+        List<BatchResult> results = new BatchProcessor(2, 1024 * 1024 * 1024).process(batchFiles(6), job,
+                result -> {});
+
+        assertThat(results.size(), is(6));
+        assertThat(job.maxRunningCount.get(), is(2));
+    }
+
+    @Test
+    public void estimateMemory_MoreColumns_EstimatesMoreMemory() throws Exception {
+        assertThat(BatchProcessor.estimateMemory(64, false, 1) > BatchProcessor.estimateMemory(8, false, 1),
+                is(true));
+    }
+
+    @Test
+    public void
+    estimateMemory_PipelinedWithFormattingThreads_AddsTheRecordsAndRowsWaitingBetweenTheThreads()
+            throws Exception {
+        long sequential = BatchProcessor.estimateMemory(8, false, 1);
+        long pipelined = BatchProcessor.estimateMemory(8, true, 1);
+        long pipelinedWithFormattingThreads = BatchProcessor.estimateMemory(8, true, 4);
+
+        assertThat(pipelined > sequential, is(true));
+        assertThat(pipelinedWithFormattingThreads > pipelined, is(true));
+    }
+
+}
@@ -0,0 +1,62 @@
+package core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ChannelWriterTest {
+
+    private static void writeSample(Writer writer) throws Exception {
+        writer.write("Date,Time,Count,Temp\u00e9rature - Avg\r\n");
+        for (int i = 0; i < 20_000; i++) {
+            writer.append(new StringBuilder("22/11/2016,01:02:03,").append(i)).append(',');
+            writer.write(Double.toString(i / 3.0));
+            writer.write("\r\n");
+        }
+
+        // a surrogate pair split between two writes, and a lone surrogate
+        writer.write("\uD83D");
+        writer.write("\uDE00 \uD83D,");
+        writer.write('x');
+        writer.close();
+    }
+
+    private static byte[] writeWithChannelWriter(Charset charset) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeSample(new ChannelWriter(Channels.newChannel(output), charset));
+        return output.toByteArray();
+    }
+
+    private static byte[] writeWithOutputStreamWriter(Charset charset) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeSample(new OutputStreamWriter(output, charset));
+        return output.toByteArray();
+    }
+
+    @Test
+    public void write_SampleInUtf8_SameBytesAsOutputStreamWriter() throws Exception {
+        assertThat(writeWithChannelWriter(StandardCharsets.UTF_8),
+                is(writeWithOutputStreamWriter(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void write_SampleInAsciiWithUnmappableCharacters_SameBytesAsOutputStreamWriter() throws Exception {
+        assertThat(writeWithChannelWriter(StandardCharsets.US_ASCII),
+                is(writeWithOutputStreamWriter(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void write_SampleInUtf16_SameBytesAsOutputStreamWriter() throws Exception {
+        assertThat(writeWithChannelWriter(StandardCharsets.UTF_16),
+                is(writeWithOutputStreamWriter(StandardCharsets.UTF_16)));
+    }
+
+}
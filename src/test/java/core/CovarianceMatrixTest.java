@@ -0,0 +1,104 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+
+public class CovarianceMatrixTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private static List<List<Double>> randomEntries(int entryCount, int dataSetCount) {
+        Random random = new Random(42);
+        List<List<Double>> entries = new ArrayList<>(entryCount);
+
+        for (int i = 0; i < entryCount; i++) {
+            List<Double> entry = new ArrayList<>(dataSetCount);
+            double common = random.nextGaussian();
+            for (int j = 0; j < dataSetCount; j++) {
+                entry.add(1000.0 + j + common * j + random.nextGaussian());
+            }
+            entries.add(entry);
+        }
+
+        return entries;
+    }
+
+    private static double naiveCovariance(List<List<Double>> entries, int first, int second) {
+        double firstMean = entries.stream().mapToDouble(entry -> entry.get(first)).average().orElse(0);
+        double secondMean = entries.stream().mapToDouble(entry -> entry.get(second)).average().orElse(0);
+
+        double sum = 0;
+        for (List<Double> entry : entries) {
+            sum += (entry.get(first) - firstMean) * (entry.get(second) - secondMean);
+        }
+
+        return sum / (entries.size() - 1);
+    }
+
+    @Test
+    public void getCovariance_3Entries_CorrectCovarianceAndCorrelation() throws Exception {
+        CovarianceMatrix matrix = new CovarianceMatrix(2);
+
+        matrix.addEntry(Arrays.asList(1.0, 2.0));
+        matrix.addEntry(Arrays.asList(2.0, 4.0));
+        matrix.addEntry(Arrays.asList(3.0, 6.0));
+
+        collector.checkThat(matrix.getCount(), is(3L));
+        assertEquals(1.0, matrix.getCovariance(0, 0), 1e-12);
+        assertEquals(2.0, matrix.getCovariance(0, 1), 1e-12);
+        assertEquals(2.0, matrix.getCovariance(1, 0), 1e-12);
+        assertEquals(1.0, matrix.getCorrelation(0, 1), 1e-12);
+    }
+
+    @Test
+    public void getCovariance_1Entry_NaN() throws Exception {
+        CovarianceMatrix matrix = new CovarianceMatrix(2);
+
+        matrix.addEntry(Arrays.asList(1.0, 2.0));
+
+        collector.checkThat(Double.isNaN(matrix.getCovariance(0, 1)), is(true));
+        collector.checkThat(Double.isNaN(matrix.getCorrelation(0, 1)), is(true));
+    }
+
+    @Test
+    public void getCovariance_ManyEntriesAndDataSets_SameAsNaiveComputation() throws Exception {
+        List<List<Double>> entries = randomEntries(1000, 70);
+        CovarianceMatrix matrix = new CovarianceMatrix(70);
+        entries.forEach(matrix::addEntry);
+
+        for (int i = 0; i < 70; i += 7) {
+            for (int j = 0; j < 70; j += 3) {
+                assertEquals(naiveCovariance(entries, i, j), matrix.getCovariance(i, j), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void merge_TwoMatrices_SameAsAddingAllEntriesToOneMatrix() throws Exception {
+        List<List<Double>> entries = randomEntries(300, 5);
+        CovarianceMatrix matrix = new CovarianceMatrix(5);
+        CovarianceMatrix other = new CovarianceMatrix(5);
+
+        entries.subList(0, 100).forEach(matrix::addEntry);
+        entries.subList(100, 300).forEach(other::addEntry);
+        matrix.merge(other);
+
+        collector.checkThat(matrix.getCount(), is(300L));
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                assertEquals(naiveCovariance(entries, i, j), matrix.getCovariance(i, j), 1e-9);
+            }
+        }
+    }
+
+}
@@ -4,10 +4,15 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.InterruptedIOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -167,4 +172,239 @@ public class DataFileWriterTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void
+    write_StatisticsWithHistogramAggregator_HistogramColumnAfterEachStdDev() throws Exception {
+        StringWriter output = new StringWriter();
+        Histogram histogram = Histogram.linear(0, 10, 2);
+
+        GroupStatistics statistics = new GroupStatistics(2, Collections.singletonList(histogram));
+        statistics.addEntry(Arrays.asList(1.0, 6.0));
+        statistics.addEntry(Arrays.asList(3.0, 8.0));
+
+        try (
+                DataFileWriter writer = DataFileWriter.outputTo(output)
+                        .withDataHeaders(Arrays.asList("H1", "H2"))
+                        .withDatePattern(datePattern)
+                        .withTimePattern(timePattern)
+                        .withAggregators(histogram)
+                        .build()
+        ) {
+            writer.write(Timestamp.of(2016, 11, 22, 1, 2, 3), statistics);
+        }
+
+        String histogramHeader = histogram.getName();
+        assertThat(output.toString(),
+                is("Date,Time,Count,H1 - Avg,H1 - StdDev,H1 - " + histogramHeader +
+                   ",H2 - Avg,H2 - StdDev,H2 - " + histogramHeader + END_LINE +
+                   "2016/11/22,01:02:03,2,2.0,1.4142135623730951,1:2,7.0,1.4142135623730951,2:2" + END_LINE));
+    }
+
+    @Test
+    public void
+    write_RecordWithKey_KeyColumnAfterDateAndTime() throws Exception {
+        StringWriter output = new StringWriter();
+
+        try (
+                DataFileWriter writer = DataFileWriter.outputTo(output)
+                        .withDataHeaders(Collections.singletonList("H1"))
+                        .withKeyHeader("Device")
+                        .withDatePattern(datePattern)
+                        .withTimePattern(timePattern)
+                        .build()
+        ) {
+            writer.write(Timestamp.of(2016, 11, 22, 1, 2, 3), "device-7", 3, means(1.0), stdevs(2.0));
+        }
+
+        assertThat(output.toString(),
+                is("Date,Time,Device,Count,H1 - Avg,H1 - StdDev" + END_LINE +
+                   "2016/11/22,01:02:03,device-7,3,1.0,2.0" + END_LINE));
+    }
+
+    @Test
+    public void
+    writeGap_2DataSets_RowWithCount0AndEmptyStatistics() throws Exception {
+        StringWriter output = new StringWriter();
+
+        try (
+                DataFileWriter writer = DataFileWriter.outputTo(output)
+                        .withDataHeaders(Arrays.asList("H1", "H2"))
+                        .withDatePattern(datePattern)
+                        .withTimePattern(timePattern)
+                        .build()
+        ) {
+            writer.writeGap(Timestamp.of(2016, 11, 22, 1, 2, 3));
+        }
+
+        assertThat(output.toString(),
+                is("Date,Time,Count,H1 - Avg,H1 - StdDev,H2 - Avg,H2 - StdDev" + END_LINE +
+                   "2016/11/22,01:02:03,0,,,," + END_LINE));
+    }
+
+    @Test
+    public void
+    write_EpochTimestampInMillis_TimestampWrittenInASingleColumnAsMillisSinceTheEpoch() throws Exception {
+        StringWriter output = new StringWriter();
+
+        try (
+                DataFileWriter writer = DataFileWriter.outputTo(output)
+                        .withDataHeaders(Collections.singletonList("H1"))
+                        .withDateHeader("Timestamp")
+                        .withEpochTimestamp(Unit.MILLIS)
+                        .build()
+        ) {
+            writer.write(Timestamp.of(2016, 10, 10, 10, 10, 0, 250_000_000), 3, means(1.0), stdevs(2.0));
+        }
+
+        assertThat(output.toString(),
+                is("Timestamp,Count,H1 - Avg,H1 - StdDev" + END_LINE +
+                   "1476094200250,3,1.0,2.0" + END_LINE));
+    }
+
+    private static String writeRowsAndGaps(int formattingThreadCount) throws Exception {
+        return writeRowsAndGaps(formattingThreadCount, false);
+    }
+
+    private static String writeRowsAndGaps(int formattingThreadCount, boolean pipelinedOutput)
+            throws Exception {
+
+        StringWriter output = new StringWriter();
+        DataFileWriter.Builder builder = DataFileWriter.outputTo(output)
+                .withDataHeaders(Arrays.asList("H1", "H2"))
+                .withFormattingThreads(formattingThreadCount);
+
+        if (pipelinedOutput) {
+            builder.withPipelinedOutput();
+        }
+
+        try (DataFileWriter writer = builder.build()) {
+            Timestamp timestamp = Timestamp.of(2016, 11, 22, 1, 2, 3);
+            for (int i = 0; i < 10_000; i++) {
+                if (i % 7 == 0) {
+                    writer.writeGap(timestamp);
+                } else {
+                    writer.write(timestamp, i, means(i / 3.0, -i / 7.0), stdevs(i * 1e-9, Double.NaN));
+                }
+
+                timestamp = timestamp.plus(Period.of(1, Unit.SECONDS));
+            }
+        }
+
+        return output.toString();
+    }
+
+    @Test
+    public void
+    write_10000RowsFormattedBy4Threads_SameOutputAsFormattedByTheWritingThread() throws Exception {
+        assertThat(writeRowsAndGaps(4), is(writeRowsAndGaps(1)));
+    }
+
+    @Test
+    public void
+    write_10000RowsWithPipelinedOutput_SameOutputAsWrittenByTheWritingThread() throws Exception {
+        assertThat(writeRowsAndGaps(1, true), is(writeRowsAndGaps(1)));
+    }
+
+    @Test(timeout = 10_000)
+    public void
+    close_OutputFailsWithAnUncheckedExceptionInTheWriterThread_ThrowsTheExceptionInsteadOfBlocking()
+            throws Exception {
+
+        AtomicBoolean failing = new AtomicBoolean(false);
+        Writer output = new StringWriter() {
+            @Override
+            public void write(String string) {
+                if (failing.get()) {
+                    throw new IllegalStateException("Output failed");
+                }
+
+                super.write(string);
+            }
+        };
+
+        catcher.expect(IllegalStateException.class);
+
+        try (
+                DataFileWriter writer = DataFileWriter.outputTo(output)
+                        .withDataHeaders(Collections.singletonList("H1"))
+                        .withFormattingThreads(2)
+                        .build()
+        ) {
+            failing.set(true);
+            writer.write(Timestamp.of(2016, 11, 22, 1, 2, 3), 3, means(1.0), stdevs(2.0));
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void
+    close_InterruptedWhileTheWriterThreadIsWriting_ReturnsOnlyOnceTheWriterThreadIsDone() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        AtomicBoolean closeReturned = new AtomicBoolean(false);
+        AtomicBoolean writtenAfterClose = new AtomicBoolean(false);
+
+        Writer output = new StringWriter() {
+            @Override
+            public void write(String string) {
+                if (Thread.currentThread().getName().equals("statzy-writer") && writing.getCount() > 0) {
+                    // a write that does not respond to interrupts
+                    writing.countDown();
+                    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                    while (System.nanoTime() < end) {
+                        Thread.yield();
+                    }
+                    writtenAfterClose.set(closeReturned.get());
+                    written.countDown();
+                }
+
+                super.write(string);
+            }
+        };
+
+        DataFileWriter writer = DataFileWriter.outputTo(output)
+                .withDataHeaders(Collections.singletonList("H1"))
+                .withFormattingThreads(2)
+                .build();
+
+        // a full batch of rows, handed to the writer thread without flushing
+        for (int i = 0; i < 256; i++) {
+            writer.write(Timestamp.of(2016, 11, 22, 1, 2, 3), 3, means(1.0), stdevs(2.0));
+        }
+        writing.await();
+
+        Thread.currentThread().interrupt();
+        try {
+            writer.close();
+        } catch (InterruptedIOException e) {
+            // expected: the thread was interrupted
+        } finally {
+            closeReturned.set(true);
+            Thread.interrupted();
+        }
+
+        written.await();
+        assertThat(writtenAfterClose.get(), is(false));
+    }
+
+    @Test
+    public void
+    write_FixedPrecisionOf2_MeansAndStandardDeviationsRoundedTo2DigitsAfterThePoint() throws Exception {
+        StringWriter output = new StringWriter();
+
+        try (
+                DataFileWriter writer = DataFileWriter.outputTo(output)
+                        .withDataHeaders(Collections.singletonList("H1"))
+                        .withDatePattern(datePattern)
+                        .withTimePattern(timePattern)
+                        .withFixedPrecision(2)
+                        .build()
+        ) {
+            writer.write(Timestamp.of(2016, 11, 22, 1, 2, 3), 3, means(1.0 / 3), stdevs(2.1213203435596424));
+        }
+
+        assertThat(output.toString(),
+                is("Date,Time,Count,H1 - Avg,H1 - StdDev" + END_LINE +
+                   "2016/11/22,01:02:03,3,0.33,2.12" + END_LINE));
+    }
+
+}
@@ -12,6 +12,7 @@ import java.util.*;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -59,6 +60,54 @@ public class DataRecordReaderTest {
                 is(new DataRecord(Timestamp.of(2016, 8, 9, 11, 22, 1), Arrays.asList(176.0, 186.0))));
     }
 
+    @Test
+    public void
+    read_RecordWithEpochMillisInFirstColumn_DataRecordWithCorrectTimestamp() throws Exception {
+        RecordParser parserStub = fakeParser(
+                record("1476094200250", "176", "186"));
+
+        recordReader = DataRecordReader.with(parserStub)
+                .withEpochTimestampInColumn(0, Unit.MILLIS)
+                .build();
+
+        assertThat(recordReader.read(), is(new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0, 250_000_000),
+                Arrays.asList(176.0, 186.0))));
+    }
+
+    @Test
+    public void read_RecordWithEpochSecondsThatAreNotIntegers_ThrowsParseException() throws Exception {
+        RecordParser parserStub = fakeParser(
+                record("09/08/2016", "176"));
+
+        recordReader = DataRecordReader.with(parserStub)
+                .withEpochTimestampInColumn(0, Unit.SECONDS)
+                .build();
+
+        catcher.expect(ParseException.class);
+        catcher.expectMessage("Epoch timestamp is not valid: '09/08/2016'.");
+        recordReader.read();
+    }
+
+    @Test
+    public void read_InvalidRecordBeyondTheMaximumInt_ThrowsRecordParseExceptionWithTheFullRecordNumber()
+            throws Exception {
+        long recordNumber = Integer.MAX_VALUE + 10L;
+        RecordParser parserStub = mock(RecordParser.class);
+        when(parserStub.parseRecord()).thenReturn(Record.from(record("09/08/2016", "11:22:01", "x"),
+                recordNumber));
+
+        recordReader = DataRecordReader.with(parserStub).build();
+
+        try {
+            recordReader.read();
+            fail("expected a RecordParseException");
+
+        } catch (RecordParseException e) {
+            assertThat(e.getRecordNumber(), is(recordNumber));
+            assertThat(e.getErrorOffset(), is(Integer.MAX_VALUE));
+        }
+    }
+
     @Test
     public void read_RecordWithOnlyDateAndTimeColumns_ThrowsParseException() throws Exception {
         RecordParser parserStub = fakeParser(
@@ -216,4 +265,21 @@ public class DataRecordReaderTest {
                 is(new DataRecord(Timestamp.of(2016, 8, 9, 11, 22, 1), Arrays.asList(123.0, 142.0))));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void
+    read_RecordWithKeyInSecondColumn_DataRecordWithKeyAndWithoutKeyValue() throws Exception {
+        RecordParser parserStub = fakeParser(
+                record("09/08/2016 11:22:01", "device-7", "123", "142"));
+
+        recordReader = DataRecordReader.with(parserStub)
+                .withDateAndTimeInColumn(0)
+                .withKeyInColumn(1)
+                .withDatePattern("dd/MM/uuuu")
+                .withTimePattern("HH:mm:ss")
+                .build();
+
+        assertThat(recordReader.read(),
+                is(new DataRecord(Timestamp.of(2016, 8, 9, 11, 22, 1), "device-7", Arrays.asList(123.0, 142.0))));
+    }
+
+}
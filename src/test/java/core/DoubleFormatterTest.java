@@ -0,0 +1,61 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+
+public class DoubleFormatterTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private final DoubleFormatter formatter = DoubleFormatter.shortest();
+
+    @Test
+    public void format_CommonValues_SameAsDoubleToString() throws Exception {
+        double[] values = {0.0, -0.0, 1.0, 0.1, 0.001, 9.99e-4, 1234567.0, 1e7, 2.1213203435596424,
+                Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.NEGATIVE_INFINITY};
+
+        for (double value : values) {
+            collector.checkThat(formatter.format(value), is(Double.toString(value)));
+        }
+    }
+
+    @Test
+    public void format_ValueWithTooManyDigitsInJava8_ShortestDecimal() throws Exception {
+        collector.checkThat(formatter.format(1.0E23), is("1.0E23"));
+        collector.checkThat(formatter.format(2.0155032486058253E18), is("2.0155032486058253E18"));
+    }
+
+    @Test
+    public void format_RandomValues_ConvertBackToTheSameValueWithoutMoreDigitsThanDoubleToString()
+            throws Exception {
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value)) continue;
+
+            String formatted = formatter.format(value);
+            collector.checkThat(Double.parseDouble(formatted), is(value));
+            collector.checkThat(formatted.length() <= Double.toString(value).length(), is(true));
+        }
+    }
+
+    @Test
+    public void format_FixedPrecisionOf3_RoundedHalfUpTo3DigitsAfterThePoint() throws Exception {
+        DoubleFormatter formatter = DoubleFormatter.withFixedPrecision(3);
+
+        collector.checkThat(formatter.format(2.1213203435596424), is("2.121"));
+        collector.checkThat(formatter.format(9.9996), is("10.0"));
+        collector.checkThat(formatter.format(-0.0005), is("-0.001"));
+        collector.checkThat(formatter.format(0.0004), is("0.0"));
+        collector.checkThat(formatter.format(1.5), is("1.5"));
+        collector.checkThat(formatter.format(1e-300), is("0.0"));
+    }
+
+}
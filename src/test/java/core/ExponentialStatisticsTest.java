@@ -0,0 +1,51 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+
+public class ExponentialStatisticsTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void getMeans_SecondValueAddedOneHalfLifeAfterTheFirst_FirstValueWeighsHalf() throws Exception {
+        ExponentialStatistics statistics = new ExponentialStatistics(1, Period.of(1, Unit.MINUTES));
+
+        statistics.addEntry(Timestamp.of(2016, 10, 10, 10, 10, 0), Collections.singletonList(3.0));
+        statistics.addEntry(Timestamp.of(2016, 10, 10, 10, 11, 0), Collections.singletonList(6.0));
+
+        // weights are 0.5 and 1
+        assertEquals(5.0, statistics.getMeans().get(0), 1e-12);
+        assertEquals(Math.sqrt((0.5 * 4 + 1) / 1.5), statistics.getStandardDeviations().get(0), 1e-12);
+    }
+
+    @Test
+    public void getMeans_ValuesWithSameTimestamp_SameWeight() throws Exception {
+        ExponentialStatistics statistics = new ExponentialStatistics(1, Period.of(1, Unit.MINUTES));
+
+        statistics.addEntry(Timestamp.of(2016, 10, 10, 10, 10, 0), Collections.singletonList(2.0));
+        statistics.addEntry(Timestamp.of(2016, 10, 10, 10, 10, 0), Collections.singletonList(4.0));
+
+        assertEquals(3.0, statistics.getMeans().get(0), 1e-12);
+        assertEquals(1.0, statistics.getStandardDeviations().get(0), 1e-12);
+    }
+
+    @Test
+    public void resetCount_AfterEntries_CountIsResetButMeansAreKept() throws Exception {
+        ExponentialStatistics statistics = new ExponentialStatistics(1, Period.of(1, Unit.MINUTES));
+
+        statistics.addEntry(Timestamp.of(2016, 10, 10, 10, 10, 0), Collections.singletonList(2.0));
+        statistics.resetCount();
+
+        collector.checkThat(statistics.getCount(), is(0L));
+        collector.checkThat(statistics.getMeans(), is(Collections.singletonList(2.0)));
+    }
+
+}
@@ -0,0 +1,68 @@
+package core;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FlightRecorderEventsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long countEvents(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .count();
+    }
+
+    @Test
+    public void
+    process_FileWith3PeriodsWhileRecording_RecordsTheEventsOfEachStage() throws Exception {
+        File dataFile = folder.newFile("data.csv");
+        try (Writer writer = new FileWriter(dataFile)) {
+            writer.write("10/10/2016,10:10:00,1.0\r\n" +
+                         "10/10/2016,10:10:05,2.0\r\n" +
+                         "10/10/2016,10:10:10,3.0\r\n");
+        }
+
+        File recordingFile = folder.newFile("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("statzy.FileOpened");
+            recording.enable("statzy.BatchParsed");
+            recording.enable("statzy.PeriodFinalized");
+            recording.enable("statzy.OutputFlushed");
+            recording.start();
+
+            try (
+                    DataRecordReader reader = DataRecordReader.with(dataFile).build();
+                    DataFileWriter writer = DataFileWriter.outputTo(folder.newFile("output.csv"))
+                            .withDataHeaders(Collections.singletonList("H1"))
+                            .build()
+            ) {
+                new StatisticsGenerator().process(reader, writer, Period.of(5, Unit.SECONDS));
+            }
+
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile.toPath());
+        assertThat(countEvents(events, "statzy.FileOpened"), is(2L));
+        assertThat(countEvents(events, "statzy.BatchParsed"), is(1L));
+        assertThat(countEvents(events, "statzy.PeriodFinalized"), is(3L));
+        assertThat(countEvents(events, "statzy.OutputFlushed"), is(1L));
+    }
+
+}
@@ -0,0 +1,110 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class HistogramTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public ExpectedException catcher = ExpectedException.none();
+
+    @Test
+    public void addValue_LinearHistogramFrom0To10With5Buckets_ValuesCountedInCorrectBuckets() throws Exception {
+        Histogram histogram = Histogram.linear(0, 10, 5);
+
+        histogram.addValue(-1.0);
+        histogram.addValue(0.0);
+        histogram.addValue(1.9);
+        histogram.addValue(2.0);
+        histogram.addValue(9.99);
+        histogram.addValue(10.0);
+        histogram.addValue(Double.NaN);
+
+        collector.checkThat(histogram.getBucketCount(), is(7));
+        collector.checkThat(histogram.getCount(0), is(2L));
+        collector.checkThat(histogram.getCount(1), is(2L));
+        collector.checkThat(histogram.getCount(2), is(1L));
+        collector.checkThat(histogram.getCount(5), is(1L));
+        collector.checkThat(histogram.getCount(6), is(1L));
+    }
+
+    @Test
+    public void addValue_LogHistogramWith4SubBuckets_ValuesCountedInCorrectBuckets() throws Exception {
+        Histogram histogram = Histogram.logarithmic(1, 7, 4);
+
+        histogram.addValue(0.5);
+        histogram.addValue(1.0);
+        histogram.addValue(1.3);
+        histogram.addValue(6.0);
+        histogram.addValue(8.0);
+
+        // buckets from 1 to 8: 1, 1.25, 1.5, 1.75, 2, 2.5, 3, 3.5, 4, 5, 6, 7
+        collector.checkThat(histogram.getBucketCount(), is(14));
+        collector.checkThat(histogram.getCount(0), is(1L));
+        collector.checkThat(histogram.getCount(1), is(1L));
+        collector.checkThat(histogram.getCount(2), is(1L));
+        collector.checkThat(histogram.getCount(11), is(1L));
+        collector.checkThat(histogram.getCount(13), is(1L));
+        collector.checkThat(histogram.getLowerBound(11), is(6.0));
+    }
+
+    @Test
+    public void merge_TwoHistogramsWithSameLayout_CountsAreAddedBucketByBucket() throws Exception {
+        Histogram histogram = Histogram.linear(0, 10, 5);
+        Histogram other = histogram.emptyCopy();
+
+        histogram.addValue(1.0);
+        other.addValue(1.5);
+        other.addValue(5.0);
+        histogram.merge(other);
+
+        assertThat(histogram.getResult(), is("1:2 3:1"));
+    }
+
+    @Test
+    public void merge_TwoHistogramsWithDifferentLayouts_ThrowsIllegalArgumentException() throws Exception {
+        Histogram histogram = Histogram.linear(0, 10, 5);
+
+        catcher.expect(IllegalArgumentException.class);
+        histogram.merge(Histogram.linear(0, 10, 10));
+    }
+
+    @Test
+    public void getResult_EmptyHistogram_EmptyString() throws Exception {
+        Histogram histogram = Histogram.linear(0, 10, 5);
+
+        histogram.addValue(1.0);
+        histogram.clear();
+
+        assertThat(histogram.getResult(), is(""));
+    }
+
+    @Test
+    public void linear_MoreBucketsThanTheMaximum_ThrowsIllegalArgumentException() throws Exception {
+        catcher.expect(IllegalArgumentException.class);
+        Histogram.linear(0, 10, Histogram.MAX_BUCKET_COUNT + 1);
+    }
+
+    @Test
+    public void logarithmic_BoundsSpanningTooManyPowersOf2_ThrowsIllegalArgumentException() throws Exception {
+        catcher.expect(IllegalArgumentException.class);
+        Histogram.logarithmic(1e-300, 1e300, 1 << 20);
+    }
+
+    @Test
+    public void logarithmic_MaximumNumberOfBuckets_CreatesTheHistogram() throws Exception {
+        // 2^0 to 2^15 are 16 powers of 2, each with 2^12 sub-buckets
+        Histogram histogram = Histogram.logarithmic(1, 1 << 15, 1 << 12);
+
+        assertThat(histogram.getBucketCount(), is(Histogram.MAX_BUCKET_COUNT + 2));
+    }
+
+}
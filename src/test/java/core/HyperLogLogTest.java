@@ -0,0 +1,65 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class HyperLogLogTest {
+
+    @Rule
+    public ExpectedException catcher = ExpectedException.none();
+
+    @Test
+    public void getEstimate_NoValues_0() throws Exception {
+        assertThat(new HyperLogLog().getEstimate(), is(0L));
+    }
+
+    @Test
+    public void getEstimate_3DistinctValuesAddedManyTimes_3() throws Exception {
+        HyperLogLog hyperLogLog = new HyperLogLog();
+
+        for (int i = 0; i < 1000; i++) {
+            hyperLogLog.addValue(i % 3);
+        }
+        hyperLogLog.addValue(-0.0);
+
+        assertThat(hyperLogLog.getEstimate(), is(3L));
+    }
+
+    @Test
+    public void getEstimate_100000DistinctValues_EstimateWithin3StandardErrors() throws Exception {
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+
+        for (int i = 0; i < 100000; i++) {
+            hyperLogLog.addValue(i);
+        }
+
+        // standard error is 1.04 / sqrt(2^12) = 1.6%
+        assertEquals(100000, hyperLogLog.getEstimate(), 100000 * 0.05);
+    }
+
+    @Test
+    public void merge_TwoOverlappingAggregators_EstimatesTheDistinctValuesOfBoth() throws Exception {
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+        HyperLogLog other = hyperLogLog.emptyCopy();
+
+        for (int i = 0; i < 20000; i++) {
+            hyperLogLog.addValue(i);
+            other.addValue(i + 10000);
+        }
+        hyperLogLog.merge(other);
+
+        assertEquals(30000, hyperLogLog.getEstimate(), 30000 * 0.05);
+    }
+
+    @Test
+    public void merge_DifferentPrecisions_ThrowsIllegalArgumentException() throws Exception {
+        catcher.expect(IllegalArgumentException.class);
+        new HyperLogLog(12).merge(new HyperLogLog(14));
+    }
+
+}
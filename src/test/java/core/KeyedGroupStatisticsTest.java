@@ -0,0 +1,66 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+
+public class KeyedGroupStatisticsTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void getCountAndMeansAndStdDevs_EntriesOf2Keys_SameStatisticsAsGroupStatisticsForEachKey() throws Exception {
+        KeyedGroupStatistics keyedStatistics = new KeyedGroupStatistics(2);
+
+        keyedStatistics.addEntry("A", Arrays.asList(2.0, 5.5));
+        keyedStatistics.addEntry("B", Arrays.asList(7.0, 1.0));
+        keyedStatistics.addEntry("A", Arrays.asList(1.0, 4.5));
+        keyedStatistics.addEntry("A", Arrays.asList(3.0, 6.5));
+
+        collector.checkThat(keyedStatistics.getSlotCount(), is(2));
+        collector.checkThat(keyedStatistics.getKey(0), is("A"));
+        collector.checkThat(keyedStatistics.getCount(0), is(3L));
+        collector.checkThat(keyedStatistics.getMeans(0), is(Arrays.asList(2.0, 5.5)));
+        collector.checkThat(keyedStatistics.getStandardDeviations(0), is(Arrays.asList(1.0, 1.0)));
+        collector.checkThat(keyedStatistics.getKey(1), is("B"));
+        collector.checkThat(keyedStatistics.getCount(1), is(1L));
+        collector.checkThat(keyedStatistics.getMeans(1), is(Arrays.asList(7.0, 1.0)));
+        collector.checkThat(keyedStatistics.getStandardDeviations(1), is(Arrays.asList(0.0, 0.0)));
+    }
+
+    @Test
+    public void addEntry_1000Keys_EachKeyHasItsOwnSlot() throws Exception {
+        KeyedGroupStatistics keyedStatistics = new KeyedGroupStatistics(1);
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 1000; i++) {
+                keyedStatistics.addEntry("device" + i, Arrays.asList((double) i));
+            }
+        }
+
+        collector.checkThat(keyedStatistics.getSlotCount(), is(1000));
+        collector.checkThat(keyedStatistics.getKey(999), is("device999"));
+        collector.checkThat(keyedStatistics.getCount(999), is(2L));
+        collector.checkThat(keyedStatistics.getMeans(999), is(Arrays.asList(999.0)));
+    }
+
+    @Test
+    public void clear_AfterEntries_SlotsAreKeptWithoutValues() throws Exception {
+        KeyedGroupStatistics keyedStatistics = new KeyedGroupStatistics(1);
+
+        keyedStatistics.addEntry("A", Arrays.asList(1.0));
+        keyedStatistics.clear();
+        keyedStatistics.addEntry("B", Arrays.asList(2.0));
+
+        collector.checkThat(keyedStatistics.getSlotCount(), is(2));
+        collector.checkThat(keyedStatistics.getCount(0), is(0L));
+        collector.checkThat(Double.isNaN(keyedStatistics.getMeans(0).get(0)), is(true));
+        collector.checkThat(keyedStatistics.getMeans(1), is(Arrays.asList(2.0)));
+    }
+
+}
@@ -0,0 +1,56 @@
+package core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.FileAlreadyExistsException;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class MatrixFileWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static CovarianceMatrix matrix() {
+        CovarianceMatrix matrix = new CovarianceMatrix(2);
+        matrix.addEntry(Arrays.asList(1.0, 2.0));
+        matrix.addEntry(Arrays.asList(2.0, 3.0));
+        return matrix;
+    }
+
+    @Test
+    public void
+    write_PeriodsOfMillisecondsWithinTheSameSecond_WritesEachPeriodToItsOwnFile() throws Exception {
+        MatrixFileWriter writer = MatrixFileWriter.outputTo(folder.getRoot())
+                .withPeriodUnit(Unit.MILLIS)
+                .withDataHeaders(Arrays.asList("H1", "H2"))
+                .build();
+
+        Timestamp first = Timestamp.of(2016, 11, 22, 1, 0, 0, 100_000_000);
+        Timestamp second = Timestamp.of(2016, 11, 22, 1, 0, 0, 200_000_000);
+        writer.write(first, matrix());
+        writer.write(second, matrix());
+
+        assertThat(writer.getFile(first), is(new File(folder.getRoot(), "covariance-20161122-010000100.csv")));
+        assertThat(writer.getFile(first), is(not(writer.getFile(second))));
+        assertThat(writer.getFile(second).exists(), is(true));
+    }
+
+    @Test(expected = FileAlreadyExistsException.class)
+    public void
+    write_TwoPeriodsWithTheSameFileName_ThrowsFileAlreadyExistsException() throws Exception {
+        MatrixFileWriter writer = MatrixFileWriter.outputTo(folder.getRoot())
+                .withDataHeaders(Arrays.asList("H1", "H2"))
+                .build();
+
+        writer.write(Timestamp.of(2016, 11, 22, 1, 0, 0, 100_000_000), matrix());
+        writer.write(Timestamp.of(2016, 11, 22, 1, 0, 0, 200_000_000), matrix());
+    }
+
+}
@@ -0,0 +1,75 @@
+package core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ParallelGzipOutputStreamTest {
+
+    private static byte[] decompress(byte[] compressed) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[8192];
+            for (int length; (length = input.read(buffer)) > 0; ) {
+                output.write(buffer, 0, length);
+            }
+        }
+
+        return output.toByteArray();
+    }
+
+    @Test
+    public void write_DataSpanningManyBlocks_DecompressesIntoTheSameData() throws Exception {
+        Random random = new Random(11);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int i = 0; i < 300_000; i++) {
+            data.write(("22/11/2016,01:02:03," + random.nextInt(1000) + "," + random.nextDouble() + "\r\n")
+                    .getBytes("US-ASCII"));
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(compressed, 4)) {
+            byte[] bytes = data.toByteArray();
+            gzip.write(bytes, 0, 1000);
+            gzip.write(bytes[1000]);
+            gzip.write(bytes, 1001, bytes.length - 1001);
+        }
+
+        assertThat(decompress(compressed.toByteArray()), is(data.toByteArray()));
+    }
+
+    @Test
+    public void write_ManyMoreBlocksThanPendingBlocks_DecompressesIntoTheSameData() throws Exception {
+        Random random = new Random(13);
+        byte[] data = new byte[10 * 1024 * 1024 + 12_345];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('0' + random.nextInt(10));
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(compressed, 1)) {
+            for (int offset = 0; offset < data.length; offset += 100_000) {
+                gzip.write(data, offset, Math.min(100_000, data.length - offset));
+            }
+        }
+
+        assertThat(decompress(compressed.toByteArray()), is(data));
+    }
+
+    @Test
+    public void close_NoDataWritten_ValidGzipStreamWithoutData() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(compressed, 2).close();
+
+        assertThat(decompress(compressed.toByteArray()).length, is(0));
+    }
+
+}
@@ -0,0 +1,56 @@
+package core;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PeriodCursorTest {
+
+    @Test
+    public void
+    new_TimestampWith250123NanosAndPeriodOf100Micros_BoundsTruncatedToMicros() throws Exception {
+        PeriodCursor cursor = new PeriodCursor(Timestamp.of(2016, 6, 12, 12, 12, 12, 250_123),
+                Period.of(100, Unit.MICROS));
+
+        assertThat(cursor.getLowerBound(), is(Timestamp.of(2016, 6, 12, 12, 12, 12, 250_000)));
+        assertThat(cursor.getUpperBound(), is(Timestamp.of(2016, 6, 12, 12, 12, 12, 350_000)));
+    }
+
+    @Test
+    public void
+    new_TimestampBeforeTheEpochAndPeriodOf1Day_LowerBoundAtMidnightOfTheSameDay() throws Exception {
+        PeriodCursor cursor = new PeriodCursor(Timestamp.of(1969, 12, 31, 18, 0, 0), Period.of(1, Unit.DAYS));
+
+        assertThat(cursor.getLowerBound(), is(Timestamp.of(1969, 12, 31, 0, 0, 0)));
+    }
+
+    @Test
+    public void
+    advance_3PeriodsSkippedUntil101012_LowerBoundAt101010() throws Exception {
+        PeriodCursor cursor = new PeriodCursor(Timestamp.of(2016, 10, 10, 10, 9, 50), Period.of(5, Unit.SECONDS));
+        Timestamp record = Timestamp.of(2016, 10, 10, 10, 10, 12);
+
+        assertThat(cursor.isPast(record), is(true));
+        long skippedPeriodCount = cursor.periodsUntil(record);
+        cursor.advance(skippedPeriodCount);
+
+        assertThat(skippedPeriodCount, is(3L));
+        assertThat(cursor.getLowerBound(), is(Timestamp.of(2016, 10, 10, 10, 10, 10)));
+        assertThat(cursor.isPast(record), is(false));
+    }
+
+    @Test
+    public void
+    advance_ToATimestampWhoseNanosDoNotFitALong_SameBoundsAsTheCalendar() throws Exception {
+        PeriodCursor cursor = new PeriodCursor(Timestamp.of(2262, 4, 11, 0, 0, 0), Period.of(1, Unit.DAYS));
+        Timestamp record = Timestamp.of(2262, 4, 13, 10, 0, 0);
+
+        assertThat(cursor.isPast(record), is(true));
+        cursor.advance(cursor.periodsUntil(record));
+
+        assertThat(cursor.getLowerBound(), is(Timestamp.of(2262, 4, 13, 0, 0, 0)));
+        assertThat(cursor.getUpperBound(), is(Timestamp.of(2262, 4, 14, 0, 0, 0)));
+    }
+
+}
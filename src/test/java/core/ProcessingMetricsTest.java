@@ -0,0 +1,54 @@
+package core;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ProcessingMetricsTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final ProcessingMetrics metrics = new ProcessingMetrics();
+
+    @After
+    public void tearDown() {
+        metrics.unregister();
+    }
+
+    @Test
+    public void
+    register_2RecordsParsed_RecordsParsedAttributeIs2() throws Exception {
+        metrics.addRecordParsed(10);
+        metrics.addRecordParsed(20);
+
+        ObjectName objectName = metrics.register("test");
+
+        assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "RecordsParsed"),
+                is(2L));
+        assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "ParseNanos"),
+                is(30L));
+    }
+
+    @Test
+    public void
+    register_OtherMetricsWithTheSameName_ThrowsIllegalStateException() throws Exception {
+        ProcessingMetrics otherMetrics = new ProcessingMetrics();
+        otherMetrics.register("duplicate");
+
+        try {
+            thrown.expect(IllegalStateException.class);
+            metrics.register("duplicate");
+        } finally {
+            otherMetrics.unregister();
+        }
+    }
+
+}
@@ -3,12 +3,18 @@ package core;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.text.ParseException;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -21,6 +27,9 @@ public class RecordParserTest {
     @Rule
     public ExpectedException catcher = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private static Reader createFakeFileWithLines(String... lines) {
         // join all lines in the file with a new line
         String fileContent = Arrays.stream(lines)
@@ -107,4 +116,22 @@ public class RecordParserTest {
         assertThat(parser.parseRecord(), is(nullValue()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void
+    parseRecord_AllRowsOfGzipFile_RowsAreDecompressedAndBytesReadReachTheFileSize() throws Exception {
+        File file = folder.newFile("data.csv.gz");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)))) {
+            writer.write("09/08/2016, 11:22:00, 176\n09/08/2016, 11:22:05, 186\n");
+        }
+
+        parser = new RecordParser(file);
+
+        assertThat(parser.parseRecord().get(2), is("176"));
+        assertThat(parser.parseRecord().get(2), is("186"));
+        assertThat(parser.parseRecord(), is(nullValue()));
+        assertThat(parser.getBytesRead(), is(file.length()));
+        assertThat(parser.getInputSize(), is(file.length()));
+        parser.close();
+    }
+
+}
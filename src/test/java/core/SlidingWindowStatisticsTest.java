@@ -0,0 +1,48 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class SlidingWindowStatisticsTest {
+
+    @Test
+    public void slide_RandomSlidesWith4SlidesPerWindow_SameStatisticsAsGroupStatisticsOverTheLast4Slides() throws Exception {
+        Random random = new Random(7);
+        SlidingWindowStatistics windowStatistics = new SlidingWindowStatistics(1, 4);
+        List<List<Double>> slides = new ArrayList<>();
+
+        for (int slide = 0; slide < 50; slide++) {
+            List<Double> slideValues = new ArrayList<>();
+            int entryCount = random.nextInt(5);     // some slides are empty
+            for (int i = 0; i < entryCount; i++) {
+                double value = 100 + random.nextGaussian();
+                slideValues.add(value);
+                windowStatistics.addEntry(Collections.singletonList(value));
+            }
+
+            slides.add(slideValues);
+            windowStatistics.slide();
+
+            GroupStatistics expected = new GroupStatistics(1);
+            for (List<Double> values : slides.subList(Math.max(0, slides.size() - 4), slides.size())) {
+                values.forEach(value -> expected.addEntry(Collections.singletonList(value)));
+            }
+
+            assertThat(windowStatistics.getCount(), is(expected.getCount()));
+            if (expected.getCount() > 0) {
+                assertEquals(expected.getMeans().get(0), windowStatistics.getMeans().get(0), 1e-9);
+                assertEquals(expected.getStandardDeviations().get(0),
+                        windowStatistics.getStandardDeviations().get(0), 1e-9);
+            }
+        }
+    }
+
+}
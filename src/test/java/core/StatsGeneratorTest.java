@@ -2,15 +2,22 @@ package core;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.StringWriter;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import static org.hamcrest.CoreMatchers.endsWith;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -124,4 +131,363 @@ public class StatsGeneratorTest {
                 .write(Timestamp.of(2016, 10, 10, 10, 1, 0), 1, means(5.5), stdevs(0.0));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void
+    process_RecordsOf2KeysIn2Periods_OutputsOneRowPerKeyWithRecordsInEachPeriod() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0), "A", means(5.5)),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 1), "B", means(1.0)),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 2), "A", means(4.5)),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 5), "B", means(3.0))
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 10, 0), "A", 2, means(5.0), stdevs(0.7071067811865476));
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 10, 0), "B", 1, means(1.0), stdevs(0.0));
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 10, 5), "B", 1, means(3.0), stdevs(0.0));
+        verify(dataFileWriterMock, never())
+                .write(eq(Timestamp.of(2016, 10, 10, 10, 10, 5)), eq("A"), anyLong(), anyList(), anyList());
+    }
+
+    @Test
+    public void
+    process_WindowOf10SecondsSlidingEvery5Seconds_OutputsEveryWindowContainingRecords() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.0),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 5), 4.0),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 7), 6.0)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Window.of(10, 5, Unit.SECONDS));
+
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 9, 55), 1, means(5.0), stdevs(0.0));
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 10, 0), 3, means(5.0), stdevs(1.0));
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 10, 5), 2, means(5.0), stdevs(1.4142135623730951));
+        verify(dataFileWriterMock, times(3)).write(any(), anyLong(), anyList(), anyList());
+    }
+
+    @Test
+    public void
+    process_OutlierInSecondPeriodWithAnomalyOutput_WritesOutlierWithItsRecordNumber() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0), null, means(5.0), 1),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 1), null, means(6.0), 2),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 2), null, means(4.0), 3),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 5), null, means(5.5), 4),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 6), null, means(50.0), 5)
+        );
+        setupDataRecordReader(records);
+
+        StringWriter output = new StringWriter();
+        StringWriter anomalies = new StringWriter();
+        DataFileWriter dataFileWriter = DataFileWriter.outputTo(output)
+                .withDataHeaders("H1")
+                .withAggregators(AnomalyDetector.zScore(3.0))
+                .withAnomalyOutput(anomalies)
+                .build();
+
+        statisticsGenerator.process(dataReader, dataFileWriter, Period.of(5, Unit.SECONDS));
+        dataFileWriter.close();
+
+        assertThat(output.toString(), endsWith(",0\r\n" + "10/10/2016,10:10:05,2,27.75,31.46" +
+                "6251762801363,1\r\n"));
+        assertThat(anomalies.toString(), is("Record,Timestamp,Data Set,Value,Score\r\n" +
+                "5,2016-10-10 10:10:06,H1,50.0,45.0\r\n"));
+    }
+
+    @Test
+    public void
+    process_OutlierWithMillisecondTimestampAndAnomalyOutput_WritesTheMillisecondsOfTheOutlier()
+            throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0, 100_000_000), null, means(5.0), 1),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0, 200_000_000), null, means(6.0), 2),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0, 300_000_000), null, means(4.0), 3),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0, 600_000_000), null, means(5.5), 4),
+                new DataRecord(Timestamp.of(2016, 10, 10, 10, 10, 0, 650_000_000), null, means(50.0), 5)
+        );
+        setupDataRecordReader(records);
+
+        StringWriter anomalies = new StringWriter();
+        DataFileWriter dataFileWriter = DataFileWriter.outputTo(new StringWriter())
+                .withDataHeaders("H1")
+                .withAggregators(AnomalyDetector.zScore(3.0))
+                .withAnomalyOutput(anomalies)
+                .build();
+
+        statisticsGenerator.process(dataReader, dataFileWriter, Period.of(500, Unit.MILLIS));
+        dataFileWriter.close();
+
+        assertThat(anomalies.toString(), endsWith("5,2016-10-10 10:10:00.650,H1,50.0,45.0\r\n"));
+    }
+
+    @Test
+    public void
+    process_RecordsOneHourApartWithPeriodsOf1Second_OutputsEveryEmptyPeriod() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 11, 10, 0), 4.5)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(1, Unit.SECONDS));
+
+        verify(dataFileWriterMock, times(3600 - 1)).write(any(), eq(0L), anyList(), anyList());
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 11, 9, 59), 0, means(Double.NaN), stdevs(Double.NaN));
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 11, 10, 0), 1, means(4.5), stdevs(0.0));
+    }
+
+    @Test
+    public void
+    process_GapOf2PeriodsWithMarkerPolicy_OutputsASingleGapMarker() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 15), 4.5)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.setGapPolicy(GapPolicy.MARKER);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+
+        verify(dataFileWriterMock).writeGap(Timestamp.of(2016, 10, 10, 10, 10, 5));
+        verify(dataFileWriterMock, never()).write(any(), eq(0L), anyList(), anyList());
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 10, 15), 1, means(4.5), stdevs(0.0));
+    }
+
+    @Test
+    public void
+    process_GapOf2PeriodsWithSkipPolicy_OutputsOnlyPeriodsWithRecords() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 15), 4.5)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.setGapPolicy(GapPolicy.SKIP);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+
+        verify(dataFileWriterMock, times(2)).write(any(), anyLong(), anyList(), anyList());
+        verify(dataFileWriterMock, never()).writeGap(any());
+    }
+
+    @Test
+    public void
+    process_WindowsOneHourApart_OutputsEveryEmptyWindow() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 11, 10, 0), 4.5)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Window.of(10, 5, Unit.SECONDS));
+
+        verify(dataFileWriterMock, times(718)).write(any(), eq(0L), anyList(), anyList());
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 10, 10, 5), 0, means(Double.NaN), stdevs(Double.NaN));
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 11, 9, 50), 0, means(Double.NaN), stdevs(Double.NaN));
+        verify(dataFileWriterMock)
+                .write(Timestamp.of(2016, 10, 10, 11, 9, 55), 1, means(4.5), stdevs(0.0));
+        verify(dataFileWriterMock, times(718 + 4)).write(any(), anyLong(), anyList(), anyList());
+    }
+
+    @Test
+    public void
+    process_WindowsOneHourApartWithMarkerPolicy_OutputsASingleGapMarker() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 11, 10, 0), 4.5)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.setGapPolicy(GapPolicy.MARKER);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Window.of(10, 5, Unit.SECONDS));
+
+        verify(dataFileWriterMock).writeGap(Timestamp.of(2016, 10, 10, 10, 10, 5));
+        verify(dataFileWriterMock, never()).write(any(), eq(0L), anyList(), anyList());
+        verify(dataFileWriterMock, times(4)).write(any(), anyLong(), anyList(), anyList());
+    }
+
+    @Test
+    public void
+    processExponentiallyWeighted_GapOf2Periods_OutputsEmptyPeriodsWithTheLastWeightedMeans() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 15), 4.5)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.processExponentiallyWeighted(dataReader, dataFileWriterMock,
+                Period.of(5, Unit.SECONDS), Period.of(10, Unit.SECONDS));
+
+        verify(dataFileWriterMock)
+                .write(eq(Timestamp.of(2016, 10, 10, 10, 10, 5)), eq(0L), eq(means(5.5)), anyList());
+        verify(dataFileWriterMock)
+                .write(eq(Timestamp.of(2016, 10, 10, 10, 10, 10)), eq(0L), eq(means(5.5)), anyList());
+        verify(dataFileWriterMock, times(4)).write(any(), anyLong(), anyList(), anyList());
+    }
+
+    @Test
+    public void
+    processExponentiallyWeighted_GapOf2PeriodsWithSkipPolicy_OutputsOnlyPeriodsWithRecords() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 15), 4.5)
+        );
+        setupDataRecordReader(records);
+
+        statisticsGenerator.setGapPolicy(GapPolicy.SKIP);
+        statisticsGenerator.processExponentiallyWeighted(dataReader, dataFileWriterMock,
+                Period.of(5, Unit.SECONDS), Period.of(10, Unit.SECONDS));
+
+        verify(dataFileWriterMock, never()).write(any(), eq(0L), anyList(), anyList());
+        verify(dataFileWriterMock, times(2)).write(any(), anyLong(), anyList(), anyList());
+        verify(dataFileWriterMock, never()).writeGap(any());
+    }
+
+    @Test
+    public void
+    process_1200RecordsPipelined_OutputsTheSamePeriodsInOrder() throws Exception {
+        List<DataRecord> records = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            Timestamp timestamp = Timestamp.of(2016, 10, 10, 10, 0, 0).plus(Period.of(i, Unit.SECONDS));
+            records.add(DataRecord.with(timestamp, 1.0));
+        }
+        setupDataRecordReader(records);
+
+        statisticsGenerator.setPipelined(true);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(1, Unit.MINUTES));
+
+        InOrder inOrder = inOrder(dataFileWriterMock);
+        for (int minute = 0; minute < 20; minute++) {
+            inOrder.verify(dataFileWriterMock)
+                    .write(Timestamp.of(2016, 10, 10, 10, minute, 0), 60, means(1.0), stdevs(0.0));
+        }
+        verify(dataFileWriterMock, times(20)).write(any(), anyLong(), anyList(), anyList());
+    }
+
+    @Test(expected = RecordParseException.class)
+    public void
+    process_PipelinedReaderFailsOnTheSecondRecord_ThrowsTheParseException() throws Exception {
+        when(dataReader.read())
+                .thenReturn(DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5))
+                .thenThrow(new RecordParseException("Corrupted record", 2));
+
+        statisticsGenerator.setPipelined(true);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+    }
+
+    @Test(timeout = 10_000, expected = OutOfMemoryError.class)
+    public void
+    process_PipelinedReaderFailsWithAnError_ThrowsTheErrorInsteadOfBlocking() throws Exception {
+        when(dataReader.read())
+                .thenReturn(DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5))
+                .thenThrow(new OutOfMemoryError("Reader failed"));
+
+        statisticsGenerator.setPipelined(true);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+    }
+
+    @Test
+    public void
+    process_3RecordsIn2PeriodsWithMetrics_Counts3RecordsAnd2Periods() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 5), 4.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 7), 7.5)
+        );
+        setupDataRecordReader(records);
+        ProcessingMetrics metrics = new ProcessingMetrics();
+
+        statisticsGenerator.setMetrics(metrics);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+
+        assertThat(metrics.getRecordsParsed(), is(3L));
+        assertThat(metrics.getPeriodsEmitted(), is(2L));
+        assertThat(metrics.getParseErrors(), is(0L));
+    }
+
+    @Test
+    public void
+    process_3RecordsWithThroughputListener_ReportsTheWholeInputReadAtTheEnd() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 5), 4.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 7), 7.5)
+        );
+        setupDataRecordReader(records);
+        when(dataReader.getBytesRead()).thenReturn(0L, 300L);
+        when(dataReader.getInputSize()).thenReturn(300L);
+        ThroughputListener listener = mock(ThroughputListener.class);
+        ArgumentCaptor<Progress> progress = ArgumentCaptor.forClass(Progress.class);
+
+        statisticsGenerator.addListener(listener);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+
+        verify(listener, times(2)).notifyProcessingPeriod(any(), any());
+        verify(listener, atLeastOnce()).notifyProgress(progress.capture());
+        Progress lastProgress = progress.getValue();
+        assertThat(lastProgress.isFinished(), is(true));
+        assertThat(lastProgress.getRecordsRead(), is(3L));
+        assertThat(lastProgress.getBytesRead(), is(300L));
+        assertThat(lastProgress.getFraction(), is(1.0));
+    }
+
+    @Test
+    public void
+    process_1200RecordsIn240PeriodsWithNotificationRate_NotifiesFewerPeriodsEndingWithTheLast()
+            throws Exception {
+        List<DataRecord> records = new ArrayList<>();
+        Timestamp start = Timestamp.of(2016, 10, 10, 10, 10, 0);
+        for (int i = 0; i < 1200; i++) {
+            records.add(DataRecord.with(start.plus(Period.of(i, Unit.SECONDS)), (double) i));
+        }
+        setupDataRecordReader(records);
+        ProgressListener listener = mock(ProgressListener.class);
+
+        statisticsGenerator.setNotificationRate(10);
+        statisticsGenerator.addListener(listener);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+
+        ArgumentCaptor<Timestamp> lowerBounds = ArgumentCaptor.forClass(Timestamp.class);
+        verify(listener, atLeastOnce()).notifyProcessingPeriod(lowerBounds.capture(), any());
+        assertThat(lowerBounds.getAllValues().size() < 240, is(true));
+        assertThat(lowerBounds.getValue(), is(Timestamp.of(2016, 10, 10, 10, 29, 55)));
+    }
+
+    @Test(timeout = 10_000)
+    public void
+    process_NotificationRateOfOnceInATrillionSeconds_NotifiesTheLastPeriodOnceDone() throws Exception {
+        List<DataRecord> records = Arrays.asList(
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 0), 5.5),
+                DataRecord.with(Timestamp.of(2016, 10, 10, 10, 10, 5), 4.5)
+        );
+        setupDataRecordReader(records);
+        ProgressListener listener = mock(ProgressListener.class);
+
+        statisticsGenerator.setNotificationRate(1e-12);
+        statisticsGenerator.addListener(listener);
+        statisticsGenerator.process(dataReader, dataFileWriterMock, Period.of(5, Unit.SECONDS));
+
+        verify(listener).notifyProcessingPeriod(Timestamp.of(2016, 10, 10, 10, 10, 5),
+                Timestamp.of(2016, 10, 10, 10, 10, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setNotificationRate_InfiniteRate_ThrowsIllegalArgumentException() throws Exception {
+        statisticsGenerator.setNotificationRate(Double.POSITIVE_INFINITY);
+    }
+
+}
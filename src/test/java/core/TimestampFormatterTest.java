@@ -24,6 +24,15 @@ public class TimestampFormatterTest {
                 is(Timestamp.of(2016, 12, 9, 15, 10, 11)));
     }
 
+    @Test
+    public void parse_PatternWithMilliseconds_TimestampWithMilliseconds() throws Exception {
+
+        TimestampFormatter formatter = TimestampFormatter.ofPattern("dd/MM/uuuu HH:mm:ss.SSS");
+
+        assertThat(formatter.parse("09/12/2016 15:10:11.025"),
+                is(Timestamp.of(2016, 12, 9, 15, 10, 11, 25_000_000)));
+    }
+
     @Test
     public void parse_NumbersAreNotPrefixedByZero_ThrowsDateTimeParseException() throws Exception {
 
@@ -130,4 +130,64 @@ public class TimestampTest {
                 is(Timestamp.of(2016, 10, 10, 10, 10, 13)));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void periodsUntil_5SecondsFrom101000Until101012_2() throws Exception {
+
+        Timestamp timestamp = Timestamp.of(2016, 10, 10, 10, 10, 0);
+
+        assertThat(timestamp.periodsUntil(Timestamp.of(2016, 10, 10, 10, 10, 12), Period.of(5, SECONDS)),
+                is(2L));
+    }
+
+    @Test
+    public void periodsUntil_2MonthsFromJanuaryUntilMiddleOfJuly_3() throws Exception {
+
+        Timestamp timestamp = Timestamp.of(2016, 1, 1, 0, 0, 0);
+
+        assertThat(timestamp.periodsUntil(Timestamp.of(2016, 7, 15, 10, 10, 10), Period.of(2, MONTHS)),
+                is(3L));
+    }
+
+    @Test
+    public void plus_3Times2MonthsOnDate20160131_Date20160731() throws Exception {
+
+        Timestamp timestamp = Timestamp.of(2016, 1, 31, 10, 10, 10);
+
+        assertThat(timestamp.plus(Period.of(2, MONTHS), 3),
+                is(Timestamp.of(2016, 7, 31, 10, 10, 10)));
+    }
+
+    @Test
+    public void truncatedTo_MillisOn101010And123456789Nanos_101010And123Millis() throws Exception {
+        assertThat(Timestamp.of(2016, 6, 12, 10, 10, 10, 123_456_789).truncatedTo(MILLIS),
+                is(Timestamp.of(2016, 6, 12, 10, 10, 10, 123_000_000)));
+    }
+
+    @Test
+    public void plus_250MicrosOn101010And999900Micros_101011And150Micros() throws Exception {
+
+        Timestamp timestamp = Timestamp.of(2016, 10, 10, 10, 10, 10, 999_900_000);
+
+        assertThat(timestamp.plus(Period.of(250, MICROS)),
+                is(Timestamp.of(2016, 10, 10, 10, 10, 11, 150_000)));
+    }
+
+    @Test
+    public void toEpochNanos_TimestampBeforeEpoch_ConvertsBackToTheSameTimestamp() throws Exception {
+
+        Timestamp timestamp = Timestamp.of(1969, 12, 31, 23, 59, 59, 999_999_999);
+
+        assertThat(timestamp.toEpochNanos(), is(-1L));
+        assertThat(Timestamp.ofEpochNanos(timestamp.toEpochNanos()), is(timestamp));
+    }
+
+    @Test
+    public void ofEpoch_NegativeMicros_TimestampBeforeEpochThatConvertsBackToTheSameValue() throws Exception {
+
+        Timestamp timestamp = Timestamp.ofEpoch(-1_500_001L, MICROS);
+
+        assertThat(timestamp, is(Timestamp.of(1969, 12, 31, 23, 59, 58, 499_999_000)));
+        assertThat(timestamp.toEpoch(MICROS), is(-1_500_001L));
+    }
+
+}